@@ -1,6 +1,8 @@
 import com.google.gson.Gson;
 import com.google.gson.reflect.TypeToken;
 
+import trivia.QuestionDistribution;
+
 import java.io.FileReader;
 import java.lang.reflect.Type;
 import java.util.*;
@@ -36,51 +38,21 @@ public class CheckQuestions {
                 difficultyMap.put(q.difficulty, difficultyMap.getOrDefault(q.difficulty, 0) + 1);
             }
 
+            QuestionDistribution distribution = new QuestionDistribution(categories);
+
             // display distinct categories
             System.out.println("\nDistinct categories:");
-            List<String> sortedCategories = new ArrayList<>(categories.keySet());
-            Collections.sort(sortedCategories);
-            for (String cat : sortedCategories) {
+            for (String cat : distribution.categories()) {
                 System.out.println("  - " + cat);
             }
 
             System.out.println("\nTotal categories: " + categories.size());
-            System.out.println("\nComplete distribution (minimum required: 3):");
-            System.out.printf("%-20s %-8s %-8s %-8s%n", "Category", "EASY", "MEDIUM", "HARD");
-            System.out.println("-".repeat(50));
-
-            List<String> insufficient = new ArrayList<>();
-
-            for (String cat : sortedCategories) {
-                Map<String, Integer> diffMap = categories.get(cat);
-                int easy = diffMap.getOrDefault("EASY", 0);
-                int medium = diffMap.getOrDefault("MEDIUM", 0);
-                int hard = diffMap.getOrDefault("HARD", 0);
-
-                System.out.printf("%-20s %-8d %-8d %-8d%n", cat, easy, medium, hard);
-
-                if (easy < 3) {
-                    insufficient.add(cat + " EASY (" + easy + "/3)");
-                }
-                if (medium < 3) {
-                    insufficient.add(cat + " MEDIUM (" + medium + "/3)");
-                }
-                if (hard < 3) {
-                    insufficient.add(cat + " HARD (" + hard + "/3)");
-                }
-            }
+            System.out.println("\nComplete distribution (minimum required: "
+                    + QuestionDistribution.MIN_PER_COMBINATION + "):");
+            distribution.printTable(System.out);
 
             System.out.println("\nTotal questions: " + questions.size());
-
-            if (!insufficient.isEmpty()) {
-                System.out.println("\n❌ Insufficient combinations (<3 questions):");
-                for (String combo : insufficient) {
-                    System.out.println("  - " + combo);
-                }
-                System.out.println("\nTotal insufficient combinations: " + insufficient.size());
-            } else {
-                System.out.println("\n✓ All combinations have at least 3 questions for each difficulty!");
-            }
+            distribution.printVerdict(System.out);
 
         } catch (Exception e) {
             System.err.println("Error loading JSON: " + e.getMessage());
@@ -0,0 +1,73 @@
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import trivia.BinaryQuestionPack;
+import trivia.Question;
+import trivia.QuestionDistribution;
+
+import java.io.FileReader;
+import java.lang.reflect.Type;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * CompileQuestions turns a questions.json file into a compiled
+ * {@link BinaryQuestionPack} that QuestionBank.load can memory-map.
+ * It checks the distribution first, the same way {@code CheckQuestions}
+ * does (minimum 3 questions per category-difficulty combination), and
+ * leaves any existing pack untouched if the check fails. After writing it
+ * reads the pack back and makes sure it holds the same distribution.
+ *
+ * Exits with status 1 when the questions are insufficient or the pack
+ * could not be written, so build scripts can stop on it.
+ *
+ * Usage: java CompileQuestions [questions.json] [questions.mwqp]
+ */
+public class CompileQuestions {
+
+    public static void main(String[] args) {
+        String jsonPath = args.length > 0 ? args[0] : "questions.json";
+        String packPath = args.length > 1 ? args[1] : "questions.mwqp";
+
+        try (FileReader reader = new FileReader(jsonPath)) {
+            Gson gson = new Gson();
+            Type listType = new TypeToken<List<Question>>() {
+            }.getType();
+            List<Question> questions = gson.fromJson(reader, listType);
+            if (questions == null || questions.isEmpty()) {
+                System.err.println("No questions found in " + jsonPath);
+                System.exit(1);
+            }
+
+            QuestionDistribution distribution = QuestionDistribution.of(questions);
+            System.out.printf("%nRead %d questions from %s%n", questions.size(), jsonPath);
+            distribution.printTable(System.out);
+            distribution.printVerdict(System.out);
+            if (!distribution.isSufficient()) {
+                System.err.println("\nNot writing " + packPath + ": some combinations are insufficient.");
+                System.exit(1);
+            }
+
+            // write() goes through a temp file, so a failed write keeps the old pack.
+            BinaryQuestionPack.write(questions, Path.of(packPath));
+
+            QuestionDistribution packed;
+            int packedCount;
+            try (BinaryQuestionPack pack = BinaryQuestionPack.open(Path.of(packPath))) {
+                packed = new QuestionDistribution(pack.distribution());
+                packedCount = pack.size();
+            }
+            if (packedCount != questions.size() || !packed.equals(distribution)) {
+                System.err.println("\nPack holds " + packedCount + " questions, not the " + questions.size()
+                        + " in the JSON grouped the same way");
+                System.exit(1);
+            }
+            System.out.printf("%nWrote %d questions to %s%n", packedCount, packPath);
+
+        } catch (Exception e) {
+            System.err.println("Error compiling questions: " + e.getMessage());
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,499 @@
+import bot.BotStrategy;
+import bot.EasyBot;
+import bot.HardBot;
+import bot.MediumBot;
+import model.GameModel;
+import model.GameSettings;
+import network.GameClient;
+import network.GameServer;
+import network.MessageCodec;
+import network.NetworkMessage;
+import trivia.Question;
+import trivia.QuestionBank;
+import trivia.QuestionType;
+import util.Tasks;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * LoadTest fills a {@link GameServer} with networked bots: every seat is a
+ * real {@link GameClient} on its own TCP connection, grouped into rooms of
+ * {@code --players}, and each room plays a full game (READY, ANSWER and
+ * CLAIM_CELL, exactly like a person at a client) until GAME_OVER. It
+ * reports request latency percentiles, message throughput, dropped
+ * connections and, for the in-process server, CPU and heap.
+ *
+ * Usage: java LoadTest [--clients N] [--players N] [--map SIZE]
+ * [--bot Easy|Medium|Hard] [--codec json|binary] [--ramp MS] [--think MS]
+ * [--result-delay MS] [--timeout S] [--questions FILE] [--connect HOST:PORT]
+ *
+ * Without --connect the server runs in this JVM on a free port, so the CPU
+ * and heap figures include the clients too; the server loop figure is the
+ * selector thread alone. --result-delay sets the server's pause after each
+ * answer (-Dmindwars.resultDelay, 1600 ms by default) to run games faster
+ * than people play them. Bots claim random free cells.
+ */
+public class LoadTest {
+
+    public static void main(String[] args) throws Exception {
+        int clients = 200;
+        int players = 4;
+        int mapSize = 5;
+        String botName = "Easy";
+        MessageCodec.Format codec = MessageCodec.defaultFormat();
+        long rampMs = 2000;
+        long thinkMs = 0;
+        long resultDelayMs = -1;
+        long timeoutS = 600;
+        String questions = "questions.json";
+        String connect = null;
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--clients" -> clients = Integer.parseInt(args[++i]);
+                    case "--players" -> players = Integer.parseInt(args[++i]);
+                    case "--map" -> mapSize = Integer.parseInt(args[++i]);
+                    case "--bot" -> botName = args[++i];
+                    case "--codec" -> codec = MessageCodec.parseFormat(args[++i]);
+                    case "--ramp" -> rampMs = Long.parseLong(args[++i]);
+                    case "--think" -> thinkMs = Long.parseLong(args[++i]);
+                    case "--result-delay" -> resultDelayMs = Long.parseLong(args[++i]);
+                    case "--timeout" -> timeoutS = Long.parseLong(args[++i]);
+                    case "--questions" -> questions = args[++i];
+                    case "--connect" -> connect = args[++i];
+                    default -> throw new IllegalArgumentException("unknown option " + args[i]);
+                }
+            }
+            if (players < 2 || players > GameServer.MAX_PLAYERS)
+                throw new IllegalArgumentException("--players must be 2 to " + GameServer.MAX_PLAYERS);
+            if (clients < players)
+                throw new IllegalArgumentException("--clients must be at least --players");
+            newBot(botName);
+        } catch (RuntimeException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.err.println("Usage: java LoadTest [--clients N] [--players N] [--map SIZE] [--bot NAME] "
+                    + "[--codec json|binary] [--ramp MS] [--think MS] [--result-delay MS] [--timeout S] "
+                    + "[--questions FILE] [--connect HOST:PORT]");
+            System.exit(1);
+            return;
+        }
+        // Read once when GameRoom is first used, so it must be set before the server starts.
+        if (resultDelayMs >= 0)
+            System.setProperty("mindwars.resultDelay", Long.toString(resultDelayMs));
+
+        int rooms = clients / players;
+        int seats = rooms * players;
+        if (rooms > GameServer.MAX_ROOMS)
+            System.out.printf("Warning: %d rooms exceed the server limit of %d; the rest will be refused%n",
+                    rooms, GameServer.MAX_ROOMS);
+
+        GameServer server = null;
+        String host;
+        int port;
+        if (connect == null) {
+            QuestionBank bank = QuestionBank.load(questions);
+            GameSettings template = new GameSettings(mapSize, false, "Player 1", "Player 2", "Player 3",
+                    "Player 4", true, null, null, players);
+            server = new GameServer(0, template, () -> new GameModel(bank));
+            server.start();
+            host = "127.0.0.1";
+            port = server.getBoundPort();
+        } else {
+            int colon = connect.lastIndexOf(':');
+            host = connect.substring(0, colon);
+            port = Integer.parseInt(connect.substring(colon + 1));
+        }
+
+        Stats stats = new Stats();
+        Sampler sampler = new Sampler(server != null);
+        CountDownLatch done = new CountDownLatch(seats);
+        List<Seat> all = new ArrayList<>(seats);
+
+        System.out.printf("%d clients in %d rooms of %d on %s:%d (%s, %s bots)%n", seats, rooms, players, host,
+                port, MessageCodec.formatName(codec), botName);
+        long start = System.nanoTime();
+        sampler.start();
+        for (int r = 0; r < rooms; r++) {
+            for (int s = 0; s < players; s++) {
+                Seat seat = new Seat("load-" + r, "Bot " + r + "." + s, players, newBot(botName), thinkMs,
+                        stats, done);
+                all.add(seat);
+                seat.connect(host, port, codec);
+                if (rampMs > 0)
+                    Thread.sleep(rampMs / seats);
+            }
+        }
+
+        // Seats that lose their connection never see GAME_OVER; count them out as they drop.
+        long deadline = start + TimeUnit.SECONDS.toNanos(timeoutS);
+        while (!done.await(250, TimeUnit.MILLISECONDS) && System.nanoTime() < deadline) {
+            for (Seat seat : all)
+                seat.checkDropped();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        sampler.stop();
+
+        int finished = 0;
+        int dropped = 0;
+        int stalled = 0;
+        for (Seat seat : all) {
+            seat.checkDropped();
+            if (seat.finished)
+                finished++;
+            else if (seat.dropped)
+                dropped++;
+            else
+                stalled++;
+            seat.client.close();
+        }
+        if (server != null)
+            server.stop();
+
+        report(stats, sampler, seats, finished, dropped, stalled, players, seconds);
+        System.exit(dropped + stalled == 0 ? 0 : 2);
+    }
+
+    private static BotStrategy newBot(String name) {
+        return switch (name) {
+            case "Easy" -> new EasyBot();
+            case "Medium" -> new MediumBot();
+            case "Hard" -> new HardBot();
+            default -> throw new IllegalArgumentException("unknown bot " + name);
+        };
+    }
+
+    private static void report(Stats stats, Sampler sampler, int seats, int finished, int dropped, int stalled,
+            int players, double seconds) {
+        System.out.printf("%n%.1f s: %d/%d clients finished their game, %d dropped, %d timed out%n", seconds,
+                finished, seats, dropped, stalled);
+        System.out.printf("Games: %d (%.2f games/s)   Errors from server: %d%n", stats.games.sum() / players,
+                stats.games.sum() / players / seconds, stats.errors.sum());
+        System.out.printf("Messages: %d sent (%.0f/s), %d received (%.0f/s)%n%n", stats.sent.sum(),
+                stats.sent.sum() / seconds, stats.received.sum(), stats.received.sum() / seconds);
+
+        System.out.printf("%-24s %8s %9s %9s %9s %9s %9s%n", "Latency (ms)", "Count", "p50", "p90", "p99", "p99.9",
+                "Max");
+        System.out.println("-".repeat(82));
+        stats.join.print("JOIN -> WELCOME");
+        stats.start.print("START_GAME -> PHASE");
+        stats.answer.print("ANSWER -> RESULT");
+        stats.claim.print("CLAIM_CELL -> MAP_UPDATE");
+
+        System.out.println();
+        if (sampler.samples == 0) {
+            System.out.println("Server CPU/heap: n/a");
+            return;
+        }
+        System.out.printf("Process CPU: avg %.0f%%, peak %.0f%% across %d cores%n", 100 * sampler.cpuSum / sampler.samples,
+                100 * sampler.cpuPeak, Runtime.getRuntime().availableProcessors());
+        if (sampler.loopThread >= 0)
+            System.out.printf("Server loop thread: %.2f s CPU (%.0f%% of one core)%n", sampler.loopCpuNs / 1e9,
+                    100 * sampler.loopCpuNs / 1e9 / seconds);
+        System.out.printf("Heap used: avg %.1f MB, peak %.1f MB (max %.1f MB)%n",
+                sampler.heapSum / sampler.samples / 1048576.0, sampler.heapPeak / 1048576.0,
+                Runtime.getRuntime().maxMemory() / 1048576.0);
+    }
+
+    // ── Bots ──
+
+    /** One bot at one client connection; reacts to broadcasts on the client's reader thread. */
+    private static final class Seat {
+        final GameClient client = new GameClient();
+        private final String room;
+        private final String name;
+        private final int players;
+        private final BotStrategy bot;
+        private final long thinkMs;
+        private final Stats stats;
+        private final CountDownLatch done;
+
+        private int seat = -1;
+        private boolean startSent;
+        private char[] grid;
+        private int size;
+        private long joinAt;
+        private volatile long startAt;
+        private volatile long answerAt;
+        private volatile long claimAt;
+        volatile boolean finished;
+        volatile boolean dropped;
+
+        Seat(String room, String name, int players, BotStrategy bot, long thinkMs, Stats stats, CountDownLatch done) {
+            this.room = room;
+            this.name = name;
+            this.players = players;
+            this.bot = bot;
+            this.thinkMs = thinkMs;
+            this.stats = stats;
+            this.done = done;
+            client.setListener(this::onMessage);
+        }
+
+        void connect(String host, int port, MessageCodec.Format codec) {
+            client.setWireFormat(codec);
+            joinAt = System.nanoTime();
+            try {
+                client.connect(host, port, name, room);
+                stats.sent.increment();
+            } catch (IOException e) {
+                markDropped();
+            }
+        }
+
+        /** Counts this seat out if its connection went away before the game ended. */
+        void checkDropped() {
+            if (!finished && !dropped && joinAt != 0 && !client.isConnected())
+                markDropped();
+        }
+
+        private synchronized void markDropped() {
+            if (finished || dropped)
+                return;
+            dropped = true;
+            done.countDown();
+        }
+
+        private void onMessage(NetworkMessage msg) {
+            stats.received.increment();
+            switch (msg.type) {
+                case WELCOME -> {
+                    seat = msg.playerIndex == null ? -1 : msg.playerIndex;
+                    stats.join.add(System.nanoTime() - joinAt);
+                }
+                case LOBBY -> {
+                    if (seat == 0 && !startSent && msg.playerNames != null && msg.playerNames.size() == players) {
+                        startSent = true;
+                        startAt = System.nanoTime();
+                        send(new NetworkMessage(NetworkMessage.Type.START_GAME));
+                    }
+                }
+                case PHASE -> {
+                    long t = startAt;
+                    if (t != 0) {
+                        stats.start.add(System.nanoTime() - t);
+                        startAt = 0;
+                    }
+                    if ("HOT_SEAT_PASS".equals(msg.phase) || "INVASION_PASS".equals(msg.phase))
+                        later(() -> send(NetworkMessage.ready()));
+                }
+                case QUESTION -> {
+                    if (msg.currentPlayer != null && msg.currentPlayer == seat)
+                        later(() -> answer(msg));
+                }
+                case RESULT -> {
+                    long t = answerAt;
+                    if (t != 0 && msg.playerIndex != null && msg.playerIndex == seat) {
+                        stats.answer.add(System.nanoTime() - t);
+                        answerAt = 0;
+                    }
+                }
+                case MAP_UPDATE -> onMapUpdate(msg);
+                case ERROR -> {
+                    // GameClient stops reading after an ERROR; the watchdog counts the drop.
+                    stats.errors.increment();
+                    if (stats.errors.sum() <= 5)
+                        System.err.println(name + ": " + msg.errorMessage);
+                }
+                case GAME_OVER -> {
+                    synchronized (this) {
+                        if (!finished && !dropped) {
+                            finished = true;
+                            stats.games.increment();
+                            done.countDown();
+                        }
+                    }
+                }
+                default -> {
+                }
+            }
+        }
+
+        private void answer(NetworkMessage msg) {
+            Question q = new Question();
+            q.setType(msg.questionType == null ? QuestionType.MULTIPLE_CHOICE : QuestionType.valueOf(msg.questionType));
+            q.setPrompt(msg.prompt);
+            q.setCategory(msg.category);
+            q.setDifficulty(msg.difficulty);
+            q.setChoices(msg.choices);
+            String answer = bot.getAnswer(q);
+            // Bots pick choice texts; the server expects the letter.
+            if (answer != null && msg.choices != null && q.getType() == QuestionType.MULTIPLE_CHOICE) {
+                int i = msg.choices.indexOf(answer);
+                if (i >= 0)
+                    answer = String.valueOf((char) ('A' + i));
+            }
+            answerAt = System.nanoTime();
+            send(NetworkMessage.answer(answer == null ? "" : answer,
+                    Math.min(bot.getResponseTime(), GameModel.TIME_LIMIT_MS)));
+        }
+
+        private void onMapUpdate(NetworkMessage msg) {
+            long t = claimAt;
+            if (t != 0) {
+                stats.claim.add(System.nanoTime() - t);
+                claimAt = 0;
+            }
+            if (msg.gridSnapshot != null) {
+                grid = msg.gridSnapshot.toCharArray();
+                size = msg.mapSize;
+            } else if (grid != null && msg.changedCells != null) {
+                for (int i = 0; i + 1 < msg.changedCells.size(); i += 2)
+                    grid[msg.changedCells.get(i)] = (char) msg.changedCells.get(i + 1).intValue();
+            }
+            if (grid == null || msg.claimingPlayer == null || msg.claimingPlayer != seat)
+                return;
+            int cell = randomFree();
+            if (cell >= 0)
+                later(() -> {
+                    claimAt = System.nanoTime();
+                    send(NetworkMessage.claimCell(cell / size, cell % size));
+                });
+        }
+
+        private int randomFree() {
+            int free = 0;
+            for (char c : grid) {
+                if (c == '.')
+                    free++;
+            }
+            if (free == 0)
+                return -1;
+            int pick = ThreadLocalRandom.current().nextInt(free);
+            for (int i = 0; i < grid.length; i++) {
+                if (grid[i] == '.' && pick-- == 0)
+                    return i;
+            }
+            return -1;
+        }
+
+        private void send(NetworkMessage msg) {
+            client.send(msg);
+            stats.sent.increment();
+        }
+
+        private void later(Runnable action) {
+            if (thinkMs > 0)
+                Tasks.runAfter("LoadTest-Think", thinkMs, action);
+            else
+                action.run();
+        }
+    }
+
+    // ── Measurements ──
+
+    private static final class Stats {
+        final LongAdder sent = new LongAdder();
+        final LongAdder received = new LongAdder();
+        final LongAdder errors = new LongAdder();
+        final LongAdder games = new LongAdder();
+        final Latencies join = new Latencies();
+        final Latencies start = new Latencies();
+        final Latencies answer = new Latencies();
+        final Latencies claim = new Latencies();
+    }
+
+    /** Every sample kept, sorted once for the report. */
+    private static final class Latencies {
+        private long[] nanos = new long[1024];
+        private int count;
+
+        synchronized void add(long ns) {
+            if (count == nanos.length)
+                nanos = Arrays.copyOf(nanos, count * 2);
+            nanos[count++] = ns;
+        }
+
+        synchronized void print(String label) {
+            if (count == 0) {
+                System.out.printf("%-24s %8d%n", label, 0);
+                return;
+            }
+            long[] sorted = Arrays.copyOf(nanos, count);
+            Arrays.sort(sorted);
+            System.out.printf("%-24s %8d %9.2f %9.2f %9.2f %9.2f %9.2f%n", label, count, at(sorted, 0.50),
+                    at(sorted, 0.90), at(sorted, 0.99), at(sorted, 0.999), sorted[count - 1] / 1e6);
+        }
+
+        /** Nearest-rank percentile, in ms. */
+        private static double at(long[] sorted, double p) {
+            int rank = (int) Math.ceil(p * sorted.length);
+            return sorted[Math.max(0, rank - 1)] / 1e6;
+        }
+    }
+
+    /** Samples CPU and heap every 250 ms while the test runs. */
+    private static final class Sampler {
+        private final boolean enabled;
+        private final AtomicInteger stop = new AtomicInteger();
+        private Thread thread;
+        long loopThread = -1;
+        private long loopStartNs;
+        long loopCpuNs;
+        int samples;
+        double cpuSum;
+        double cpuPeak;
+        double heapSum;
+        long heapPeak;
+
+        Sampler(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        void start() {
+            if (!enabled)
+                return;
+            ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+            for (Thread t : Thread.getAllStackTraces().keySet()) {
+                if (t.getName().equals("MindWars-ServerLoop"))
+                    loopThread = t.threadId();
+            }
+            if (loopThread >= 0)
+                loopStartNs = threads.getThreadCpuTime(loopThread);
+            thread = new Thread(this::run, "LoadTest-Sampler");
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        void stop() throws InterruptedException {
+            if (thread == null)
+                return;
+            stop.set(1);
+            thread.join();
+            if (loopThread >= 0)
+                loopCpuNs = Math.max(0, ManagementFactory.getThreadMXBean().getThreadCpuTime(loopThread) - loopStartNs);
+        }
+
+        private void run() {
+            MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+            java.lang.management.OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+            while (stop.get() == 0) {
+                try {
+                    Thread.sleep(250);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                double cpu = os instanceof com.sun.management.OperatingSystemMXBean sun ? sun.getProcessCpuLoad() : -1;
+                long heap = memory.getHeapMemoryUsage().getUsed();
+                synchronized (this) {
+                    samples++;
+                    cpuSum += Math.max(0, cpu);
+                    cpuPeak = Math.max(cpuPeak, cpu);
+                    heapSum += heap;
+                    heapPeak = Math.max(heapPeak, heap);
+                }
+            }
+        }
+    }
+}
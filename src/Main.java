@@ -1,9 +1,13 @@
+import java.io.IOException;
+
 import javax.swing.SwingUtilities;
 import javax.swing.UIManager;
 
 import game.Game;
 import game.UnitTests;
 import model.GameModel;
+import model.GameSettings;
+import network.GameServer;
 import trivia.QuestionBank;
 import util.AudioSettings;
 import util.ConsoleIO;
@@ -15,22 +19,35 @@ import view.MainWindow;
  * - Entry point of the program.
  * - Launches the Swing GUI by default.
  * - Pass {@code --console} to fall back to the original console game.
+ * - Pass {@code --server [port]} to run a headless multi-room host.
  */
 
 public class Main {
     public static void main(String[] args) {
 
         boolean consoleMode = false;
-        for (String arg : args) {
+        int serverPort = -1;
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
             if ("--console".equalsIgnoreCase(arg) || "-c".equalsIgnoreCase(arg)) {
                 consoleMode = true;
+            } else if ("--server".equalsIgnoreCase(arg)) {
+                serverPort = GameServer.DEFAULT_PORT;
+                if (i + 1 < args.length && args[i + 1].matches("\\d+")) {
+                    serverPort = Integer.parseInt(args[++i]);
+                }
             }
         }
 
+        if (serverPort > 0) {
+            runDedicatedServer(serverPort);
+            return;
+        }
+
         if (consoleMode) {
             UnitTests.runAll();
             ConsoleIO io = ConsoleIO.getConsole();
-            QuestionBank bank = new QuestionBank("questions.json");
+            QuestionBank bank = QuestionBank.load("questions.json");
             Game engine = new Game(io, bank);
             engine.run();
             return;
@@ -41,7 +58,7 @@ public class Main {
         } catch (Exception ignored) {
         }
 
-        QuestionBank bank = new QuestionBank("questions.json");
+        QuestionBank bank = QuestionBank.load("questions.json");
         GameModel model = new GameModel(bank);
 
         AudioSettings audioSettings = new AudioSettings();
@@ -54,4 +71,28 @@ public class Main {
         SwingUtilities.invokeLater(() -> new MainWindow(model, soundManager).setVisible(true));
 
     }
+
+    /**
+     * Hosts many matches from one process: every room gets its own
+     * {@link GameModel} over the shared question bank, created when the
+     * first client names the room and dropped when the last one leaves.
+     */
+    private static void runDedicatedServer(int port) {
+        QuestionBank bank = QuestionBank.load("questions.json");
+        GameSettings template = new GameSettings(
+                3, false, "Player 1", "Player 2", "", "", true, null, null, GameServer.MAX_PLAYERS);
+        GameServer server = new GameServer(port, template, () -> new GameModel(bank));
+        try {
+            server.start();
+        } catch (IOException e) {
+            System.err.println("Could not start server: " + e.getMessage());
+            return;
+        }
+        System.out.println("MindWars server listening on port " + server.getBoundPort());
+        Runtime.getRuntime().addShutdownHook(new Thread(server::stop));
+        try {
+            Thread.currentThread().join();
+        } catch (InterruptedException ignored) {
+        }
+    }
 }
@@ -0,0 +1,148 @@
+import bot.BotStrategy;
+import bot.EasyBot;
+import bot.HardBot;
+import bot.MediumBot;
+import bot.MonteCarloBot;
+import model.HeadlessGame;
+import trivia.QuestionBank;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * SelfPlay runs bot-vs-bot games headlessly (see {@link HeadlessGame}) on
+ * every core and reports win rates, average scores and territory, and
+ * games per second. Seats rotate from game to game so no bot keeps the
+ * first-player advantage.
+ *
+ * Usage: java SelfPlay [--games N] [--threads N] [--map SIZE]
+ * [--bots Easy,Hard,...] [--budget MS] [--invasion] [--questions FILE]
+ *
+ * --budget is the per-move thinking time of Expert bots (default 20 ms
+ * here, so thousands of games stay practical).
+ */
+public class SelfPlay {
+
+    public static void main(String[] args) throws InterruptedException {
+        int games = 1000;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int mapSize = 5;
+        String[] bots = { "Easy", "Hard" };
+        long budgetMs = 20;
+        boolean invasion = false;
+        String questions = "questions.json";
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--games" -> games = Integer.parseInt(args[++i]);
+                    case "--threads" -> threads = Integer.parseInt(args[++i]);
+                    case "--map" -> mapSize = Integer.parseInt(args[++i]);
+                    case "--bots" -> bots = args[++i].split(",");
+                    case "--budget" -> budgetMs = Long.parseLong(args[++i]);
+                    case "--invasion" -> invasion = true;
+                    case "--questions" -> questions = args[++i];
+                    default -> throw new IllegalArgumentException("unknown option " + args[i]);
+                }
+            }
+            if (bots.length < 2 || bots.length > 4)
+                throw new IllegalArgumentException("--bots needs 2 to 4 names");
+            for (String b : bots)
+                newBot(b, budgetMs);
+        } catch (RuntimeException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.err.println("Usage: java SelfPlay [--games N] [--threads N] [--map SIZE] "
+                    + "[--bots Easy,Hard,...] [--budget MS] [--invasion] [--questions FILE]");
+            System.exit(1);
+            return;
+        }
+
+        QuestionBank bank = QuestionBank.load(questions);
+        Tally[] tallies = new Tally[bots.length];
+        for (int i = 0; i < tallies.length; i++)
+            tallies[i] = new Tally();
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+
+        final int total = games;
+        final int size = mapSize;
+        final String[] lineup = bots;
+        final long budget = budgetMs;
+        final boolean invade = invasion;
+
+        long start = System.nanoTime();
+        ExecutorService workers = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            workers.execute(() -> {
+                Random rng = new Random();
+                int g;
+                while ((g = next.getAndIncrement()) < total) {
+                    // seat s is played by lineup entry (s + g) % n
+                    int n = lineup.length;
+                    List<BotStrategy> seats = new ArrayList<>(n);
+                    for (int s = 0; s < n; s++)
+                        seats.add(newBot(lineup[(s + g) % n], budget));
+                    try {
+                        HeadlessGame.Result r = HeadlessGame.play(bank, size, seats, invade, rng);
+                        for (int s = 0; s < n; s++)
+                            tallies[(s + g) % n].add(r, s);
+                    } catch (RuntimeException e) {
+                        if (failed.getAndIncrement() == 0)
+                            System.err.println("Game failed: " + e);
+                    }
+                }
+            });
+        }
+        workers.shutdown();
+        workers.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        int played = total - failed.get();
+        System.out.printf("%n%d games on a %dx%d map, %d threads, %.1f s (%.1f games/s)%s%n",
+                played, size, size, threads, seconds, played / seconds, invade ? ", with invasion" : "");
+        if (failed.get() > 0)
+            System.out.println(failed.get() + " games failed");
+        System.out.printf("%-6s %-10s %-8s %-8s %-10s %-10s%n", "Seat", "Bot", "Win %", "Tie %", "Avg score",
+                "Avg cells");
+        System.out.println("-".repeat(56));
+        for (int i = 0; i < lineup.length; i++) {
+            Tally t = tallies[i];
+            double n = Math.max(1, t.games);
+            System.out.printf("%-6d %-10s %-8.1f %-8.1f %-10.1f %-10.2f%n", i + 1, lineup[i],
+                    100 * t.wins / n, 100 * t.ties / n, t.score / n, t.cells / n);
+        }
+    }
+
+    private static BotStrategy newBot(String name, long budgetMs) {
+        return switch (name) {
+            case "Easy" -> new EasyBot();
+            case "Medium" -> new MediumBot();
+            case "Hard" -> new HardBot();
+            case "Expert" -> new MonteCarloBot(budgetMs, ForkJoinPool.commonPool());
+            default -> throw new IllegalArgumentException("unknown bot " + name);
+        };
+    }
+
+    /** Totals for one lineup entry across all games. */
+    private static final class Tally {
+        long games;
+        long wins;
+        long ties;
+        long score;
+        long cells;
+
+        synchronized void add(HeadlessGame.Result r, int seat) {
+            games++;
+            if (r.winner == seat)
+                wins++;
+            else if (r.winner < 0)
+                ties++;
+            score += r.scores[seat];
+            cells += r.territory[seat];
+        }
+    }
+}
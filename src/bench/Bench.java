@@ -0,0 +1,135 @@
+package bench;
+
+import com.google.gson.GsonBuilder;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Minimal JMH-style harness: each benchmark gets timed warmup iterations
+ * and then measured ones, every iteration calling the operation in
+ * growing batches until the iteration time is used up. Results are
+ * average time per call with a 99.9% confidence interval, and can be
+ * written in JMH's JSON result format so existing JMH tooling can read
+ * and compare them.
+ *
+ * <p>
+ * All runs share one JVM (no forks), so a benchmark can be influenced by
+ * what the JIT saw earlier; run a single one with a filter when the
+ * numbers matter.
+ * </p>
+ */
+public final class Bench {
+
+    /** One call of the measured code; return what it computed so the JIT cannot drop it. */
+    @FunctionalInterface
+    public interface Op {
+        Object run() throws Exception;
+    }
+
+    private static final Object MARK = new Object();
+    /** Written once per iteration so the results of every call stay observable. */
+    static volatile long sink;
+
+    private final int warmupIterations;
+    private final int iterations;
+    private final long iterationNanos;
+    private final Pattern filter;
+    private final List<Map<String, Object>> results = new ArrayList<>();
+
+    public Bench(int warmupIterations, int iterations, long iterationMs, String filter) {
+        this.warmupIterations = warmupIterations;
+        this.iterations = iterations;
+        this.iterationNanos = iterationMs * 1_000_000L;
+        this.filter = filter == null ? null : Pattern.compile(filter);
+    }
+
+    /** Measures {@code op} under {@code name} unless the filter excludes it. */
+    public void run(String name, Op op) {
+        if (filter != null && !filter.matcher(name).find())
+            return;
+        try {
+            for (int i = 0; i < warmupIterations; i++)
+                iteration(op);
+            double[] samples = new double[iterations];
+            for (int i = 0; i < iterations; i++)
+                samples[i] = iteration(op);
+            report(name, samples);
+        } catch (Exception e) {
+            System.err.println(name + " failed: " + e);
+        }
+    }
+
+    /** Nanoseconds per call over one iteration. */
+    private double iteration(Op op) throws Exception {
+        long calls = 0;
+        long hits = 0;
+        int batch = 1;
+        long start = System.nanoTime();
+        long elapsed;
+        do {
+            for (int i = 0; i < batch; i++) {
+                if (op.run() == MARK)
+                    hits++;
+            }
+            calls += batch;
+            if (batch < 1 << 20)
+                batch <<= 1;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < iterationNanos);
+        sink = hits;
+        return (double) elapsed / calls;
+    }
+
+    private void report(String name, double[] samples) {
+        int n = samples.length;
+        double mean = 0;
+        for (double s : samples)
+            mean += s;
+        mean /= n;
+        double var = 0;
+        for (double s : samples)
+            var += (s - mean) * (s - mean);
+        // normal approximation of the 99.9% interval; JMH uses Student's t
+        double error = n > 1 ? 3.291 * Math.sqrt(var / (n - 1)) / Math.sqrt(n) : Double.NaN;
+        System.out.printf("%-36s %14.3f +- %10.3f ns/op%n", name, mean, error);
+
+        Map<String, Object> metric = new LinkedHashMap<>();
+        metric.put("score", mean);
+        metric.put("scoreError", Double.isNaN(error) ? "NaN" : error);
+        metric.put("scoreConfidence", new double[] { mean - (Double.isNaN(error) ? 0 : error),
+                mean + (Double.isNaN(error) ? 0 : error) });
+        metric.put("scoreUnit", "ns/op");
+        metric.put("rawData", new double[][] { samples });
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("benchmark", name);
+        result.put("mode", "avgt");
+        result.put("threads", 1);
+        result.put("forks", 0);
+        result.put("jvm", System.getProperty("java.home"));
+        result.put("jdkVersion", System.getProperty("java.version"));
+        result.put("warmupIterations", warmupIterations);
+        result.put("warmupTime", iterationNanos / 1_000_000 + " ms");
+        result.put("measurementIterations", iterations);
+        result.put("measurementTime", iterationNanos / 1_000_000 + " ms");
+        result.put("primaryMetric", metric);
+        results.add(result);
+    }
+
+    /** Writes every result so far as a JMH-compatible JSON array. */
+    public void writeJson(Path file) throws IOException {
+        try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            new GsonBuilder().setPrettyPrinting().serializeSpecialFloatingPointValues().create()
+                    .toJson(results, out);
+        }
+    }
+}
@@ -0,0 +1,305 @@
+package bench;
+
+import game.MapGrid;
+import model.GameMemento;
+import model.GameModel;
+import model.GameSettings;
+import network.MessageCodec;
+import network.NetworkMessage;
+import trivia.AnswerValidator;
+import trivia.Question;
+import trivia.QuestionBank;
+import trivia.QuestionDeck;
+import trivia.QuestionType;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Micro-benchmarks for the hot paths of a game: answer checking, question
+ * lookup, map claims/counts/fog, the network codec, save/restore and the
+ * claim split at the end of a round. Everything runs on synthetic data,
+ * so results do not depend on questions.json or the database.
+ *
+ * Usage: java bench.GameBenchmarks [REGEX] [--json FILE] [--warmup N]
+ * [--iterations N] [--time MS]
+ *
+ * REGEX keeps only benchmarks whose name contains a match (for example
+ * {@code map\.} or {@code codec}). --json writes the results in JMH's JSON
+ * format, for comparing runs.
+ */
+public class GameBenchmarks {
+
+    private static final String[] CATEGORIES = { "Tech", "History", "Science", "Sports" };
+    private static final String[] DIFFICULTIES = { "EASY", "MEDIUM", "HARD" };
+    private static final int MAP_SIZE = 10;
+
+    public static void main(String[] args) throws Exception {
+        String filter = null;
+        String json = null;
+        int warmup = 3;
+        int iterations = 5;
+        long timeMs = 500;
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--json" -> json = args[++i];
+                    case "--warmup" -> warmup = Integer.parseInt(args[++i]);
+                    case "--iterations" -> iterations = Integer.parseInt(args[++i]);
+                    case "--time" -> timeMs = Long.parseLong(args[++i]);
+                    default -> {
+                        if (args[i].startsWith("--") || filter != null)
+                            throw new IllegalArgumentException("unknown option " + args[i]);
+                        filter = args[i];
+                    }
+                }
+            }
+            if (iterations < 1 || warmup < 0 || timeMs < 1)
+                throw new IllegalArgumentException("iterations and time must be positive");
+        } catch (RuntimeException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.err.println("Usage: java bench.GameBenchmarks [REGEX] [--json FILE] [--warmup N] "
+                    + "[--iterations N] [--time MS]");
+            System.exit(1);
+            return;
+        }
+
+        Bench bench = new Bench(warmup, iterations, timeMs, filter);
+        System.out.printf("%d warmup + %d measured iterations of %d ms each%n%n", warmup, iterations, timeMs);
+        answers(bench);
+        questions(bench);
+        map(bench);
+        codec(bench);
+        model(bench);
+
+        if (json != null) {
+            bench.writeJson(Path.of(json));
+            System.out.println("\nResults written to " + json);
+        }
+    }
+
+    // ── Answer checking ──
+
+    private static void answers(Bench bench) {
+        Question mcq = question(QuestionType.MULTIPLE_CHOICE, "C");
+        mcq.setChoices(List.of("Paris", "Rome", "Madrid", "Berlin"));
+        Question tf = question(QuestionType.TRUE_FALSE, "T");
+        Question numeric = question(QuestionType.NUMERIC, "1945");
+        numeric.setNumericAnswer(1945);
+        Question open = question(QuestionType.OPEN_ENDED, "Alexander Graham Bell");
+        open.setAliases(List.of("Graham Bell", "A. G. Bell"));
+        Question ordering = question(QuestionType.ORDERING, null);
+        ordering.setChoices(List.of("Egg", "Chick", "Hen", "Rooster"));
+        ordering.setOrderingAnswer(List.of("Egg", "Chick", "Hen", "Rooster"));
+
+        bench.run("answer.multipleChoice", () -> AnswerValidator.isCorrect(mcq, " c "));
+        bench.run("answer.trueFalse", () -> AnswerValidator.isCorrect(tf, "true"));
+        bench.run("answer.numeric", () -> AnswerValidator.isCorrect(numeric, "1945.0"));
+        bench.run("answer.openEnded.exact", () -> AnswerValidator.isCorrect(open, "alexander graham bell"));
+        bench.run("answer.openEnded.typo", () -> AnswerValidator.isCorrect(open, "Alexandr Grahm Bell"));
+        bench.run("answer.openEnded.wrong", () -> AnswerValidator.isCorrect(open, "Thomas Edison"));
+        bench.run("answer.ordering", () -> AnswerValidator.isCorrect(ordering, "1, 2, 3, 4"));
+    }
+
+    // ── Question lookup ──
+
+    private static void questions(Bench bench) {
+        QuestionBank bank = new QuestionBank(syntheticQuestions(50));
+        SplittableRandom rng = new SplittableRandom(1);
+
+        bench.run("bank.getQuestions", () -> bank.getQuestions(
+                CATEGORIES[rng.nextInt(CATEGORIES.length)], DIFFICULTIES[rng.nextInt(DIFFICULTIES.length)]));
+        bench.run("bank.getQuestions.byType", () -> bank.getQuestions(
+                CATEGORIES[rng.nextInt(CATEGORIES.length)], DIFFICULTIES[rng.nextInt(DIFFICULTIES.length)],
+                QuestionType.TRUE_FALSE));
+
+        // A deck runs dry after one pass, so start a new one whenever a draw misses.
+        QuestionDeck[] deck = { bank.newDeck() };
+        bench.run("bank.deck.draw", () -> {
+            Question q = deck[0].draw("Tech", "EASY");
+            if (q == null)
+                deck[0] = bank.newDeck();
+            return q;
+        });
+        bench.run("bank.deck.drawAny", () -> {
+            Question q = deck[0].drawAny();
+            if (q == null)
+                deck[0] = bank.newDeck();
+            return q;
+        });
+        // getQuestion shares one deck per bank, so rebuild the bank once it is used
+        // up; a large shelf keeps the rebuild a small share of each call.
+        List<Question> shelf = syntheticQuestions(5000).subList(0, 5000);
+        QuestionBank[] shared = { new QuestionBank(shelf) };
+        bench.run("bank.getQuestion", () -> {
+            Question q = shared[0].getQuestion("Tech", "EASY");
+            if (q == null)
+                shared[0] = new QuestionBank(shelf);
+            return q;
+        });
+    }
+
+    // ── Map ──
+
+    private static void map(Bench bench) {
+        char[] symbols = { 'X', 'O', 'A', 'B' };
+        SplittableRandom rng = new SplittableRandom(2);
+
+        MapGrid empty = new MapGrid(MAP_SIZE);
+        bench.run("map.claimAndClear", () -> {
+            int cell = rng.nextInt(MAP_SIZE * MAP_SIZE);
+            boolean ok = empty.claimCell(symbols[cell & 3], cell / MAP_SIZE, cell % MAP_SIZE);
+            empty.setOwner(cell / MAP_SIZE, cell % MAP_SIZE, '.');
+            return ok;
+        });
+
+        MapGrid full = playedMap(symbols, rng);
+        bench.run("map.countTerritory", () -> full.countTerritory(symbols[rng.nextInt(4)]));
+        bench.run("map.getFreeCellCount", full::getFreeCellCount);
+        bench.run("map.isMapFull", full::isMapFull);
+
+        MapGrid half = new MapGrid(MAP_SIZE);
+        for (int i = 0; i < MAP_SIZE * MAP_SIZE / 2; i++) {
+            int cell = half.randomFreeCell(rng);
+            half.claimCell(symbols[i & 3], cell / MAP_SIZE, cell % MAP_SIZE);
+        }
+        bench.run("map.randomFreeCell", () -> half.randomFreeCell(rng));
+
+        for (char s : symbols)
+            full.initVisibilityForPlayer(s);
+        bench.run("map.revealNeighbour", () -> {
+            int cell = rng.nextInt(MAP_SIZE * MAP_SIZE);
+            full.revealNeighbourForPlayer('X', cell / MAP_SIZE, cell % MAP_SIZE);
+            return cell;
+        });
+        bench.run("map.isVisibleTo", () -> {
+            int cell = rng.nextInt(MAP_SIZE * MAP_SIZE);
+            return full.isVisibleTo('O', cell / MAP_SIZE, cell % MAP_SIZE);
+        });
+        bench.run("map.getVisibleEnemyCells", () -> full.getVisibleEnemyCells('X'));
+        bench.run("map.getVisibleEnemySymbols", () -> full.getVisibleEnemySymbols('X'));
+        bench.run("map.getAttackableCells", () -> full.getAttackableCells('X', 'O'));
+        bench.run("map.firstInvasion", () -> full.firstInvasion('A', 'B'));
+    }
+
+    /** A full map claimed at random by the four symbols. */
+    private static MapGrid playedMap(char[] symbols, SplittableRandom rng) {
+        MapGrid map = new MapGrid(MAP_SIZE);
+        for (int i = 0; !map.isMapFull(); i++) {
+            int cell = map.randomFreeCell(rng);
+            map.claimCell(symbols[i & 3], cell / MAP_SIZE, cell % MAP_SIZE);
+        }
+        return map;
+    }
+
+    // ── Network codec ──
+
+    private static void codec(Bench bench) throws Exception {
+        NetworkMessage question = new NetworkMessage(NetworkMessage.Type.QUESTION);
+        question.questionType = QuestionType.MULTIPLE_CHOICE.name();
+        question.category = "History";
+        question.difficulty = "MEDIUM";
+        question.prompt = "In which year did the Second World War end?";
+        question.choices = List.of("1943", "1944", "1945", "1946");
+        question.round = 3;
+        question.totalRounds = 12;
+
+        NetworkMessage update = new NetworkMessage(NetworkMessage.Type.MAP_UPDATE);
+        update.mapSize = MAP_SIZE;
+        update.mapVersion = 42;
+        update.changedCells = List.of(17, (int) 'X', 18, (int) 'X', 63, (int) 'O');
+        update.claimingPlayer = 1;
+        update.claimsLeft = 2;
+
+        NetworkMessage snapshot = new NetworkMessage(NetworkMessage.Type.MAP_UPDATE);
+        snapshot.mapSize = MAP_SIZE;
+        snapshot.mapVersion = 42;
+        snapshot.gridSnapshot = new String(cells(playedMap(new char[] { 'X', 'O', 'A', 'B' },
+                new SplittableRandom(3))));
+        snapshot.scores = List.of(120, 95, 80, 60);
+        snapshot.playerNames = List.of("Ana", "Bruno", "Carla", "Dinis");
+
+        String questionJson = MessageCodec.encode(question);
+        bench.run("codec.json.encode", () -> MessageCodec.encode(question));
+        bench.run("codec.json.decode", () -> MessageCodec.decode(questionJson));
+
+        for (MessageCodec.Format format : MessageCodec.Format.values()) {
+            String prefix = "codec." + MessageCodec.formatName(format);
+            frameBenchmarks(bench, prefix + ".question", question, format);
+            frameBenchmarks(bench, prefix + ".mapDelta", update, format);
+            frameBenchmarks(bench, prefix + ".mapSnapshot", snapshot, format);
+        }
+    }
+
+    private static void frameBenchmarks(Bench bench, String name, NetworkMessage msg, MessageCodec.Format format) {
+        byte[] wire = MessageCodec.frame(msg, format);
+        bench.run(name + ".frame", () -> MessageCodec.frame(msg, format));
+        bench.run(name + ".readFrame", () -> MessageCodec.readFrame(new ByteArrayInputStream(wire), format));
+    }
+
+    private static char[] cells(MapGrid map) {
+        int size = map.getSize();
+        char[] out = new char[size * size];
+        for (int r = 0; r < size; r++) {
+            for (int c = 0; c < size; c++)
+                out[r * size + c] = map.getOwner(r, c);
+        }
+        return out;
+    }
+
+    // ── Game model ──
+
+    private static void model(Bench bench) {
+        GameModel model = new GameModel(new QuestionBank(syntheticQuestions(50)));
+        model.startGame(new GameSettings(MAP_SIZE, false, "Ana", "Bruno", "Carla", "Dinis",
+                true, null, null, 4, null));
+        SplittableRandom rng = new SplittableRandom(4);
+        MapGrid map = model.getMap();
+        for (int i = 0; i < MAP_SIZE * MAP_SIZE / 2; i++) {
+            int cell = map.randomFreeCell(rng);
+            model.claimCell(i & 3, cell / MAP_SIZE, cell % MAP_SIZE);
+        }
+
+        GameMemento saved = model.createMemento();
+        bench.run("model.createMemento", model::createMemento);
+        bench.run("model.restoreFromMemento", () -> {
+            model.restoreFromMemento(saved);
+            return model.getMap();
+        });
+        bench.run("model.roundClaimCounts", model::roundClaimCounts);
+    }
+
+    // ── Data ──
+
+    private static Question question(QuestionType type, String answer) {
+        Question q = new Question();
+        q.setCategory("General");
+        q.setDifficulty("EASY");
+        q.setPrompt("Benchmark question");
+        q.setType(type);
+        if (answer != null)
+            q.setAnswer(answer);
+        return q;
+    }
+
+    /** {@code perShelf} true/false questions for every category and difficulty. */
+    private static List<Question> syntheticQuestions(int perShelf) {
+        List<Question> all = new ArrayList<>();
+        for (String cat : CATEGORIES) {
+            for (String diff : DIFFICULTIES) {
+                for (int i = 0; i < perShelf; i++) {
+                    Question q = question(QuestionType.TRUE_FALSE, i % 2 == 0 ? "T" : "F");
+                    q.setCategory(cat);
+                    q.setDifficulty(diff);
+                    q.setPrompt(cat + " " + diff + " #" + i);
+                    all.add(q);
+                }
+            }
+        }
+        return all;
+    }
+}
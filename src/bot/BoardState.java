@@ -0,0 +1,146 @@
+package bot;
+
+import game.MapGrid;
+
+import java.util.SplittableRandom;
+
+/**
+ * A throwaway copy of the map for search: owners are player indexes in a
+ * byte array, and free cells sit in a swap-remove list like
+ * {@link MapGrid}'s own index. {@link #copy()} is a handful of array
+ * copies, so every rollout can play on its own board.
+ */
+final class BoardState {
+
+    final int size;
+    final int players;
+    /** Owner per cell, row-major; -1 = free. */
+    final byte[] owner;
+    /** Shared between copies; bonus cells never change during a game. */
+    final boolean[] bonus;
+    final int[] territory;
+    final int[] bonusTaken;
+    private final int[] free;
+    private final int[] freePos;
+    private int freeCount;
+
+    private BoardState(int size, int players) {
+        this.size = size;
+        this.players = players;
+        this.owner = new byte[size * size];
+        this.bonus = new boolean[size * size];
+        this.territory = new int[players];
+        this.bonusTaken = new int[players];
+        this.free = new int[size * size];
+        this.freePos = new int[size * size];
+    }
+
+    private BoardState(BoardState o) {
+        this.size = o.size;
+        this.players = o.players;
+        this.owner = o.owner.clone();
+        this.bonus = o.bonus;
+        this.territory = o.territory.clone();
+        this.bonusTaken = o.bonusTaken.clone();
+        this.free = o.free.clone();
+        this.freePos = o.freePos.clone();
+        this.freeCount = o.freeCount;
+    }
+
+    /**
+     * Snapshots {@code map} with {@code symbols[i]} as player {@code i}.
+     * Cells owned by any other symbol count as nobody's but stay taken.
+     */
+    static BoardState of(MapGrid map, char[] symbols) {
+        int size = map.getSize();
+        BoardState s = new BoardState(size, symbols.length);
+        for (int r = 0; r < size; r++) {
+            for (int c = 0; c < size; c++) {
+                int cell = r * size + c;
+                s.bonus[cell] = map.hasBonus(r, c);
+                s.freePos[cell] = -1;
+                char sym = map.getOwner(r, c);
+                s.owner[cell] = -1;
+                if (sym == '.') {
+                    s.free[s.freeCount] = cell;
+                    s.freePos[cell] = s.freeCount++;
+                    continue;
+                }
+                for (int p = 0; p < symbols.length; p++) {
+                    if (symbols[p] == sym) {
+                        s.owner[cell] = (byte) p;
+                        s.territory[p]++;
+                    }
+                }
+                if (s.owner[cell] < 0)
+                    s.owner[cell] = Byte.MIN_VALUE; // taken by someone outside the search
+            }
+        }
+        return s;
+    }
+
+    BoardState copy() {
+        return new BoardState(this);
+    }
+
+    int freeCount() {
+        return freeCount;
+    }
+
+    int freeCell(int i) {
+        return free[i];
+    }
+
+    int randomFree(SplittableRandom rng) {
+        return free[rng.nextInt(freeCount)];
+    }
+
+    /** Gives free {@code cell} to {@code player}. */
+    void claim(int cell, int player) {
+        int pos = freePos[cell];
+        int last = free[--freeCount];
+        free[pos] = last;
+        freePos[last] = pos;
+        freePos[cell] = -1;
+        owner[cell] = (byte) player;
+        territory[player]++;
+        if (bonus[cell])
+            bonusTaken[player]++;
+    }
+
+    /** Moves an owned {@code cell} to {@code player}. */
+    void capture(int cell, int player) {
+        int from = owner[cell];
+        if (from >= 0)
+            territory[from]--;
+        owner[cell] = (byte) player;
+        territory[player]++;
+    }
+
+    /**
+     * Writes every cell that {@code player} could invade (owned by another
+     * search player and touching one of theirs) into {@code out}; returns
+     * how many.
+     */
+    int borderTargets(int player, int[] out) {
+        int n = 0;
+        for (int cell = 0; cell < owner.length; cell++) {
+            int o = owner[cell];
+            if (o >= 0 && o != player && touches(cell, player))
+                out[n++] = cell;
+        }
+        return n;
+    }
+
+    boolean touches(int cell, int player) {
+        int row = cell / size;
+        int col = cell % size;
+        for (int r = Math.max(row - 1, 0); r <= Math.min(row + 1, size - 1); r++) {
+            for (int c = Math.max(col - 1, 0); c <= Math.min(col + 1, size - 1); c++) {
+                if ((r != row || c != col) && owner[r * size + c] == player)
+                    return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,5 +1,6 @@
 package bot;
 
+import game.MapGrid;
 import trivia.Question;
 
 public interface BotStrategy {
@@ -8,4 +9,21 @@ public interface BotStrategy {
     long getResponseTime();
 
     String getDifficultyName();
-}
\ No newline at end of file
+
+    /**
+     * Picks a free cell to claim, as {@code row * size + col}, or -1 to
+     * let the caller pick one at random. {@code players} holds every
+     * player's symbol in turn order.
+     */
+    default int chooseClaim(MapGrid map, char self, char[] players) {
+        return -1;
+    }
+
+    /**
+     * Picks an invasion as {@code {{fromRow, fromCol}, {toRow, toCol}}},
+     * or {@code null} to let the caller choose.
+     */
+    default int[][] chooseInvasion(MapGrid map, char self, char[] players) {
+        return null;
+    }
+}
@@ -0,0 +1,259 @@
+package bot;
+
+import game.MapGrid;
+import trivia.Question;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * "Expert" bot. Answers like {@link HardBot}, but picks territory and
+ * invasion targets by Monte Carlo search: each candidate move is played
+ * out many times on a {@link BoardState} copy to the end of the game with
+ * random moves for everyone, and the move with the best average final
+ * margin wins.
+ *
+ * <p>
+ * Rollouts run on a {@link ForkJoinPool} (the common pool by default), one
+ * leaf task per worker, until the per-move time budget runs out, so more
+ * cores mean more rollouts. The budget defaults to 250 ms and can be set
+ * with {@code -Dmindwars.bot.budget=<ms>}.
+ * </p>
+ *
+ * <p>
+ * The rollouts simplify the real rules: the remaining free cells are
+ * claimed one at a time in turn order, then every player invades once and
+ * takes a random border cell with probability
+ * {@code a * (1 - a)}, where {@code a} is {@link #ASSUMED_ACCURACY}.
+ * </p>
+ */
+public class MonteCarloBot implements BotStrategy {
+
+    public static final long DEFAULT_BUDGET_MS = Long.getLong("mindwars.bot.budget", 250L);
+
+    /** Chance that any player answers a battle question right, in rollouts. */
+    static final double ASSUMED_ACCURACY = 0.6;
+    /** Free cells searched per claim; the rest are ignored for that move. */
+    static final int MAX_CANDIDATES = 48;
+    /** A bonus token is worth this many cells when scoring a rollout. */
+    static final double BONUS_WEIGHT = 0.5;
+
+    private static final double CAPTURE_CHANCE = ASSUMED_ACCURACY * (1 - ASSUMED_ACCURACY);
+
+    private final HardBot answers = new HardBot();
+    private final long budgetMs;
+    private final ForkJoinPool pool;
+    private final SplittableRandom seeds = new SplittableRandom();
+
+    public MonteCarloBot() {
+        this(DEFAULT_BUDGET_MS, ForkJoinPool.commonPool());
+    }
+
+    public MonteCarloBot(long budgetMs, ForkJoinPool pool) {
+        this.budgetMs = budgetMs;
+        this.pool = pool;
+    }
+
+    @Override
+    public String getAnswer(Question question) {
+        return answers.getAnswer(question);
+    }
+
+    @Override
+    public long getResponseTime() {
+        return answers.getResponseTime();
+    }
+
+    @Override
+    public String getDifficultyName() {
+        return "Expert";
+    }
+
+    // ── Moves ──
+
+    @Override
+    public int chooseClaim(MapGrid map, char self, char[] players) {
+        int me = indexOf(players, self);
+        BoardState root = BoardState.of(map, players);
+        if (me < 0 || root.freeCount() == 0)
+            return -1;
+        int[] candidates = sampleFree(root);
+        if (candidates.length == 1)
+            return candidates[0];
+        return candidates[best(search(root, me, candidates, true))];
+    }
+
+    @Override
+    public int[][] chooseInvasion(MapGrid map, char self, char[] players) {
+        int me = indexOf(players, self);
+        if (me < 0)
+            return null;
+        BoardState root = BoardState.of(map, players);
+        int[] buffer = new int[root.owner.length];
+        int n = root.borderTargets(me, buffer);
+        if (n == 0)
+            return null;
+        int[] candidates = Arrays.copyOf(buffer, n);
+        int target = n == 1 ? candidates[0] : candidates[best(search(root, me, candidates, false))];
+
+        int size = map.getSize();
+        int tr = target / size;
+        int tc = target % size;
+        for (int r = Math.max(tr - 1, 0); r <= Math.min(tr + 1, size - 1); r++) {
+            for (int c = Math.max(tc - 1, 0); c <= Math.min(tc + 1, size - 1); c++) {
+                if ((r != tr || c != tc) && map.getOwner(r, c) == self)
+                    return new int[][] { { r, c }, { tr, tc } };
+            }
+        }
+        return null;
+    }
+
+    private static int indexOf(char[] players, char self) {
+        for (int i = 0; i < players.length; i++) {
+            if (players[i] == self)
+                return i;
+        }
+        return -1;
+    }
+
+    /** Every free cell, or a random {@link #MAX_CANDIDATES} of them on big maps. */
+    private int[] sampleFree(BoardState root) {
+        int n = root.freeCount();
+        int[] all = new int[n];
+        for (int i = 0; i < n; i++)
+            all[i] = root.freeCell(i);
+        if (n <= MAX_CANDIDATES)
+            return all;
+        SplittableRandom rng = nextRandom();
+        for (int i = 0; i < MAX_CANDIDATES; i++) {
+            int j = i + rng.nextInt(n - i);
+            int t = all[i];
+            all[i] = all[j];
+            all[j] = t;
+        }
+        return Arrays.copyOf(all, MAX_CANDIDATES);
+    }
+
+    private static int best(double[] mean) {
+        int best = 0;
+        for (int i = 1; i < mean.length; i++) {
+            if (mean[i] > mean[best])
+                best = i;
+        }
+        return best;
+    }
+
+    private synchronized SplittableRandom nextRandom() {
+        return seeds.split();
+    }
+
+    // ── Search ──
+
+    /** Average rollout value per candidate; candidates never tried get -infinity. */
+    private double[] search(BoardState root, int me, int[] candidates, boolean claim) {
+        long deadline = System.nanoTime() + budgetMs * 1_000_000L;
+        int leaves = Math.max(1, pool.getParallelism());
+        double[] totals = pool.invoke(new Rollouts(root, me, candidates, claim, deadline, 0, leaves, nextRandom()));
+        int n = candidates.length;
+        double[] mean = new double[n];
+        for (int i = 0; i < n; i++)
+            mean[i] = totals[n + i] == 0 ? Double.NEGATIVE_INFINITY : totals[i] / totals[n + i];
+        return mean;
+    }
+
+    /**
+     * Splits the leaf range in half until one leaf is left, then plays
+     * rollouts round-robin over the candidates until the deadline (but at
+     * least one full sweep). Returns value sums followed by rollout counts.
+     */
+    private static final class Rollouts extends RecursiveTask<double[]> {
+        private final BoardState root;
+        private final int me;
+        private final int[] candidates;
+        private final boolean claim;
+        private final long deadline;
+        private final int lo;
+        private final int hi;
+        private final SplittableRandom rng;
+
+        Rollouts(BoardState root, int me, int[] candidates, boolean claim, long deadline, int lo, int hi,
+                SplittableRandom rng) {
+            this.root = root;
+            this.me = me;
+            this.candidates = candidates;
+            this.claim = claim;
+            this.deadline = deadline;
+            this.lo = lo;
+            this.hi = hi;
+            this.rng = rng;
+        }
+
+        @Override
+        protected double[] compute() {
+            if (hi - lo > 1) {
+                int mid = (lo + hi) >>> 1;
+                Rollouts left = new Rollouts(root, me, candidates, claim, deadline, lo, mid, rng.split());
+                left.fork();
+                double[] right = new Rollouts(root, me, candidates, claim, deadline, mid, hi, rng.split()).compute();
+                double[] sums = left.join();
+                for (int i = 0; i < sums.length; i++)
+                    sums[i] += right[i];
+                return sums;
+            }
+            int n = candidates.length;
+            double[] sums = new double[2 * n];
+            int[] scratch = new int[root.owner.length];
+            int i = lo % n;
+            int played = 0;
+            while (played < n || System.nanoTime() < deadline) {
+                sums[i] += claim ? playClaim(candidates[i], scratch) : playInvasion(candidates[i], scratch);
+                sums[n + i]++;
+                played++;
+                i = i + 1 == n ? 0 : i + 1;
+            }
+            return sums;
+        }
+
+        private double playClaim(int cell, int[] scratch) {
+            BoardState s = root.copy();
+            s.claim(cell, me);
+            int next = (me + 1) % s.players;
+            while (s.freeCount() > 0) {
+                s.claim(s.randomFree(rng), next);
+                next = (next + 1) % s.players;
+            }
+            invade(s, 0, scratch);
+            return value(s);
+        }
+
+        private double playInvasion(int target, int[] scratch) {
+            BoardState s = root.copy();
+            if (rng.nextDouble() < CAPTURE_CHANCE)
+                s.capture(target, me);
+            invade(s, me + 1, scratch);
+            return value(s);
+        }
+
+        /** Players {@code first} and up each make one random invasion. */
+        private void invade(BoardState s, int first, int[] scratch) {
+            for (int p = first; p < s.players; p++) {
+                int n = s.borderTargets(p, scratch);
+                if (n > 0 && rng.nextDouble() < CAPTURE_CHANCE)
+                    s.capture(scratch[rng.nextInt(n)], p);
+            }
+        }
+
+        /** My cells minus the best opponent's, bonus tokens included. */
+        private double value(BoardState s) {
+            double mine = s.territory[me] + BONUS_WEIGHT * s.bonusTaken[me];
+            double rival = Double.NEGATIVE_INFINITY;
+            for (int p = 0; p < s.players; p++) {
+                if (p != me)
+                    rival = Math.max(rival, s.territory[p] + BONUS_WEIGHT * s.bonusTaken[p]);
+            }
+            return rival == Double.NEGATIVE_INFINITY ? mine : mine - rival;
+        }
+    }
+}
@@ -7,6 +7,8 @@ import model.GameModel;
  * Reversible wrapper around {@link GameModel#claimCell(int, int, int)}.
  * Snapshots the previous owner of the target cell so {@link #undo()} can
  * put it back (empty cells are represented by the '.' character).
+ * Restoring goes through {@link MapGrid#setOwner}, which also returns the
+ * cell to the map's territory counts and free-cell index.
  */
 public class ClaimCellCommand implements Command {
 
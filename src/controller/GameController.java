@@ -11,6 +11,8 @@ import model.GameModel;
 import model.GamePhase;
 import model.GameSettings;
 import model.LeaderboardStore;
+import persistence.LeaderboardRecorder;
+import persistence.SavedGameRepository;
 import player.Player;
 
 import java.io.IOException;
@@ -32,10 +34,13 @@ public class GameController {
     private final NavigationController nav;
     private final CommandHistory history = new CommandHistory();
     private final LeaderboardStore leaderboard;
-    private final GameMementoStore mementoStore = new GameMementoStore();
+    private final LeaderboardRecorder recorder;
+    private final GameMementoStore mementoStore = new GameMementoStore(new SavedGameRepository());
     private boolean leaderboardRecorded;
     private GameSettings lastSettings;
     private network.GameClient networkClient;
+    /** {@code users.id} of the signed-in user, who plays seat 1; {@code null} for a guest. */
+    private Integer accountUserId;
 
     public void setNetworkClient(network.GameClient client) {
         this.networkClient = client;
@@ -49,9 +54,23 @@ public class GameController {
             GameModel model,
             NavigationController nav,
             LeaderboardStore leaderboard) {
+        this(model, nav, leaderboard, LeaderboardRecorder.shared());
+    }
+
+    public GameController(
+            GameModel model,
+            NavigationController nav,
+            LeaderboardStore leaderboard,
+            LeaderboardRecorder recorder) {
         this.model = model;
         this.nav = nav;
         this.leaderboard = leaderboard;
+        this.recorder = recorder;
+    }
+
+    /** Credits seat 1 of the games started from now on to account {@code userId} ({@code null}: guest). */
+    public void setAccountUserId(Integer userId) {
+        this.accountUserId = userId;
     }
 
     public GameModel getModel() {
@@ -78,6 +97,7 @@ public class GameController {
             history.clear();
             leaderboardRecorded = false;
             model.startGame(settings);
+            attachAccount();
             nav.showGame();
         } catch (GameModel.NotEnoughQuestionsException e){
             JOptionPane.showMessageDialog(
@@ -92,17 +112,28 @@ public class GameController {
     }
 
     /**
-     * Records both players' results to the persistent leaderboard. Safe to
-     * call multiple times — only the first call per game has an effect.
+     * Records every player's result to the persistent leaderboard and queues
+     * the signed-in player's row for {@code leaderboard_entries}; the SQL
+     * write happens later on the recorder's thread. Names are free text, so
+     * only a player carrying an account id is ever written to an account. Safe to call multiple
+     * times — only the first call per game has an effect.
      */
     public void recordGameOnLeaderboard() {
         if (leaderboardRecorded)
             return;
         leaderboardRecorded = true;
         Player winner = model.computeWinner();
+        leaderboard.recordGame(model.getPlayers(), winner);
+
+        String mode = networkClient != null ? "network"
+                : lastSettings != null && lastSettings.vsBot ? "vs-bot" : "hot-seat";
+        int mapSize = model.getMap().getSize();
         for (Player p : model.getPlayers()) {
-            boolean won = winner != null && winner == p;
-            leaderboard.recordResult(p.getName(), p.getScore(), won);
+            if (p.isBot() || p.getUserID() == null)
+                continue;
+            recorder.submit(new LeaderboardRecorder.Result(p.getUserID(), p.getScore(),
+                    model.getMap().countTerritory(p.getSymbol()), p.getCorrectAnswers(), p.getWrongAnswers(),
+                    p.getAverageResponseTime(), p.getFastestResponse(), winner == p, mode, mapSize));
         }
     }
 
@@ -199,8 +230,9 @@ public class GameController {
         model.setAttackFrom(r, c);
     }
 
-    public void onInvasionTargetSelected(int r, int c) {
-        model.setAttackTarget(r, c);
+    /** Returns {@code false} if the cell is not on the invader's border. */
+    public boolean onInvasionTargetSelected(int r, int c) {
+        return model.setAttackTarget(r, c);
     }
 
     public void onInvasionResolved(
@@ -271,28 +303,36 @@ public class GameController {
     }
 
     /**
-     * Captures the current game into the single save slot. Disallowed
-     * in network mode (the host owns authoritative state).
+     * Snapshot of the current game for a save slot. Call on the EDT, then
+     * write it through {@link #getMementoStore()} off it. Disallowed in
+     * network mode (the host owns authoritative state).
      */
-    public void saveGame() throws IOException {
+    public GameMemento captureForSave() throws IOException {
         if (networkClient != null && networkClient.isConnected()) {
             throw new IOException("Saving is disabled in network games.");
         }
-        mementoStore.save(model.createMemento());
+        return model.createMemento();
     }
 
-    /** Loads the saved slot into the model and shows the game screen. */
-    public void loadGame() throws IOException {
-        GameMemento m = mementoStore.load();
-        if (m == null)
-            throw new IOException("No save file found.");
+    /**
+     * Restores {@code m}, read from a save slot off the EDT, into the model
+     * and shows the game screen.
+     */
+    public void resumeGame(GameMemento m) {
         history.clear();
         leaderboardRecorded = false;
         lastSettings = m.settings;
         model.restoreFromMemento(m);
+        attachAccount();
         nav.showGame();
     }
 
+    /** The signed-in user sits at seat 1, the first human player. */
+    private void attachAccount() {
+        if (accountUserId != null && !model.getPlayers().isEmpty() && !model.getPlayers().get(0).isBot())
+            model.getPlayers().get(0).setUserID(accountUserId);
+    }
+
     public void onBotDifficultyChanged(String difficulty) {
         model.updateBotStrategy(difficulty);
         System.out.println("Difficulty changed to: " + difficulty);
@@ -5,6 +5,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeoutException;
 
 import bot.*;
@@ -12,6 +13,7 @@ import player.Player;
 import trivia.AnswerValidator;
 import trivia.Question;
 import trivia.QuestionBank;
+import trivia.QuestionDeck;
 import trivia.QuestionType;
 import util.ConsoleIO;
 import util.SoundManager;
@@ -20,6 +22,7 @@ public class Game {
 
     private final ConsoleIO io;
     private final QuestionBank questionBank;
+    private final QuestionDeck battleDeck;
     private final GameState gameState;
     private final TurnManager turnManager;
     private MapGrid map;
@@ -34,6 +37,7 @@ public class Game {
     public Game(ConsoleIO io, QuestionBank questionBank) {
         this.io = io;
         this.questionBank = questionBank;
+        this.battleDeck = questionBank.newDeck();
         this.gameState = new GameState();
         this.turnManager = new TurnManager(gameState);
         this.map = new MapGrid(3);
@@ -332,13 +336,14 @@ public class Game {
                         if (p.isBot()) {
                             io.println("\n  SETTINGS: " + p.getName().toUpperCase());
                             String newDiff = io.selectFromList("  Choose new difficulty:",
-                                    List.of("Easy", "Medium", "Hard", "Keep Current"));
+                                    List.of("Easy", "Medium", "Hard", "Expert", "Keep Current"));
 
                             if (!newDiff.equals("Keep Current")) {
                                 switch (newDiff) {
                                     case "Easy" -> changeBotDifficulty(p, new bot.EasyBot());
                                     case "Medium" -> changeBotDifficulty(p, new bot.MediumBot());
                                     case "Hard" -> changeBotDifficulty(p, new bot.HardBot());
+                                    case "Expert" -> changeBotDifficulty(p, new bot.MonteCarloBot());
                                 }
                                 difficultyChanged = true;
                                 newDiffUpper = newDiff.toUpperCase();
@@ -668,12 +673,13 @@ public class Game {
                 String name = io.readNonEmptyString(" Enter name:");
                 p = new Player(name);
             } else {
-                String diff = io.selectFromList(" Bot Difficulty:", List.of("Easy", "Medium", "Hard"));
+                String diff = io.selectFromList(" Bot Difficulty:", List.of("Easy", "Medium", "Hard", "Expert"));
                 p = new Player("Bot " + symbols[i]);
                 switch (diff) {
                     case "Easy" -> p.setStrategy(new bot.EasyBot());
                     case "Medium" -> p.setStrategy(new bot.MediumBot());
                     case "Hard" -> p.setStrategy(new bot.HardBot());
+                    case "Expert" -> p.setStrategy(new bot.MonteCarloBot());
                 }
             }
 
@@ -770,7 +776,7 @@ public class Game {
                 map.displayForPlayer(io, symbol);
                 io.println("  [BOT] " + currentPlayer.getName() + " is selecting a territory...");
 
-                int[] move = getBotMove();
+                int[] move = getBotMove(currentPlayer);
                 if (move == null)
                     break;
 
@@ -1023,8 +1029,15 @@ public class Game {
                 continue;
             }
 
+            // A searching bot picks its whole move up front, which also fixes the target player.
+            int[][] plannedMove = attacker.isBot() && attacker.getStrategy() != null
+                    ? attacker.getStrategy().chooseInvasion(map, attackerSym, playerSymbols())
+                    : null;
+
             char targetSym;
-            if (potentialTargets.size() == 1) {
+            if (plannedMove != null) {
+                targetSym = map.getOwner(plannedMove[1][0], plannedMove[1][1]);
+            } else if (potentialTargets.size() == 1) {
                 targetSym = potentialTargets.get(0);
             } else {
                 if (attacker.isBot()) {
@@ -1055,7 +1068,7 @@ public class Game {
 
             if (attacker.isBot()) {
                 io.println("  [BOT] " + attacker.getName() + " is scanning for targets...");
-                int[][] move = getBotAttackMove(attackerSym, defenderSym);
+                int[][] move = plannedMove != null ? plannedMove : getBotAttackMove(attackerSym, defenderSym);
 
                 if (move != null) {
                     attR = move[0][0];
@@ -1135,7 +1148,7 @@ public class Game {
                 attacked = false;
                 weapon_use = null;
 
-                Question q = questionBank.getAllQuestionsAsList().get(0);
+                Question q = battleDeck.drawAny();
                 Question q_defender = q.cloneQuestion();
 
                 String correctAnswer = (q.getType() == QuestionType.NUMERIC)
@@ -1387,43 +1400,28 @@ public class Game {
         }
     }
 
-    private int[] getBotMove() {
-        Random r = new Random();
-        int size = map.getSize();
-        List<int[]> freeCells = new ArrayList<>();
-
-        for (int i = 0; i < size; i++) {
-            for (int j = 0; j < size; j++) {
-                if (map.isFree(i, j)) {
-                    freeCells.add(new int[] { i, j });
-                }
-            }
+    private int[] getBotMove(Player bot) {
+        int cell = bot.getStrategy() == null ? -1 : bot.getStrategy().chooseClaim(map, bot.getSymbol(), playerSymbols());
+        if (cell < 0) {
+            cell = map.randomFreeCell(ThreadLocalRandom.current());
+        }
+        if (cell < 0) {
+            return null;
         }
+        return new int[] { cell / map.getSize(), cell % map.getSize() };
+    }
 
-        if (!freeCells.isEmpty()) {
-            return freeCells.get(r.nextInt(freeCells.size()));
+    private char[] playerSymbols() {
+        List<Player> players = gameState.getPlayers();
+        char[] symbols = new char[players.size()];
+        for (int i = 0; i < symbols.length; i++) {
+            symbols[i] = players.get(i).getSymbol();
         }
-        return null;
+        return symbols;
     }
 
     private int[][] getBotAttackMove(char botSym, char enemySym) {
-        int size = map.getSize();
-        for (int r = 0; r < size; r++) {
-            for (int c = 0; c < size; c++) {
-                if (map.getOwner(r, c) == botSym) {
-                    for (int dr = -1; dr <= 1; dr++) {
-                        for (int dc = -1; dc <= 1; dc++) {
-                            int tr = r + dr;
-                            int tc = c + dc;
-                            if (map.isInside(tr, tc) && map.getOwner(tr, tc) == enemySym) {
-                                return new int[][] { { r, c }, { tr, tc } };
-                            }
-                        }
-                    }
-                }
-            }
-        }
-        return null;
+        return map.firstInvasion(botSym, enemySym);
     }
 
 }
@@ -3,24 +3,85 @@ package game;
 import util.ConsoleIO;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
-import java.util.Map;
+import java.util.Objects;
 import java.util.Random;
-
+import java.util.random.RandomGenerator;
+
+/**
+ * The territory map. Owners live in one flat {@code char} array for direct
+ * lookups, and each owner symbol also gets a slot with a bitset of its
+ * cells (bit {@code row * size + col}) and a running cell count, kept in
+ * step by every write. Territory counts and the "is the map full" check
+ * are O(1); queries over a whole player's land work a word (64 cells) at
+ * a time.
+ *
+ * <p>
+ * Fog of war uses the same slots: a player's visible cells are one more
+ * bitset, so revealing a 3x3 neighbourhood sets three short bit runs and
+ * a whole visibility map costs {@code size * size / 8} bytes.
+ * </p>
+ *
+ * <p>
+ * Borders are tracked the same way: for every pair of owners A and D
+ * there is a bitset of A's cells that touch at least one of D's, backed
+ * by per-cell neighbour counts. A write only touches the changed cell and
+ * its 8 neighbours, and legal invasions can be listed without scanning
+ * the map.
+ * </p>
+ */
 public class MapGrid {
-    private final char[][] grid;
+    private final char[] cells; // owner per cell, row-major
     private final boolean[][] bonus_cells; // matrix for power-up
     private final int size;
     private static final char EMPTY = '.';
 
-    private final Map<Character, boolean[][]> visibility;
+    /** Owner slots in first-seen order; a slot is never reused for another symbol. */
+    private char[] slotSymbols = new char[4];
+    private long[][] slotCells = new long[4][];
+    /** Fog of war per slot; {@code null} until visibility is set up for that player. */
+    private long[][] slotVisible = new long[4][];
+    private int[] slotCounts = new int[4];
+    /** {@code adjacent[s][i]}: how many of cell i's 8 neighbours slot s owns. */
+    private byte[][] adjacent = new byte[4][];
+    /** {@code frontier[a][d]}: a's cells with a neighbour owned by d; {@code null} until first needed. */
+    private long[][][] frontier = new long[4][4][];
+    private int slotCount;
+    private final int words;
+
+    /**
+     * Free cells: the first {@code freeCells} entries of {@code freeList}
+     * are their indexes in no particular order, and {@code freePos[i]} is
+     * where cell {@code i} sits in that list (-1 once owned). Removal swaps
+     * the last entry into the gap, so both directions are O(1).
+     */
+    private final int[] freeList;
+    private final int[] freePos;
+    private int freeCells;
+
+    /**
+     * Cells written since the last {@link #takeChangedCells()}: the first
+     * {@code changedCount} entries of {@code changedList}, each once
+     * ({@code changedBits} says which are listed). {@code changedAll} is set
+     * by {@link #clear()}, which resets cells without going through
+     * {@link #write}.
+     */
+    private final int[] changedList;
+    private final long[] changedBits;
+    private int changedCount;
+    private boolean changedAll;
 
     public MapGrid(int size) {
         this.size = size;
-        this.grid = new char[size][size];
+        this.cells = new char[size * size];
+        this.words = (size * size + 63) >>> 6;
+        this.freeList = new int[size * size];
+        this.freePos = new int[size * size];
+        this.changedList = new int[size * size];
+        this.changedBits = new long[words];
         this.bonus_cells = new boolean[size][size]; // false
-        this.visibility = new HashMap<>(); // Fog of war
 
         initializeGrid();
         generateBonus();
@@ -31,13 +92,165 @@ public class MapGrid {
     }
 
     private void initializeGrid() {
-        for (int i = 0; i < size; i++) {
-            for (int j = 0; j < size; j++) {
-                grid[i][j] = EMPTY;
+        Arrays.fill(cells, EMPTY);
+        for (int s = 0; s < slotCount; s++) {
+            Arrays.fill(slotCells[s], 0L);
+            slotCounts[s] = 0;
+            Arrays.fill(adjacent[s], (byte) 0);
+            for (long[] bits : frontier[s]) {
+                if (bits != null)
+                    Arrays.fill(bits, 0L);
+            }
+        }
+        for (int i = 0; i < cells.length; i++) {
+            freeList[i] = i;
+            freePos[i] = i;
+        }
+        freeCells = cells.length;
+        Arrays.fill(changedBits, 0L);
+        changedCount = 0;
+        changedAll = true;
+    }
+
+    // ── Owner slots ──
+
+    /** Slot of {@code symbol}, or -1 if it has never owned a cell. */
+    private int slotOf(char symbol) {
+        for (int s = 0; s < slotCount; s++) {
+            if (slotSymbols[s] == symbol)
+                return s;
+        }
+        return -1;
+    }
+
+    private int slotFor(char symbol) {
+        int s = slotOf(symbol);
+        if (s >= 0)
+            return s;
+        if (slotCount == slotSymbols.length) {
+            int cap = slotCount * 2;
+            slotSymbols = Arrays.copyOf(slotSymbols, cap);
+            slotCells = Arrays.copyOf(slotCells, cap);
+            slotVisible = Arrays.copyOf(slotVisible, cap);
+            slotCounts = Arrays.copyOf(slotCounts, cap);
+            adjacent = Arrays.copyOf(adjacent, cap);
+            frontier = Arrays.copyOf(frontier, cap);
+            for (int f = 0; f < cap; f++)
+                frontier[f] = f < slotCount ? Arrays.copyOf(frontier[f], cap) : new long[cap][];
+        }
+        slotSymbols[slotCount] = symbol;
+        slotCells[slotCount] = new long[words];
+        adjacent[slotCount] = new byte[cells.length];
+        return slotCount++;
+    }
+
+    /** The only place a cell changes owner, so the bitsets and counters stay exact. */
+    private void write(int index, char symbol) {
+        char old = cells[index];
+        if (old == symbol)
+            return;
+        long bit = 1L << index;
+        int from = old == EMPTY ? -1 : slotOf(old);
+        int to = symbol == EMPTY ? -1 : slotFor(symbol);
+        if (old == EMPTY) {
+            int pos = freePos[index];
+            int last = freeList[--freeCells];
+            freeList[pos] = last;
+            freePos[last] = pos;
+            freePos[index] = -1;
+        } else {
+            slotCells[from][index >>> 6] &= ~bit;
+            slotCounts[from]--;
+        }
+        if (symbol == EMPTY) {
+            freeList[freeCells] = index;
+            freePos[index] = freeCells++;
+        } else {
+            slotCells[to][index >>> 6] |= bit;
+            slotCounts[to]++;
+        }
+        cells[index] = symbol;
+        updateBorders(index, from, to);
+        long changed = changedBits[index >>> 6];
+        if ((changed & bit) == 0) {
+            changedBits[index >>> 6] = changed | bit;
+            changedList[changedCount++] = index;
+        }
+    }
+
+    /**
+     * Indexes ({@code row * size + col}) of the cells written since the last
+     * call, each once, and forgets them; costs the number of changes, not
+     * the map size. Returns {@code null} for a new or {@link #clear()}ed map,
+     * where any cell may differ.
+     */
+    public int[] takeChangedCells() {
+        if (changedAll) {
+            changedAll = false;
+            for (int i = 0; i < changedCount; i++)
+                changedBits[changedList[i] >>> 6] &= ~(1L << changedList[i]);
+            changedCount = 0;
+            return null;
+        }
+        int[] out = Arrays.copyOf(changedList, changedCount);
+        for (int i : out)
+            changedBits[i >>> 6] &= ~(1L << i);
+        changedCount = 0;
+        return out;
+    }
+
+    /** Moves cell {@code index} from slot {@code from} to slot {@code to} (-1 = empty) in the border index. */
+    private void updateBorders(int index, int from, int to) {
+        long bit = 1L << index;
+        int w = index >>> 6;
+        for (int d = 0; d < slotCount; d++) {
+            if (from >= 0 && frontier[from][d] != null)
+                frontier[from][d][w] &= ~bit;
+            if (to >= 0 && d != to && adjacent[d][index] > 0)
+                frontierBits(to, d)[w] |= bit;
+        }
+        int row = index / size;
+        int col = index % size;
+        for (int r = Math.max(row - 1, 0); r <= Math.min(row + 1, size - 1); r++) {
+            for (int c = Math.max(col - 1, 0); c <= Math.min(col + 1, size - 1); c++) {
+                int n = r * size + c;
+                if (n == index)
+                    continue;
+                int owner = cells[n] == EMPTY ? -1 : slotOf(cells[n]);
+                long nBit = 1L << n;
+                if (from >= 0 && --adjacent[from][n] == 0 && owner >= 0 && owner != from)
+                    frontier[owner][from][n >>> 6] &= ~nBit;
+                if (to >= 0 && adjacent[to][n]++ == 0 && owner >= 0 && owner != to)
+                    frontierBits(owner, to)[n >>> 6] |= nBit;
             }
         }
     }
 
+    private long[] frontierBits(int a, int d) {
+        long[] bits = frontier[a][d];
+        if (bits == null) {
+            bits = new long[words];
+            frontier[a][d] = bits;
+        }
+        return bits;
+    }
+
+    /** Set bits of {@code bits} as cell indexes, in row-major order. */
+    private static int[] cellsOf(long[] bits) {
+        if (bits == null)
+            return new int[0];
+        int n = 0;
+        for (long word : bits)
+            n += Long.bitCount(word);
+        int[] out = new int[n];
+        int i = 0;
+        for (int w = 0; w < bits.length; w++) {
+            for (long word = bits[w]; word != 0; word &= word - 1)
+                out[i++] = (w << 6) + Long.numberOfTrailingZeros(word);
+        }
+        return out;
+    }
+
     private void generateBonus() {
         int total_cells = size * size;
         int nr_bonuses = total_cells / 3;
@@ -63,53 +276,175 @@ public class MapGrid {
     }
 
     public boolean isFree(int row, int col) {
-        return isInside(row, col) && grid[row][col] == EMPTY;
+        return isInside(row, col) && cells[row * size + col] == EMPTY;
     }
 
     public boolean claimCell(char symbol, int row, int col) {
         if (isFree(row, col)) {
-            grid[row][col] = symbol;
+            write(row * size + col, symbol);
             return true;
         }
         return false;
     }
 
+    /** Cells owned by {@code playerSymbol} (free cells for '.'); O(1). */
     public int countTerritory(char playerSymbol) {
-        int count = 0;
-        for (int i = 0; i < size; i++) {
-            for (int j = 0; j < size; j++) {
-                if (grid[i][j] == playerSymbol) {
-                    count++;
-                }
-            }
-        }
-        return count;
+        if (playerSymbol == EMPTY)
+            return freeCells;
+        int s = slotOf(playerSymbol);
+        return s < 0 ? 0 : slotCounts[s];
+    }
+
+    public int getFreeCellCount() {
+        return freeCells;
     }
 
+    /**
+     * A uniformly random free cell as {@code row * size + col}, or -1 when
+     * the map is full. O(1) and allocation-free, so bots can call it on
+     * every pick.
+     */
+    public int randomFreeCell(RandomGenerator rng) {
+        return freeCells == 0 ? -1 : freeList[rng.nextInt(freeCells)];
+    }
+
+    // ── Fog of war ──
+
+    /** Starts (or restarts) {@code symbol}'s fog of war with nothing revealed. */
     public void initVisibilityForPlayer(char symbol) {
-        visibility.put(symbol, new boolean[size][size]);
+        slotVisible[slotFor(symbol)] = new long[words];
+    }
+
+    private long[] visibleBits(char symbol) {
+        int s = slotOf(symbol);
+        return s < 0 ? null : slotVisible[s];
     }
 
     public void revealCellForPlayer(char symbol, int row, int col) {
         if (!isInside(row, col)) {
             return;
         }
-        boolean[][] playerView = visibility.get(symbol);
-        if (playerView != null) {
-            playerView[row][col] = true;
+        long[] seen = visibleBits(symbol);
+        if (seen != null) {
+            int index = row * size + col;
+            seen[index >>> 6] |= 1L << index;
         }
     }
 
+    /** Reveals the cell and its 8 neighbours, clipped to the map, one row run at a time. */
     public void revealNeighbourForPlayer(char symbol, int row, int col) {
-        for (int dr = -1; dr <= 1; dr++) {
-            for (int dc = -1; dc <= 1; dc++) {
-                revealCellForPlayer(symbol, row + dr, col + dc);
+        long[] seen = visibleBits(symbol);
+        if (seen == null)
+            return;
+        int c0 = Math.max(col - 1, 0);
+        int c1 = Math.min(col + 1, size - 1);
+        if (c0 > c1)
+            return;
+        for (int r = Math.max(row - 1, 0); r <= Math.min(row + 1, size - 1); r++)
+            setRun(seen, r * size + c0, c1 - c0 + 1);
+    }
+
+    /** Sets {@code len} (at most 64) bits starting at {@code from}. */
+    private static void setRun(long[] bits, int from, int len) {
+        long run = len == 64 ? -1L : (1L << len) - 1;
+        int w = from >>> 6;
+        int shift = from & 63;
+        bits[w] |= run << shift;
+        if (shift + len > 64)
+            bits[w + 1] |= run >>> (64 - shift);
+    }
+
+    public boolean isVisibleTo(char symbol, int row, int col) {
+        long[] seen = visibleBits(symbol);
+        if (seen == null || !isInside(row, col))
+            return false;
+        int index = row * size + col;
+        return (seen[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * Cells (as {@code row * size + col}) that {@code symbol} can see and
+     * another player owns, in row-major order. Works a word at a time:
+     * visible and owned by anyone, minus the player's own land.
+     */
+    public int[] getVisibleEnemyCells(char symbol) {
+        int s = slotOf(symbol);
+        long[] seen = s < 0 ? null : slotVisible[s];
+        if (seen == null)
+            return new int[0];
+        long[] mask = new long[words];
+        for (int o = 0; o < slotCount; o++) {
+            if (o == s || slotCounts[o] == 0 || slotSymbols[o] == ' ')
+                continue;
+            long[] owned = slotCells[o];
+            for (int w = 0; w < words; w++)
+                mask[w] |= owned[w];
+        }
+        for (int w = 0; w < words; w++)
+            mask[w] &= seen[w];
+        return cellsOf(mask);
+    }
+
+    // ── Borders ──
+
+    /**
+     * Whether {@code attacker} may invade this cell: someone else owns it
+     * and it touches at least one of the attacker's cells. O(1).
+     */
+    public boolean isBorderTarget(char attacker, int row, int col) {
+        if (!isInside(row, col))
+            return false;
+        int index = row * size + col;
+        char owner = cells[index];
+        if (owner == EMPTY || owner == ' ' || owner == attacker)
+            return false;
+        int a = slotOf(attacker);
+        return a >= 0 && adjacent[a][index] > 0;
+    }
+
+    /** {@code defender}'s cells that touch {@code attacker}'s land, row-major. */
+    public int[] getAttackableCells(char attacker, char defender) {
+        int a = slotOf(attacker);
+        int d = slotOf(defender);
+        return a < 0 || d < 0 || a == d ? new int[0] : cellsOf(frontier[d][a]);
+    }
+
+    /** {@code attacker}'s cells that touch {@code defender}'s land, row-major. */
+    public int[] getFrontierCells(char attacker, char defender) {
+        int a = slotOf(attacker);
+        int d = slotOf(defender);
+        return a < 0 || d < 0 || a == d ? new int[0] : cellsOf(frontier[a][d]);
+    }
+
+    /**
+     * The first invasion a row-by-row scan would find: the attacker's
+     * first border cell facing {@code defender}, and that cell's first
+     * neighbour owned by the defender, as {@code {{row, col}, {row, col}}};
+     * {@code null} if the two do not touch.
+     */
+    public int[][] firstInvasion(char attacker, char defender) {
+        int a = slotOf(attacker);
+        int d = slotOf(defender);
+        long[] bits = a < 0 || d < 0 || a == d ? null : frontier[a][d];
+        if (bits == null)
+            return null;
+        for (int w = 0; w < bits.length; w++) {
+            if (bits[w] == 0)
+                continue;
+            int from = (w << 6) + Long.numberOfTrailingZeros(bits[w]);
+            int r = from / size;
+            int c = from % size;
+            for (int tr = r - 1; tr <= r + 1; tr++) {
+                for (int tc = c - 1; tc <= c + 1; tc++) {
+                    if (isInside(tr, tc) && cells[tr * size + tc] == defender)
+                        return new int[][] { { r, c }, { tr, tc } };
+                }
             }
         }
+        return null;
     }
 
     public void displayForPlayer(ConsoleIO io, char playerSymbol) {
-        boolean[][] playerMap = visibility.get(playerSymbol);
 
         io.println("\n   0 1 2");
 
@@ -119,11 +454,11 @@ public class MapGrid {
             rowBuilder.append(r).append("  ");
 
             for (int c = 0; c < size; c++) {
-                char owner = grid[r][c];
+                char owner = cells[r * size + c];
 
                 if (owner != '.') {
                     rowBuilder.append(owner).append(" ");
-                } else if (playerMap != null && playerMap[r][c]) {
+                } else if (isVisibleTo(playerSymbol, r, c)) {
                     rowBuilder.append(". ");
                 } else {
                     rowBuilder.append("? ");
@@ -146,7 +481,7 @@ public class MapGrid {
         for (int i = 0; i < size; i++) {
             StringBuilder line = new StringBuilder("  " + i + " ");
             for (int j = 0; j < size; j++) {
-                line.append(grid[i][j]).append(" ");
+                line.append(cells[i * size + j]).append(" ");
             }
             io.println(line.toString());
         }
@@ -154,23 +489,19 @@ public class MapGrid {
     }
 
     public void clear() {
-        for (int i = 0; i < size; i++) {
-            for (int j = 0; j < size; j++) {
-                grid[i][j] = EMPTY;
-            }
-        }
+        initializeGrid();
     }
 
     public char getOwner(int row, int col) {
         if (isInside(row, col)) {
-            return grid[row][col];
+            return cells[row * size + col];
         }
         return EMPTY;
     }
 
     public void setOwner(int row, int col, char symbol) {
         if (isInside(row, col)) {
-            grid[row][col] = symbol;
+            write(row * size + col, symbol);
         }
     }
 
@@ -179,33 +510,38 @@ public class MapGrid {
     }
 
     public boolean isMapFull() {
-        for (int i = 0; i < size; i++) {
-            for (int j = 0; j < size; j++) {
-                if (grid[i][j] == EMPTY)
-                    return false;
-            }
-        }
-        return true;
+        return freeCells == 0;
     }
 
     public char getCell(int row, int col) {
-        return grid[row][col];
+        Objects.checkIndex(col, size);
+        return cells[Objects.checkIndex(row, size) * size + col];
     }
 
+    /**
+     * Every other symbol that owns land, in the order a row-by-row scan
+     * would first meet it. Reads one bitset per owner up to its first set
+     * word instead of the whole grid.
+     */
     public List<Character> getVisibleEnemySymbols(char attackerSym) {
-        List<Character> enemies = new ArrayList<>();
-        int size = getSize();
-
-        for (int r = 0; r < size; r++) {
-            for (int c = 0; c < size; c++) {
-                char owner = getOwner(r, c);
-                if (owner != '.' && owner != ' ' && owner != attackerSym) {
-                    if (!enemies.contains(owner)) {
-                        enemies.add(owner);
-                    }
-                }
-            }
+        int[] firstCell = new int[slotCount];
+        Integer[] order = new Integer[slotCount];
+        int n = 0;
+        for (int s = 0; s < slotCount; s++) {
+            char owner = slotSymbols[s];
+            if (slotCounts[s] == 0 || owner == ' ' || owner == attackerSym)
+                continue;
+            long[] bits = slotCells[s];
+            int w = 0;
+            while (bits[w] == 0)
+                w++;
+            firstCell[s] = (w << 6) + Long.numberOfTrailingZeros(bits[w]);
+            order[n++] = s;
         }
+        Arrays.sort(order, 0, n, Comparator.comparingInt(s -> firstCell[s]));
+        List<Character> enemies = new ArrayList<>(n);
+        for (int i = 0; i < n; i++)
+            enemies.add(slotSymbols[order[i]]);
         return enemies;
     }
 }
\ No newline at end of file
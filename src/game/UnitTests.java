@@ -3,6 +3,8 @@ package game;
 import bot.EasyBot;
 import player.Player;
 import trivia.Question;
+import trivia.QuestionBank;
+import trivia.QuestionDeck;
 import trivia.QuestionType;
 import trivia.AnswerValidator;
 
@@ -18,8 +20,27 @@ public class UnitTests {
         try {
             testPlayerLogic();
             testMapBoundaries();
+            testMapGridCounts();
+            testFogOfWar();
+            testFreeCellIndex();
+            testBorderIndex();
+            testMapChangedCells();
             testAnswerValidation();
             testBotStrategy();
+            testMonteCarloBot();
+            testHeadlessGame();
+            testQuestionDecks();
+            testLazyQuestionPack();
+            testBinaryQuestionPack();
+            testQuestionDistribution();
+            testConnectionPool();
+            testLeaderboardRecorder();
+            testRecorderDrainsBeforePoolCloses();
+            testRecorderCloseWhileSubmitting();
+            testLeaderboardCreditsAccountOnly();
+            testLeaderboardRanking();
+            testLeaderboardJournal();
+            testSaveSlots();
 
             System.out.println("[SUCCESS] All core tests passed!\n");
         } catch (AssertionError e) {
@@ -46,6 +67,138 @@ public class UnitTests {
         assert !map.isInside(3, 3) : "3,3 should be outside for a 3x3 map";
     }
 
+    private static void testMapGridCounts() {
+        MapGrid map = new MapGrid(9); // 81 cells, so the bitsets span two words
+        assert map.getFreeCellCount() == 81 && !map.isMapFull() : "A new map should be empty";
+
+        map.claimCell('B', 8, 8);
+        map.claimCell('A', 0, 1);
+        map.claimCell('A', 7, 2);
+        assert !map.claimCell('B', 0, 1) : "A claimed cell should not be claimable again";
+        assert map.countTerritory('A') == 2 && map.countTerritory('B') == 1 : "Counts should follow claims";
+        assert map.countTerritory('.') == 78 : "'.' should count the free cells";
+        assert map.getVisibleEnemySymbols('C').equals(java.util.List.of('A', 'B'))
+                : "Enemies should be listed in grid scan order";
+
+        map.setOwner(7, 2, 'B');
+        map.setOwner(8, 8, '.');
+        assert map.countTerritory('A') == 1 && map.countTerritory('B') == 1 && map.getFreeCellCount() == 79
+                : "Counts should follow owner changes";
+        assert map.getVisibleEnemySymbols('A').equals(java.util.List.of('B')) : "Attacker should not be listed";
+
+        for (int r = 0; r < 9; r++)
+            for (int c = 0; c < 9; c++)
+                map.claimCell('C', r, c);
+        assert map.isMapFull() && map.countTerritory('C') == 79 : "Filling every free cell should fill the map";
+        map.clear();
+        assert map.getFreeCellCount() == 81 && map.countTerritory('C') == 0 : "clear() should reset the counts";
+    }
+
+    private static void testFreeCellIndex() {
+        MapGrid map = new MapGrid(4);
+        java.util.Random rng = new java.util.Random(7);
+        java.util.Set<Integer> claimed = new java.util.HashSet<>();
+        for (int i = 0; i < 16; i++) {
+            int cell = map.randomFreeCell(rng);
+            assert cell >= 0 && map.isFree(cell / 4, cell % 4) : "Should only pick free cells";
+            map.claimCell('A', cell / 4, cell % 4);
+            claimed.add(cell);
+        }
+        assert claimed.size() == 16 && map.randomFreeCell(rng) == -1 : "A full map should have no free cell";
+
+        map.setOwner(2, 3, '.'); // what ClaimCellCommand.undo does
+        assert map.randomFreeCell(rng) == 2 * 4 + 3 : "An undone claim should be free again";
+        map.setOwner(2, 3, 'B');
+        assert map.randomFreeCell(rng) == -1 && map.getFreeCellCount() == 0 : "Reclaiming should remove it again";
+    }
+
+    private static void testBorderIndex() {
+        MapGrid map = new MapGrid(9);
+        java.util.Random rng = new java.util.Random(11);
+        char[] owners = { '.', 'A', 'B', 'C' };
+        for (int step = 0; step < 2000; step++) {
+            map.setOwner(rng.nextInt(9), rng.nextInt(9), owners[rng.nextInt(owners.length)]);
+            if (step % 100 != 0)
+                continue;
+            for (char a = 'A'; a <= 'C'; a++) {
+                for (char d = 'A'; d <= 'C'; d++) {
+                    if (a == d)
+                        continue;
+                    java.util.List<Integer> expected = new java.util.ArrayList<>();
+                    for (int r = 0; r < 9; r++)
+                        for (int c = 0; c < 9; c++)
+                            if (map.getOwner(r, c) == d && touches(map, r, c, a))
+                                expected.add(r * 9 + c);
+                    int[] actual = map.getAttackableCells(a, d);
+                    assert java.util.Arrays.equals(actual, expected.stream().mapToInt(i -> i).toArray())
+                            : "Border index should match a full scan";
+                    for (int cell : actual)
+                        assert map.isBorderTarget(a, cell / 9, cell % 9) : "Listed targets should be border targets";
+                }
+            }
+        }
+        map.clear();
+        map.claimCell('A', 0, 0);
+        map.claimCell('B', 2, 2);
+        assert map.firstInvasion('A', 'B') == null && !map.isBorderTarget('A', 2, 2) : "Distant cells do not border";
+        map.claimCell('B', 1, 1);
+        int[][] move = map.firstInvasion('A', 'B');
+        assert move != null && move[0][0] == 0 && move[0][1] == 0 && move[1][0] == 1 && move[1][1] == 1
+                : "Should find the invasion from the only border cell";
+    }
+
+    private static void testMapChangedCells() {
+        MapGrid map = new MapGrid(9);
+        assert map.takeChangedCells() == null : "A new map should report that everything changed";
+        assert map.takeChangedCells().length == 0 : "Nothing has been written since";
+        map.claimCell('A', 0, 1);
+        map.setOwner(0, 1, 'B');
+        map.claimCell('A', 8, 8);
+        map.setOwner(8, 8, 'A');
+        int[] changed = map.takeChangedCells();
+        java.util.Arrays.sort(changed);
+        assert java.util.Arrays.equals(changed, new int[] { 1, 80 }) : "Each written cell should be listed once";
+        assert map.takeChangedCells().length == 0 : "Taking the changes should forget them";
+        map.setOwner(8, 8, 'B');
+        assert java.util.Arrays.equals(map.takeChangedCells(), new int[] { 80 }) : "A cell can change again";
+        map.clear();
+        assert map.takeChangedCells() == null : "Clearing should report that everything changed";
+    }
+
+    private static boolean touches(MapGrid map, int r, int c, char owner) {
+        for (int dr = -1; dr <= 1; dr++)
+            for (int dc = -1; dc <= 1; dc++)
+                if ((dr != 0 || dc != 0) && map.isInside(r + dr, c + dc) && map.getOwner(r + dr, c + dc) == owner)
+                    return true;
+        return false;
+    }
+
+    private static void testFogOfWar() {
+        MapGrid map = new MapGrid(9);
+        map.initVisibilityForPlayer('A');
+        map.initVisibilityForPlayer('B');
+        map.claimCell('A', 7, 1);
+        map.revealNeighbourForPlayer('A', 7, 1); // rows 6-8 straddle the 64-bit word boundary
+        int seen = 0;
+        for (int r = 0; r < 9; r++)
+            for (int c = 0; c < 9; c++)
+                if (map.isVisibleTo('A', r, c))
+                    seen++;
+        assert seen == 9 && map.isVisibleTo('A', 6, 0) && map.isVisibleTo('A', 8, 2)
+                : "Revealing should uncover exactly the 3x3 neighbourhood";
+        assert !map.isVisibleTo('B', 7, 1) : "Each player should have their own fog";
+
+        map.revealNeighbourForPlayer('A', 0, 8);
+        assert map.isVisibleTo('A', 1, 7) && !map.isVisibleTo('A', 1, 6) && !map.isVisibleTo('A', 2, 8)
+                : "Corner reveals should be clipped to the map";
+
+        map.claimCell('B', 8, 2);
+        map.claimCell('B', 4, 4);
+        int[] enemies = map.getVisibleEnemyCells('A');
+        assert enemies.length == 1 && enemies[0] == 8 * 9 + 2 : "Only visible enemy cells should be listed";
+        assert map.getVisibleEnemyCells('C').length == 0 : "A player without fog data should see nothing";
+    }
+
     private static void testAnswerValidation() {
         Question q = new Question();
 
@@ -59,6 +212,34 @@ public class UnitTests {
         assert AnswerValidator.isCorrect(q, "15") : "Should accept correct answer";
 
         assert !AnswerValidator.isCorrect(q, "20") : "Should reject wrong answer";
+
+        q.setNumericAnswer(20.0);
+        assert AnswerValidator.isCorrect(q, "20") : "Changing the answer should rebuild the matcher";
+
+        Question order = new Question();
+        order.setType(QuestionType.ORDERING);
+        order.setChoices(java.util.List.of("Egg", "Chick", "Hen"));
+        order.setOrderingAnswer(java.util.List.of("Egg", "Chick", "Hen"));
+        assert AnswerValidator.isCorrect(order, "1, 2, 3") : "Should accept the right order";
+        assert !AnswerValidator.isCorrect(order, "2,1,3") : "Should reject a wrong order";
+        assert !AnswerValidator.isValidAnswer(order, "1,1,3") : "Should reject a repeated choice";
+
+        Question open = new Question();
+        open.setType(QuestionType.OPEN_ENDED);
+        open.setAnswer("New  York!");
+        assert AnswerValidator.isCorrect(open, " new york ") : "Should ignore case, punctuation and spacing";
+        assert !AnswerValidator.isCorrect(open, "new yrok") : "A swap is two edits, over the limit for 8 chars";
+        assert AnswerValidator.isCorrect(open, "new yor") : "Should forgive one typo in a longer answer";
+        assert !AnswerValidator.isCorrect(open, "new") : "Should reject answers far from the expected one";
+        open.setAliases(java.util.List.of("NYC", "Big Apple"));
+        assert AnswerValidator.isCorrect(open, "nyc") : "Should accept an alias";
+        assert AnswerValidator.isCorrect(open, "big aple") : "Should forgive a typo in an alias too";
+        assert !AnswerValidator.isCorrect(open, "nyd") : "Short answers should only match exactly";
+
+        Question year = new Question();
+        year.setType(QuestionType.OPEN_ENDED);
+        year.setAnswer("Year 1945");
+        assert !AnswerValidator.isCorrect(year, "year 1946") : "Answers with digits should only match exactly";
     }
 
     private static void testBotStrategy() {
@@ -79,4 +260,510 @@ public class UnitTests {
         long delay = bot.getStrategy().getResponseTime();
         assert delay >= 0 : "Response time should be a valid non-negative number";
     }
-}
\ No newline at end of file
+
+    private static void testMonteCarloBot() {
+        bot.MonteCarloBot bot = new bot.MonteCarloBot(20, new java.util.concurrent.ForkJoinPool(2));
+        char[] players = { 'A', 'B' };
+        MapGrid map = new MapGrid(4);
+        map.claimCell('B', 0, 0);
+        int cell = bot.chooseClaim(map, 'A', players);
+        assert cell >= 0 && map.isFree(cell / 4, cell % 4) : "Claim search should return a free cell";
+
+        map.claimCell('A', 1, 1);
+        int[][] move = bot.chooseInvasion(map, 'A', players);
+        assert move != null && map.getOwner(move[0][0], move[0][1]) == 'A'
+                && map.isBorderTarget('A', move[1][0], move[1][1]) : "Invasion search should return a legal move";
+        assert bot.chooseInvasion(map, 'C', players) == null : "Unknown players have no moves";
+    }
+
+    private static void testHeadlessGame() {
+        java.util.List<Question> pool = new java.util.ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            Question q = new Question();
+            q.setCategory("Tech");
+            q.setDifficulty("EASY");
+            q.setPrompt("Q" + i);
+            q.setType(QuestionType.TRUE_FALSE);
+            q.setAnswer(i % 2 == 0 ? "T" : "F");
+            pool.add(q);
+        }
+        java.util.List<bot.BotStrategy> seats = java.util.List.of(new EasyBot(), new bot.HardBot());
+        model.HeadlessGame.Result r = model.HeadlessGame.play(new QuestionBank(pool), 3, seats, true,
+                new java.util.Random(3));
+        assert r.territory[0] + r.territory[1] == 9 : "A finished game should have every cell claimed";
+        assert r.winner >= -1 && r.winner < 2 : "Winner should be a seat or -1 for a tie";
+    }
+
+    private static void testQuestionDecks() {
+        java.util.List<Question> pool = new java.util.ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Question q = new Question();
+            q.setCategory("Tech");
+            q.setDifficulty("EASY");
+            q.setPrompt("Q" + i);
+            q.setType(QuestionType.TRUE_FALSE);
+            pool.add(q);
+        }
+        QuestionBank bank = new QuestionBank(pool);
+        QuestionDeck a = bank.newDeck();
+        QuestionDeck b = bank.newDeck();
+
+        java.util.Set<String> seen = new java.util.HashSet<>();
+        for (int i = 0; i < 3; i++)
+            seen.add(a.draw("Tech", "EASY").getPrompt());
+        assert seen.size() == 3 : "A deck should deal every question once before running dry";
+        assert a.draw("Tech", "EASY") == null : "An exhausted deck should return null";
+        assert b.draw("Tech", "EASY") != null : "Decks should not consume each other's questions";
+        assert bank.getQuestions("Tech", "EASY", QuestionType.TRUE_FALSE).size() == 3
+                : "Type index should list the pile's TRUE_FALSE questions";
+        assert bank.getQuestions("Tech", "EASY", QuestionType.NUMERIC).isEmpty()
+                : "Type index should be empty for a type with no questions";
+        assert a.drawAny() != null : "drawAny should cycle through the bank";
+    }
+
+    private static void testLazyQuestionPack() {
+        try {
+            java.nio.file.Path dir = java.nio.file.Files.createTempDirectory("mindwars-pack");
+            java.nio.file.Path json = dir.resolve("pack.json");
+            java.nio.file.Files.writeString(json, "[\n"
+                    + "{\"type\": \"TRUE_FALSE\", \"category\": \"Tech\", \"difficulty\": \"EASY\","
+                    + " \"prompt\": \"Braces { in } a \\\"string\\\"?\", \"answer\": \"True\"},\n"
+                    + "{\"type\": \"NUMERIC\", \"category\": \"Tech\", \"difficulty\": \"HARD\","
+                    + " \"prompt\": \"Zoë's number\", \"numericAnswer\": 42.0, \"tolerance\": 1.5}\n"
+                    + "]");
+
+            QuestionBank bank = new QuestionBank(trivia.JsonQuestionPack.open(json), 1);
+            assert bank.size() == 2 : "Pack should index both questions";
+            assert java.nio.file.Files.exists(dir.resolve("pack.json.idx")) : "Pack should save its index";
+            assert bank.getQuestions("Tech", "EASY").get(0).getPrompt().equals("Braces { in } a \"string\"?")
+                    : "Lazy load should parse the right slice";
+            Question numeric = bank.getQuestions("Tech", "HARD", QuestionType.NUMERIC).get(0);
+            assert numeric.getTolerance() == 1.5 && numeric.getPrompt().equals("Zoë's number")
+                    : "Lazy load should keep UTF-8 text and every field";
+
+            QuestionBank reopened = new QuestionBank(trivia.JsonQuestionPack.open(json), 4);
+            assert reopened.getDifficulties("Tech").size() == 2 : "Saved index should be reusable";
+        } catch (java.io.IOException e) {
+            throw new AssertionError("Pack test could not use a temp dir: " + e.getMessage());
+        }
+    }
+
+    private static void testBinaryQuestionPack() {
+        try {
+            Question tf = new Question();
+            tf.setCategory("Tech");
+            tf.setDifficulty("EASY");
+            tf.setType(QuestionType.MULTIPLE_CHOICE);
+            tf.setPrompt("Zoë picks?");
+            tf.setChoices(java.util.List.of("A one", "B two"));
+            tf.setAnswer("B");
+            Question num = new Question();
+            num.setCategory("Tech");
+            num.setDifficulty("HARD");
+            num.setType(QuestionType.NUMERIC);
+            num.setPrompt("How many?");
+            num.setNumericAnswer(42);
+            num.setTolerance(2.5);
+            num.setAliases(java.util.List.of("Forty-two"));
+            Question yes = new Question();
+            yes.setCategory("Tech");
+            yes.setDifficulty("EASY");
+            yes.setType(QuestionType.TRUE_FALSE);
+            yes.setPrompt("True?");
+            yes.setAnswer("True");
+
+            java.nio.file.Path file = java.nio.file.Files.createTempFile("mindwars", ".mwqp");
+            trivia.BinaryQuestionPack.write(java.util.List.of(tf, num, yes), file);
+            assert trivia.BinaryQuestionPack.isPack(file) : "Written pack should carry the magic";
+
+            QuestionBank bank = QuestionBank.load(file.toString());
+            assert bank.size() == 3 : "Mapped pack should hold every question";
+            assert bank.getQuestions("Tech", "EASY").size() == 2 && bank.getQuestions("Tech", "HARD").size() == 1
+                    : "Shelves should be the pack's groups";
+            assert bank.getQuestions("Tech", "EASY", QuestionType.TRUE_FALSE).get(0).getPrompt().equals("True?")
+                    : "The per-type split should come from the shelf's own records";
+            Question back = bank.getQuestions("Tech", "EASY", QuestionType.MULTIPLE_CHOICE).get(0);
+            assert back.getPrompt().equals("Zoë picks?") && back.getChoices().equals(tf.getChoices())
+                    : "Mapped pack should round-trip text and choices";
+            Question n = bank.getQuestions("Tech", "HARD", QuestionType.NUMERIC).get(0);
+            assert n.getNumericAnswer() == 42 && n.getTolerance() == 2.5
+                    : "Mapped pack should round-trip numeric fields";
+            assert java.util.List.of("Forty-two").equals(n.getAliases()) : "Mapped pack should round-trip aliases";
+        } catch (java.io.IOException e) {
+            throw new AssertionError("Binary pack test could not use a temp file: " + e.getMessage());
+        }
+    }
+
+    private static void testQuestionDistribution() {
+        java.util.List<Question> questions = new java.util.ArrayList<>();
+        for (String diff : new String[] { "EASY", "EASY", "EASY", "MEDIUM", "MEDIUM" }) {
+            Question q = new Question();
+            q.setCategory("Math");
+            q.setDifficulty(diff);
+            questions.add(q);
+        }
+        trivia.QuestionDistribution d = trivia.QuestionDistribution.of(questions);
+        assert d.insufficient().equals(java.util.List.of("Math MEDIUM (2/3)", "Math HARD (0/3)"))
+                : "Combinations below the minimum should be reported: " + d.insufficient();
+        assert !d.isSufficient() : "A missing difficulty should fail the check";
+        java.util.Map<String, java.util.Map<String, Integer>> counts =
+                java.util.Map.of("Math", java.util.Map.of("EASY", 3, "MEDIUM", 2));
+        assert d.equals(new trivia.QuestionDistribution(counts)) : "Distributions with the same counts should match";
+    }
+
+    private static void testConnectionPool() {
+        int[] opened = { 0 };
+        int[] prepared = { 0 };
+        persistence.ConnectionPool pool = new persistence.ConnectionPool(() -> {
+            opened[0]++;
+            return stubConnection(prepared);
+        }, 1, 50, 2);
+        try {
+            try (persistence.PooledConnection c = pool.borrow()) {
+                c.prepare("SELECT 1");
+                assert pool.stats().active == 1 : "A borrowed connection should count as active";
+            }
+            try (persistence.PooledConnection c = pool.borrow()) {
+                c.prepare("SELECT 1");
+                c.prepare("SELECT 2");
+                c.prepare("SELECT 3"); // evicts SELECT 1 from the two-entry cache
+                c.prepare("SELECT 1");
+                boolean timedOut = false;
+                try (persistence.PooledConnection extra = pool.borrow()) {
+                    assert extra == null : "A full pool should not lend another connection";
+                } catch (java.sql.SQLException e) {
+                    timedOut = true;
+                }
+                assert timedOut : "Borrowing from an exhausted pool should time out";
+            }
+        } catch (java.sql.SQLException e) {
+            throw new AssertionError("Unexpected pool failure: " + e.getMessage());
+        }
+        persistence.ConnectionPool.Stats stats = pool.stats();
+        assert opened[0] == 1 : "Sequential borrows should reuse one connection";
+        assert prepared[0] == 4 && stats.statementHits == 1 : "Statements should be cached per connection (LRU)";
+        assert stats.borrows == 2 && stats.timeouts == 1 && stats.active == 0 && stats.idle == 1
+                : "Pool metrics should count borrows, timeouts and returns";
+        pool.close();
+    }
+
+    private static void testLeaderboardRecorder() {
+        java.util.List<Integer> batchSizes = new java.util.concurrent.CopyOnWriteArrayList<>();
+        java.util.concurrent.CountDownLatch writing = new java.util.concurrent.CountDownLatch(1);
+        java.util.concurrent.CountDownLatch release = new java.util.concurrent.CountDownLatch(1);
+        persistence.LeaderboardRecorder recorder = new persistence.LeaderboardRecorder(2, batch -> {
+            writing.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            batchSizes.add(batch.size());
+        });
+        java.util.function.IntFunction<persistence.LeaderboardRecorder.Result> result = i ->
+                new persistence.LeaderboardRecorder.Result(i, i, 1, 1, 0, 900, 900, false, "hot-seat", 3);
+        try {
+            assert recorder.submit(result.apply(1)) : "A result should be queued";
+            writing.await();
+            assert recorder.submit(result.apply(2)) && recorder.submit(result.apply(3))
+                    : "Results should queue while the writer is busy";
+            assert !recorder.submit(result.apply(4)) : "A full queue should drop after a short wait";
+            release.countDown();
+            assert recorder.flush(2000) : "Flush should wait for queued results";
+        } catch (InterruptedException e) {
+            throw new AssertionError("Interrupted");
+        }
+        assert batchSizes.equals(java.util.List.of(1, 2)) : "Results queued together should share one batch";
+        assert recorder.getWritten() == 3 && recorder.getDropped() == 1 : "Recorder should count writes and drops";
+        recorder.close();
+        assert !recorder.submit(result.apply(5)) : "A closed recorder should refuse results";
+    }
+
+    private static void testRecorderDrainsBeforePoolCloses() {
+        persistence.ConnectionPool pool = new persistence.ConnectionPool(() -> stubConnection(new int[1]), 1, 50, 2);
+        persistence.LeaderboardRecorder recorder = new persistence.LeaderboardRecorder(16, batch -> {
+            try (persistence.PooledConnection c = pool.borrow()) { // fails once the pool is closed
+                c.prepare("INSERT");
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        for (int i = 0; i < 8; i++) {
+            recorder.submit(new persistence.LeaderboardRecorder.Result(i, i, 1, 1, 0, 900, 900, false, "hot-seat", 3));
+        }
+        persistence.DatabaseManager.closeInOrder(recorder, pool::close);
+        assert recorder.getWritten() == 8 && recorder.getFailed() == 0
+                : "Shutdown should drain the recorder before closing the pool";
+        boolean refused = false;
+        try (persistence.PooledConnection c = pool.borrow()) {
+            assert c == null : "A closed pool should not lend connections";
+        } catch (java.sql.SQLException e) {
+            refused = true;
+        }
+        assert refused : "The pool should be closed after shutdown";
+    }
+
+    private static void testRecorderCloseWhileSubmitting() {
+        persistence.LeaderboardRecorder recorder = new persistence.LeaderboardRecorder(64, batch -> {
+        });
+        int threads = 4;
+        int each = 2000;
+        java.util.concurrent.CountDownLatch started = new java.util.concurrent.CountDownLatch(threads);
+        java.util.List<Thread> submitters = new java.util.ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread th = new Thread(() -> {
+                started.countDown();
+                for (int i = 0; i < each; i++) {
+                    recorder.submit(new persistence.LeaderboardRecorder.Result(i, i, 1, 1, 0, 900, 900, false,
+                            "hot-seat", 3));
+                }
+            });
+            submitters.add(th);
+            th.start();
+        }
+        try {
+            started.await();
+            recorder.close();
+            for (Thread th : submitters)
+                th.join();
+            assert recorder.getWritten() + recorder.getDropped() == (long) threads * each
+                    : "Every result should be written or dropped, never left queued";
+            assert recorder.getQueued() == 0 && recorder.flush(1000) : "Flush should not hang after close";
+        } catch (InterruptedException e) {
+            throw new AssertionError("Interrupted");
+        }
+    }
+
+    private static void testLeaderboardCreditsAccountOnly() {
+        java.util.List<Question> pool = new java.util.ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            Question q = new Question();
+            q.setCategory("Tech");
+            q.setDifficulty("EASY");
+            q.setPrompt("Q" + i);
+            q.setType(QuestionType.TRUE_FALSE);
+            q.setAnswer("T");
+            pool.add(q);
+        }
+        java.util.List<persistence.LeaderboardRecorder.Result> submitted =
+                new java.util.concurrent.CopyOnWriteArrayList<>();
+        persistence.LeaderboardRecorder recorder = new persistence.LeaderboardRecorder(16, submitted::addAll);
+        controller.NavigationController nav = (controller.NavigationController) java.lang.reflect.Proxy
+                .newProxyInstance(UnitTests.class.getClassLoader(),
+                        new Class<?>[] { controller.NavigationController.class }, (proxy, method, args) -> null);
+        java.nio.file.Path dir = tempDir("account");
+        try {
+            model.GameModel game = new model.GameModel(new QuestionBank(pool));
+            controller.GameController gc = new controller.GameController(game, nav,
+                    new model.LeaderboardStore(dir.resolve("leaderboard.json")), recorder);
+            gc.setAccountUserId(7);
+            // Seat 2 types someone else's username; only the signed-in seat may reach an account.
+            gc.startNewGame(new model.GameSettings(3, false, "Ann", "admin", null, null, false, "Tech", "EASY", 2));
+            gc.recordGameOnLeaderboard();
+            assert recorder.flush(2000) : "Recorder should write the game";
+            assert submitted.size() == 1 && submitted.get(0).userId == 7
+                    : "Only the signed-in player should be credited to an account";
+        } catch (InterruptedException e) {
+            throw new AssertionError("Interrupted");
+        } finally {
+            recorder.close();
+            deleteTree(dir);
+        }
+    }
+
+    private static void testLeaderboardRanking() {
+        java.nio.file.Path dir = tempDir("leaderboard");
+        java.nio.file.Path file = dir.resolve("leaderboard.json");
+        try {
+            model.LeaderboardStore store = new model.LeaderboardStore(file);
+            store.recordResult("Ann", 10, true);
+            store.recordResult("Bob", 30, false);
+            store.recordResult("Cid", 10, true);
+            store.recordResult("Dee", 5, false);
+            assert store.size() == 4 : "Equal stats under different names should both be kept";
+            java.util.List<String> top = store.getTop(3).stream().map(model.LeaderboardEntry::getName).toList();
+            assert top.equals(java.util.List.of("Ann", "Cid", "Bob")) : "Top should be wins, score, then name: " + top;
+
+            store.recordResult("Dee", 50, true);
+            store.recordResult("Dee", 1, true);
+            assert store.getTop(1).get(0).getName().equals("Dee") : "A new result should re-rank its player";
+            assert store.getTop(10).size() == 4 : "Top should stop at the number of players";
+            assert store.getEntries().get(3).getName().equals("Bob") : "Entries should stay in rank order";
+
+            model.LeaderboardStore reloaded = new model.LeaderboardStore(file);
+            assert reloaded.getTop(2).stream().map(model.LeaderboardEntry::getName).toList()
+                    .equals(java.util.List.of("Dee", "Ann")) : "Ranking should survive a reload";
+            store.flush();
+        } finally {
+            deleteTree(dir);
+        }
+    }
+
+    private static void testLeaderboardJournal() {
+        java.nio.file.Path dir = tempDir("journal");
+        java.nio.file.Path file = dir.resolve("leaderboard.json");
+        java.nio.file.Path journal = dir.resolve("leaderboard.json.journal");
+        java.util.function.Function<model.LeaderboardStore, String> stats = st -> st.getEntries().stream()
+                .map(e -> e.getName() + ":" + e.getWins() + "/" + e.getTotalScore() + "/" + e.getGamesPlayed())
+                .toList().toString();
+        try {
+            java.nio.file.Files.writeString(file, "[{\"name\":\"Old\",\"wins\":1,\"totalScore\":7,\"gamesPlayed\":2}]");
+            model.LeaderboardStore store = new model.LeaderboardStore(file);
+            assert store.size() == 1 : "A snapshot in the old array format should still load";
+
+            player.Player ann = new player.Player("Ann");
+            ann.addScore(12);
+            store.recordGame(java.util.List.of(ann, new player.Player("Bob")), ann);
+            store.recordResult("Bob", 4, false);
+            assert java.nio.file.Files.readString(file).startsWith("[") : "Recording should not rewrite the snapshot";
+            assert java.nio.file.Files.readAllLines(journal).size() == 2 : "Each game should append one journal line";
+            String expected = stats.apply(store);
+            assert stats.apply(new model.LeaderboardStore(file)).equals(expected) : "Opening should replay the journal";
+
+            store.flush();
+            assert !java.nio.file.Files.exists(journal) && !java.nio.file.Files.exists(dir.resolve("leaderboard.json.1"))
+                    && !java.nio.file.Files.exists(dir.resolve("leaderboard.json.tmp"))
+                    : "Compaction should leave only the snapshot";
+            assert stats.apply(new model.LeaderboardStore(file)).equals(expected) : "The snapshot should hold every game";
+
+            // A rotated segment the snapshot already covers (crash before it was deleted) is not counted twice,
+            // and a half-written last line is ignored and does not spoil the next append.
+            java.nio.file.Files.writeString(dir.resolve("leaderboard.json.1"),
+                    "{\"seq\":2,\"results\":[{\"name\":\"Bob\",\"score\":4,\"won\":false}]}\n");
+            java.nio.file.Files.writeString(journal, "{\"seq\":3,\"results\":[{\"name\":\"Ann\"");
+            model.LeaderboardStore reopened = new model.LeaderboardStore(file);
+            assert stats.apply(reopened).equals(expected) : "Covered or torn events should not be replayed";
+            reopened.recordResult("Cid", 50, true);
+            model.LeaderboardStore last = new model.LeaderboardStore(file);
+            assert last.size() == 4 && last.getTop(1).get(0).getName().equals("Cid")
+                    : "An append after a torn line should still replay";
+            reopened.flush();
+        } catch (java.io.IOException e) {
+            throw new AssertionError("Leaderboard files: " + e.getMessage());
+        } finally {
+            deleteTree(dir);
+        }
+    }
+
+    private static void testSaveSlots() {
+        java.util.Map<String, Object[]> rows = new java.util.LinkedHashMap<>();
+        int[] stateReads = { 0 };
+        model.GameMementoStore.SlotStorage storage = new model.GameMementoStore.SlotStorage() {
+            public java.util.List<model.GameMementoStore.SlotInfo> list() {
+                java.util.List<model.GameMementoStore.SlotInfo> out = new java.util.ArrayList<>();
+                for (Object[] row : rows.values())
+                    out.add(0, (model.GameMementoStore.SlotInfo) row[0]);
+                return out;
+            }
+
+            public void put(model.GameMementoStore.SlotInfo header, byte[] state) {
+                rows.remove(header.name);
+                rows.put(header.name, new Object[] { header, state });
+            }
+
+            public byte[] get(String name) {
+                stateReads[0]++;
+                Object[] row = rows.get(name);
+                return row == null ? null : (byte[]) row[1];
+            }
+
+            public boolean delete(String name) {
+                return rows.remove(name) != null;
+            }
+        };
+
+        model.GameMemento m = new model.GameMemento();
+        m.savedAt = "2026-01-02 10:00";
+        m.roundIndex = 2;
+        m.mapSize = 10;
+        m.mapOwners = "XO........".repeat(10);
+        m.mapBonus = new java.util.ArrayList<>(java.util.Collections.nCopies(100, false));
+        for (String name : new String[] { "Ann", "Bob" }) {
+            model.GameMemento.PlayerSnap p = new model.GameMemento.PlayerSnap();
+            p.name = name;
+            p.symbol = name.charAt(0);
+            p.score = 40;
+            m.players.add(p);
+        }
+
+        java.nio.file.Path dir = tempDir("saves");
+        java.nio.file.Path legacy = dir.resolve("slot.mwsave");
+        try {
+            String pretty = new com.google.gson.GsonBuilder().setPrettyPrinting().create().toJson(m);
+            java.nio.file.Files.writeString(legacy, pretty);
+            model.GameMementoStore store = new model.GameMementoStore(storage, legacy);
+            assert store.list().size() == 1 && store.list().get(0).name.equals(model.GameMementoStore.LEGACY_SLOT_NAME)
+                    : "The old single slot should be imported once";
+            assert !java.nio.file.Files.exists(legacy) : "The imported slot file should be moved aside";
+
+            byte[] encoded = model.GameMementoStore.encode(m);
+            assert encoded.length * 4 < pretty.length() : "Encoded saves should be far smaller than pretty JSON";
+            for (int i = 0; i < 300; i++)
+                store.save("Save " + i, m);
+            store.save("Save 7", m);
+            stateReads[0] = 0;
+            java.util.List<model.GameMementoStore.SlotInfo> slots = store.list();
+            assert slots.size() == 301 : "Saving under a used name should replace that slot";
+            assert stateReads[0] == 0 : "Listing should read headers only";
+            model.GameMementoStore.SlotInfo first = slots.get(0);
+            assert first.name.equals("Save 7") && first.players.equals("Ann vs Bob") && first.round == 3
+                    && first.mapSize == 10 && first.gameMode.equals("hot-seat") : "Headers should describe the save";
+
+            model.GameMemento back = store.load("Save 7");
+            assert back.mapOwners.equals(m.mapOwners) && back.players.get(1).name.equals("Bob")
+                    && back.players.get(1).symbol == 'B' && back.roundIndex == 2 : "A slot should load back intact";
+            assert store.load("Nope") == null : "A missing slot should load as null";
+            store.delete("Save 7");
+            assert store.list().size() == 300 : "Delete should drop the slot";
+        } catch (java.io.IOException e) {
+            throw new AssertionError("Save slots: " + e.getMessage());
+        } finally {
+            deleteTree(dir);
+        }
+        try {
+            model.GameMementoStore.decode("not a save".getBytes(java.nio.charset.StandardCharsets.UTF_8));
+            assert false : "Unknown data should be rejected";
+        } catch (java.io.IOException expected) {
+        }
+    }
+
+    private static java.nio.file.Path tempDir(String prefix) {
+        try {
+            return java.nio.file.Files.createTempDirectory(prefix);
+        } catch (java.io.IOException e) {
+            throw new AssertionError("Could not create a temp directory");
+        }
+    }
+
+    private static void deleteTree(java.nio.file.Path dir) {
+        try (java.util.stream.Stream<java.nio.file.Path> paths = java.nio.file.Files.walk(dir)) {
+            paths.sorted(java.util.Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        } catch (java.io.IOException ignored) {
+        }
+    }
+
+    /** A do-nothing JDBC connection that counts the statements it prepares. */
+    private static java.sql.Connection stubConnection(int[] prepared) {
+        boolean[] closed = { false };
+        return (java.sql.Connection) java.lang.reflect.Proxy.newProxyInstance(UnitTests.class.getClassLoader(),
+                new Class<?>[] { java.sql.Connection.class }, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "prepareStatement":
+                            prepared[0]++;
+                            return java.lang.reflect.Proxy.newProxyInstance(UnitTests.class.getClassLoader(),
+                                    new Class<?>[] { java.sql.PreparedStatement.class },
+                                    (p, m, a) -> m.getReturnType() == boolean.class ? false : null);
+                        case "close":
+                            closed[0] = true;
+                            return null;
+                        case "isClosed":
+                            return closed[0];
+                        case "getAutoCommit":
+                            return true;
+                        default:
+                            return method.getReturnType() == boolean.class ? false : null;
+                    }
+                });
+    }
+}
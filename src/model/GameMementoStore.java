@@ -1,54 +1,197 @@
 package model;
 
 import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
 
 /**
- * Caretaker (GoF Memento) for {@link GameMemento}. Reads and writes a
- * single save slot at {@code ~/MindWars/saves/slot.mwsave} as
- * pretty-printed JSON.
+ * Caretaker (GoF Memento) for {@link GameMemento}. Keeps any number of
+ * named save slots in a {@link SlotStorage} (the {@code saved_games} table
+ * in the app).
+ *
+ * <p>
+ * Each slot stores a small {@link SlotInfo} header next to the encoded
+ * state, so {@link #list()} shows the saves without decoding a single
+ * game. States are compact JSON, deflated, behind a 5-byte format tag
+ * ({@link #encode}) — a fraction of the old pretty-printed file.
+ *
+ * <p>
+ * A save left by older versions in {@code ~/MindWars/saves/slot.mwsave}
+ * is imported once as a slot named {@value #LEGACY_SLOT_NAME}.
+ *
+ * <p>
+ * Listing, saving, loading and deleting all query the storage, so views
+ * run them in a background task, never on the EDT.
  */
 public final class GameMementoStore {
 
-    private static final Path SAVE_DIR = Paths.get(System.getProperty("user.home"), "MindWars", "saves");
-    private static final Path SLOT_PATH = SAVE_DIR.resolve("slot.mwsave");
+    /** Slot name given to the imported single-slot save. */
+    public static final String LEGACY_SLOT_NAME = "Saved game";
 
-    private static final Gson GSON = new GsonBuilder()
-            .setPrettyPrinting()
-            .create();
+    private static final Path LEGACY_SLOT = Paths.get(System.getProperty("user.home"), "MindWars", "saves",
+            "slot.mwsave");
+    private static final byte[] MAGIC = { 'M', 'W', 'S', 'V' };
+    /** Format tag after the magic: deflated compact JSON. */
+    private static final byte FORMAT_DEFLATED_JSON = 1;
 
-    public boolean hasSave() {
-        return Files.exists(SLOT_PATH);
+    private static final Gson GSON = new Gson();
+
+    /** What the load screen shows for one slot; stored beside the state. */
+    public static final class SlotInfo {
+        public final String name;
+        public final String savedAt;
+        /** Player names, "A vs B". */
+        public final String players;
+        /** 1-based round the game resumes in. */
+        public final int round;
+        public final int mapSize;
+        /** "hot-seat" or "vs-bot". */
+        public final String gameMode;
+
+        public SlotInfo(String name, String savedAt, String players, int round, int mapSize, String gameMode) {
+            this.name = name;
+            this.savedAt = savedAt;
+            this.players = players;
+            this.round = round;
+            this.mapSize = mapSize;
+            this.gameMode = gameMode;
+        }
+
+        static SlotInfo of(String name, GameMemento m) {
+            StringBuilder names = new StringBuilder();
+            for (GameMemento.PlayerSnap p : m.players) {
+                if (names.length() > 0)
+                    names.append(" vs ");
+                names.append(p.name);
+            }
+            String mode = m.settings != null && m.settings.vsBot ? "vs-bot" : "hot-seat";
+            return new SlotInfo(name, m.savedAt, names.toString(), m.roundIndex + 1, m.mapSize, mode);
+        }
+    }
+
+    /** Where slots live. Saving under an existing name replaces that slot. */
+    public interface SlotStorage {
+        /** Every slot's header, most recently saved first. Must not read the states. */
+        List<SlotInfo> list() throws IOException;
+
+        void put(SlotInfo header, byte[] state) throws IOException;
+
+        /** The encoded state, or {@code null} if there is no such slot. */
+        byte[] get(String name) throws IOException;
+
+        /** Returns {@code false} if there was no such slot. */
+        boolean delete(String name) throws IOException;
+    }
+
+    private final SlotStorage storage;
+    private final Path legacySlot;
+    private boolean legacyChecked;
+
+    public GameMementoStore(SlotStorage storage) {
+        this(storage, LEGACY_SLOT);
+    }
+
+    /** Store over {@code storage} that imports {@code legacySlot} if present ({@code null}: never). */
+    public GameMementoStore(SlotStorage storage, Path legacySlot) {
+        this.storage = storage;
+        this.legacySlot = legacySlot;
     }
 
-    public void save(GameMemento m) throws IOException {
-        Files.createDirectories(SAVE_DIR);
-        Files.writeString(SLOT_PATH, GSON.toJson(m), StandardCharsets.UTF_8);
+    /** Slot headers, most recently saved first. */
+    public List<SlotInfo> list() throws IOException {
+        importLegacySlot();
+        return storage.list();
     }
 
-    /** Returns the saved memento, or {@code null} if no save exists. */
-    public GameMemento load() throws IOException {
-        if (!hasSave())
-            return null;
-        String json = Files.readString(SLOT_PATH, StandardCharsets.UTF_8);
-        GameMemento m = GSON.fromJson(json, GameMemento.class);
+    /** Saves {@code m} under {@code name}, replacing any slot of that name. */
+    public void save(String name, GameMemento m) throws IOException {
+        if (name == null || name.isBlank())
+            throw new IOException("A save needs a name.");
+        storage.put(SlotInfo.of(name.strip(), m), encode(m));
+    }
+
+    /** Returns the memento saved as {@code name}, or {@code null} if there is none. */
+    public GameMemento load(String name) throws IOException {
+        importLegacySlot();
+        byte[] state = storage.get(name);
+        return state == null ? null : decode(state);
+    }
+
+    public void delete(String name) throws IOException {
+        storage.delete(name);
+    }
+
+    // ── Encoding ──
+
+    /** {@code "MWSV"}, a format byte, then the memento as deflated compact JSON. */
+    public static byte[] encode(GameMemento m) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(4096);
+        bytes.write(MAGIC);
+        bytes.write(FORMAT_DEFLATED_JSON);
+        try (Writer out = new OutputStreamWriter(new DeflaterOutputStream(bytes), StandardCharsets.UTF_8)) {
+            GSON.toJson(m, out);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static GameMemento decode(byte[] state) throws IOException {
+        if (state.length <= MAGIC.length || !Arrays.equals(state, 0, MAGIC.length, MAGIC, 0, MAGIC.length)
+                || state[MAGIC.length] != FORMAT_DEFLATED_JSON) {
+            throw new IOException("Save data is not in a known format.");
+        }
+        GameMemento m;
+        try (Reader in = new InputStreamReader(new InflaterInputStream(
+                new ByteArrayInputStream(state, MAGIC.length + 1, state.length - MAGIC.length - 1)),
+                StandardCharsets.UTF_8)) {
+            m = GSON.fromJson(in, GameMemento.class);
+        } catch (JsonParseException ex) {
+            throw new IOException("Save data is corrupt.", ex);
+        }
         if (m == null || m.version != GameMemento.CURRENT_VERSION) {
             throw new IOException("Save file is from an incompatible version.");
         }
         return m;
     }
 
-    public void delete() throws IOException {
-        Files.deleteIfExists(SLOT_PATH);
-    }
+    // ── Legacy single slot ──
 
-    public Path getSlotPath() {
-        return SLOT_PATH;
+    /**
+     * Moves the old {@code slot.mwsave} into storage the first time it is
+     * needed, then renames the file so it is not imported again.
+     */
+    private synchronized void importLegacySlot() throws IOException {
+        if (legacyChecked)
+            return;
+        if (legacySlot == null || !Files.exists(legacySlot)) {
+            legacyChecked = true;
+            return;
+        }
+        GameMemento m;
+        try {
+            m = GSON.fromJson(Files.readString(legacySlot, StandardCharsets.UTF_8), GameMemento.class);
+        } catch (JsonParseException ex) {
+            m = null;
+        }
+        if (m != null && m.version == GameMemento.CURRENT_VERSION && storage.get(LEGACY_SLOT_NAME) == null)
+            save(LEGACY_SLOT_NAME, m);
+        Files.move(legacySlot, legacySlot.resolveSibling(legacySlot.getFileName() + ".imported"),
+                StandardCopyOption.REPLACE_EXISTING);
+        legacyChecked = true;
     }
 }
@@ -3,6 +3,7 @@ package model;
 import bot.EasyBot;
 import bot.HardBot;
 import bot.MediumBot;
+import bot.MonteCarloBot;
 import game.GameState;
 import game.MapGrid;
 import game.WinnerCalculator;
@@ -10,6 +11,7 @@ import player.Player;
 import trivia.AnswerValidator;
 import trivia.Question;
 import trivia.QuestionBank;
+import trivia.QuestionDeck;
 
 import java.beans.PropertyChangeListener;
 import java.beans.PropertyChangeSupport;
@@ -50,6 +52,8 @@ public class GameModel {
     private static final int POINTS_HARD = 30;
 
     private final QuestionBank questionBank;
+    /** This game's draw order over the shared bank; fresh per startGame. */
+    private QuestionDeck questionDeck;
     private final PropertyChangeSupport pcs = new PropertyChangeSupport(this);
     private final Random random = new Random();
 
@@ -219,6 +223,7 @@ public class GameModel {
             bot.BotStrategy strategy = switch (diff) {
                 case "Medium" -> new MediumBot();
                 case "Hard" -> new HardBot();
+                case "Expert" -> new MonteCarloBot();
                 default -> new EasyBot();
             };
             players.get(1).setStrategy(strategy);
@@ -234,6 +239,7 @@ public class GameModel {
         this.numericGuesses = new double[players.size()];
         Arrays.fill(this.numericGuesses, Double.NaN);
 
+        this.questionDeck = questionBank.newDeck();
         loadQuestions();
         setPhase(GamePhase.HOT_SEAT_PASS);
     }
@@ -500,6 +506,13 @@ public class GameModel {
         return mapSize;
     }
 
+    private QuestionDeck deck() {
+        if (questionDeck == null) {
+            questionDeck = questionBank.newDeck();
+        }
+        return questionDeck;
+    }
+
     private Question pickQuestion() {
         if (settings == null) {
             return null;
@@ -516,14 +529,14 @@ public class GameModel {
                     continue;
                 }
                 String diff = diffs.get(random.nextInt(diffs.size()));
-                Question q = questionBank.getQuestion(cat, diff);
+                Question q = deck().draw(cat, diff);
                 if (q != null) {
                     return q;
                 }
             }
             return null;
         }
-        return questionBank.getQuestion(settings.category, settings.difficulty);
+        return deck().draw(settings.category, settings.difficulty);
     }
 
     private void ensureQuestionForRound(int index) {
@@ -552,13 +565,33 @@ public class GameModel {
         this.attackFromCol = c;
     }
 
-    public void setAttackTarget(int r, int c) {
+    /**
+     * Whether the invader may attack this cell: it must belong to someone
+     * else and border the invader's land, and if an attacking cell has
+     * been chosen, be next to that cell.
+     */
+    public boolean isValidAttackTarget(int r, int c) {
+        char sym = getInvader().getSymbol();
+        if (!map.isBorderTarget(sym, r, c))
+            return false;
+        if (attackFromRow < 0)
+            return true;
+        return map.getOwner(attackFromRow, attackFromCol) == sym
+                && map.isAdjacent(attackFromRow, attackFromCol, r, c);
+    }
+
+    /**
+     * Locks in the invasion target and starts the battle; returns
+     * {@code false} and stays in selection if the cell is not a legal
+     * target (see {@link #isValidAttackTarget}).
+     */
+    public boolean setAttackTarget(int r, int c) {
+        if (!isValidAttackTarget(r, c))
+            return false;
         this.attackToRow = r;
         this.attackToCol = c;
-        // Reuse round question pool: pop a fresh one.
-        Question q = questionBank.getAllQuestionsAsList().isEmpty()
-                ? null
-                : questionBank.getAllQuestionsAsList().get(0);
+        // Any question from the bank will do for the battle.
+        Question q = deck().drawAny();
         if (q != null) {
             // Shove the battle question into slot roundIndex so views reading
             // getCurrentQuestion() work uniformly.
@@ -570,6 +603,7 @@ public class GameModel {
         }
         questionStartMs = System.currentTimeMillis();
         setPhase(GamePhase.INVASION_BATTLE);
+        return true;
     }
 
     public Player getInvader() {
@@ -719,6 +753,7 @@ public class GameModel {
                 bot.BotStrategy strat = switch (s.botDifficulty) {
                     case "Medium" -> new MediumBot();
                     case "Hard" -> new HardBot();
+                    case "Expert" -> new MonteCarloBot();
                     default -> new EasyBot();
                 };
                 p.setStrategy(strat);
@@ -766,6 +801,7 @@ public class GameModel {
             bot.BotStrategy strategy = switch (difficulty) {
                 case "Medium" -> new bot.MediumBot();
                 case "Hard" -> new bot.HardBot();
+                case "Expert" -> new bot.MonteCarloBot();
                 default -> new bot.EasyBot();
             };
             players.get(1).setStrategy(strategy);
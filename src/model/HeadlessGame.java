@@ -0,0 +1,161 @@
+package model;
+
+import bot.BotStrategy;
+import game.MapGrid;
+import player.Player;
+import trivia.Question;
+import trivia.QuestionBank;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Plays one complete {@link GameModel} game with every seat driven by a
+ * {@link BotStrategy}, without views, Swing timers or sleeps. A bot's
+ * {@link BotStrategy#getResponseTime()} is reported as its answer time
+ * instead of being waited out, so a game takes as long as the bots need to
+ * think. Claims follow the same order as a network room (round winner
+ * first, then the others in seat order).
+ *
+ * <p>
+ * The model itself ends the game once the map is full. With
+ * {@code invasion} set, each player then gets one invasion attempt, the
+ * same way {@link GameModel#resolveInvasion} walks through invaders.
+ * </p>
+ */
+public final class HeadlessGame {
+
+    /** Guards against a model that never reaches GAME_OVER. */
+    private static final int MAX_STEPS = 1_000_000;
+
+    private HeadlessGame() {
+    }
+
+    /** Final standings of one game; arrays are indexed by seat. */
+    public static final class Result {
+        public final int[] scores;
+        public final int[] territory;
+        /** Winning seat, or -1 for a tie. */
+        public final int winner;
+        public final int rounds;
+
+        Result(int[] scores, int[] territory, int winner, int rounds) {
+            this.scores = scores;
+            this.territory = territory;
+            this.winner = winner;
+            this.rounds = rounds;
+        }
+    }
+
+    /**
+     * Plays a random-mode game on a {@code mapSize} map with one seat per
+     * strategy (2 to 4). Throws
+     * {@link GameModel.NotEnoughQuestionsException} if the bank is too small.
+     */
+    public static Result play(QuestionBank bank, int mapSize, List<BotStrategy> seats, boolean invasion,
+            Random rng) {
+        GameModel model = new GameModel(bank);
+        model.startGame(new GameSettings(mapSize, false, "Bot 1", "Bot 2", "Bot 3", "Bot 4",
+                true, null, null, seats.size(), null));
+        List<Player> players = model.getPlayers();
+        char[] symbols = new char[players.size()];
+        for (int i = 0; i < symbols.length; i++) {
+            players.get(i).setStrategy(seats.get(i));
+            symbols[i] = players.get(i).getSymbol();
+        }
+
+        boolean invaded = !invasion;
+        for (int step = 0;; step++) {
+            if (step == MAX_STEPS)
+                throw new IllegalStateException("game did not finish, stuck in " + model.getPhase());
+            switch (model.getPhase()) {
+                case HOT_SEAT_PASS -> model.beginQuestion();
+                case QUESTION -> answer(model);
+                case TERRITORY_CLAIM -> {
+                    claimRound(model, symbols, rng);
+                    model.finishRound();
+                }
+                case INVASION_PASS -> model.beginInvasionSelect();
+                case INVASION_SELECT -> selectInvasion(model, symbols);
+                case INVASION_BATTLE -> {
+                    Question q = model.getCurrentQuestion();
+                    model.resolveInvasion(
+                            model.getInvader().getStrategy().getAnswer(q),
+                            model.getDefender().getStrategy().getAnswer(q));
+                }
+                case GAME_OVER -> {
+                    if (invaded)
+                        return result(model);
+                    invaded = true;
+                    model.setInvaderIndex(0);
+                    model.forcePhase(GamePhase.INVASION_PASS);
+                }
+                default -> model.forcePhase(GamePhase.GAME_OVER);
+            }
+        }
+    }
+
+    private static void answer(GameModel model) {
+        Question q = model.getCurrentQuestion();
+        if (q == null) {
+            model.forcePhase(GamePhase.GAME_OVER); // ran out of questions
+            return;
+        }
+        BotStrategy bot = model.getCurrentPlayer().getStrategy();
+        long elapsed = Math.max(1, Math.min(bot.getResponseTime(), GameModel.TIME_LIMIT_MS));
+        model.submitAnswer(bot.getAnswer(q), elapsed);
+        model.advanceAfterAnswer();
+    }
+
+    private static void claimRound(GameModel model, char[] symbols, Random rng) {
+        int[] claims = model.roundClaimCounts();
+        int winner = model.determineRoundWinnerIndex();
+        MapGrid map = model.getMap();
+        for (int k = -1; k < claims.length; k++) {
+            int seat = k < 0 ? winner : k;
+            if (k == winner)
+                continue;
+            for (int i = 0; i < claims[seat] && !map.isMapFull(); i++) {
+                int cell = model.getPlayers().get(seat).getStrategy().chooseClaim(map, symbols[seat], symbols);
+                if (cell < 0 || !map.isFree(cell / map.getSize(), cell % map.getSize()))
+                    cell = map.randomFreeCell(rng);
+                model.claimCell(seat, cell / map.getSize(), cell % map.getSize());
+            }
+        }
+    }
+
+    private static void selectInvasion(GameModel model, char[] symbols) {
+        Player invader = model.getInvader();
+        MapGrid map = model.getMap();
+        int[][] move = invader.getStrategy().chooseInvasion(map, invader.getSymbol(), symbols);
+        if (move == null) {
+            for (char enemy : map.getVisibleEnemySymbols(invader.getSymbol())) {
+                move = map.firstInvasion(invader.getSymbol(), enemy);
+                if (move != null)
+                    break;
+            }
+        }
+        if (move != null) {
+            model.setAttackFrom(move[0][0], move[0][1]);
+            if (model.setAttackTarget(move[1][0], move[1][1]))
+                return;
+        }
+        // No legal attack: this invader passes.
+        int next = model.getInvaderIndex() + 1;
+        model.setInvaderIndex(next);
+        model.forcePhase(next >= symbols.length ? GamePhase.GAME_OVER : GamePhase.INVASION_PASS);
+    }
+
+    private static Result result(GameModel model) {
+        List<Player> players = model.getPlayers();
+        int[] scores = new int[players.size()];
+        int[] territory = new int[players.size()];
+        for (int i = 0; i < scores.length; i++) {
+            scores[i] = players.get(i).getScore();
+            territory[i] = model.getMap().countTerritory(players.get(i).getSymbol());
+        }
+        Player winner = model.computeWinner();
+        return new Result(scores, territory, winner == null ? -1 : players.indexOf(winner),
+                model.getRoundNumber());
+    }
+}
@@ -39,6 +39,15 @@ public class LeaderboardEntry implements Comparable<LeaderboardEntry> {
         this.name = name;
     }
 
+    /** An independent copy, for writing a snapshot while play goes on. */
+    LeaderboardEntry copy() {
+        LeaderboardEntry c = new LeaderboardEntry(name);
+        c.wins = wins;
+        c.totalScore = totalScore;
+        c.gamesPlayed = gamesPlayed;
+        return c;
+    }
+
     public void recordGame(int scoreGained, boolean won) {
         this.gamesPlayed++;
         this.totalScore += scoreGained;
@@ -0,0 +1,176 @@
+package model;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Append-only log of finished games behind {@link LeaderboardStore}. Each
+ * line is one compact JSON {@link Event}: a sequence number and every
+ * player's result from that game, so a game is replayed whole or not at
+ * all. Appends reach the OS immediately; {@link #force()} makes them
+ * durable and is batched by the store.
+ *
+ * <p>
+ * Compaction {@link #rotate() rotates} the live file to {@code <name>.1}
+ * and starts a new one; once the snapshot covering it is on disk the store
+ * {@link #deleteRotated() deletes} it. Replay skips events the snapshot
+ * already counts, so a crash at any step neither loses nor repeats a game.
+ * </p>
+ */
+final class LeaderboardJournal {
+
+    private static final Gson GSON = new Gson();
+
+    /** One player's part of a game. */
+    static final class Result {
+        String name;
+        int score;
+        boolean won;
+
+        Result(String name, int score, boolean won) {
+            this.name = name;
+            this.score = score;
+            this.won = won;
+        }
+    }
+
+    /** One finished game. */
+    static final class Event {
+        long seq;
+        List<Result> results;
+    }
+
+    private final Path file;
+    private final Path rotated;
+    private FileChannel channel;
+    private long lastSeq;
+
+    LeaderboardJournal(Path file) {
+        this.file = file;
+        this.rotated = file.resolveSibling(file.getFileName() + ".1");
+    }
+
+    /** Events after {@code afterSeq}, oldest first, from the rotated file and then the live one. */
+    synchronized List<Event> readAfter(long afterSeq) {
+        List<Event> events = new ArrayList<>();
+        long seen = afterSeq;
+        for (Path p : new Path[] { rotated, file }) {
+            if (!Files.exists(p))
+                continue;
+            try (BufferedReader in = Files.newBufferedReader(p, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = in.readLine()) != null) {
+                    Event e = parse(line);
+                    // Torn or duplicate lines (a crash mid-append or mid-rotation) are skipped.
+                    if (e != null && e.seq > seen) {
+                        events.add(e);
+                        seen = e.seq;
+                    }
+                }
+            } catch (IOException ex) {
+                // Unreadable segment — keep what was read so far.
+            }
+        }
+        lastSeq = Math.max(lastSeq, seen);
+        return events;
+    }
+
+    /** Writes one game to the log and returns its sequence number. Not yet durable. */
+    synchronized long append(List<Result> results) throws IOException {
+        Event e = new Event();
+        e.seq = lastSeq + 1;
+        e.results = results;
+        byte[] line = (GSON.toJson(e) + "\n").getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buf = ByteBuffer.wrap(line);
+        FileChannel ch = channel();
+        while (buf.hasRemaining())
+            ch.write(buf);
+        lastSeq = e.seq;
+        return e.seq;
+    }
+
+    /** Flushes appended events to the disk. */
+    synchronized void force() throws IOException {
+        if (channel != null)
+            channel.force(false);
+    }
+
+    synchronized long lastSeq() {
+        return lastSeq;
+    }
+
+    /**
+     * Makes the live file durable and moves it aside, so new games start a
+     * fresh file. Does nothing if an earlier rotated file is still waiting
+     * for its snapshot; replay filters the overlap by sequence number.
+     */
+    synchronized void rotate() throws IOException {
+        close();
+        if (!Files.exists(rotated) && Files.exists(file))
+            Files.move(file, rotated, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /** Drops the rotated file once a snapshot covers it. */
+    void deleteRotated() throws IOException {
+        Files.deleteIfExists(rotated);
+    }
+
+    synchronized void close() throws IOException {
+        if (channel != null) {
+            try {
+                channel.force(false);
+            } finally {
+                channel.close();
+                channel = null;
+            }
+        }
+    }
+
+    private FileChannel channel() throws IOException {
+        if (channel == null) {
+            boolean torn = endsMidLine();
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND);
+            // A crash can leave half a line; end it so the next event starts clean.
+            if (torn)
+                channel.write(ByteBuffer.wrap(new byte[] { '\n' }));
+        }
+        return channel;
+    }
+
+    private boolean endsMidLine() throws IOException {
+        if (!Files.exists(file))
+            return false;
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = in.size();
+            if (size == 0)
+                return false;
+            ByteBuffer last = ByteBuffer.allocate(1);
+            in.read(last, size - 1);
+            return last.get(0) != '\n';
+        }
+    }
+
+    private static Event parse(String line) {
+        if (line.isBlank())
+            return null;
+        try {
+            Event e = GSON.fromJson(line, Event.class);
+            return e == null || e.results == null ? null : e;
+        } catch (JsonParseException ex) {
+            return null;
+        }
+    }
+}
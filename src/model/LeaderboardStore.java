@@ -2,27 +2,55 @@ package model;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
 import com.google.gson.reflect.TypeToken;
+import player.Player;
+import util.Tasks;
 
 import java.io.IOException;
+import java.io.Writer;
 import java.lang.reflect.Type;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
 
 /**
- * Persistent leaderboard storage (#89). Reads/writes a JSON file next to
- * the working directory and exposes {@link #recordResult(String, int, boolean)}
+ * Persistent leaderboard storage (#89). Keeps a JSON file next to the
+ * working directory and exposes {@link #recordResult(String, int, boolean)}
  * so the controller can log an end-of-game outcome.
  *
  * <p>
- * The on-disk format is a plain JSON array of {@link LeaderboardEntry}
- * objects — easy to inspect, simple to extend.
+ * A result is appended to a journal ({@code leaderboard.json.journal}, one
+ * line per game) rather than rewriting the file, so recording costs the
+ * same however many players are stored. Appends are fsynced in groups a
+ * moment later ({@code -Dmindwars.leaderboard.syncMs}, default 100), and
+ * the journal is folded into the JSON snapshot in the background
+ * ({@code -Dmindwars.leaderboard.compactMs}, default 30 s) by writing a temp
+ * file and renaming it over the old one. Opening the store reads the
+ * snapshot and replays the journal after it.
+ *
+ * <p>
+ * The snapshot is a JSON object holding the journal position it covers and
+ * the {@link LeaderboardEntry} array — easy to inspect, simple to extend.
+ * Files holding just the array (the old format) still load.
+ *
+ * <p>
+ * Entries are also kept in rank order: recording a result moves just that
+ * player's entry, so {@link #getTop(int)} costs only the rows it returns.
  */
 public class LeaderboardStore {
 
@@ -31,8 +59,21 @@ public class LeaderboardStore {
     private static final Type LIST_TYPE = new TypeToken<List<LeaderboardEntry>>() {
     }.getType();
 
+    /** How long appends wait to share one fsync. */
+    static final long SYNC_DELAY_MS = Long.getLong("mindwars.leaderboard.syncMs", 100L);
+    /** How long after the first new game the journal is compacted. */
+    static final long COMPACT_DELAY_MS = Long.getLong("mindwars.leaderboard.compactMs", 30_000L);
+
     private final Path file;
+    private final LeaderboardJournal journal;
     private final Map<String, LeaderboardEntry> entries = new HashMap<>();
+    /** The same entries, best first; names break ties so none collapse. */
+    private final NavigableSet<LeaderboardEntry> ranking = new TreeSet<>(
+            Comparator.<LeaderboardEntry>naturalOrder().thenComparing(LeaderboardEntry::getName));
+    /** Held for a whole compaction, so two never interleave. */
+    private final Object compactLock = new Object();
+    private boolean syncScheduled;
+    private boolean compactScheduled;
 
     public LeaderboardStore() {
         this(DEFAULT_FILE);
@@ -40,22 +81,37 @@ public class LeaderboardStore {
 
     public LeaderboardStore(Path file) {
         this.file = file;
+        this.journal = new LeaderboardJournal(file.resolveSibling(file.getFileName() + ".journal"));
         load();
     }
 
-    /** Re-reads the JSON file from disk, discarding any in-memory state. */
-    public void reload() {
+    /** Re-reads the snapshot and journal from disk, discarding any in-memory state. */
+    public synchronized void reload() {
         entries.clear();
+        ranking.clear();
         load();
     }
 
     /** Returns a snapshot of all entries, sorted best first. */
-    public List<LeaderboardEntry> getEntries() {
-        List<LeaderboardEntry> list = new ArrayList<>(entries.values());
-        Collections.sort(list);
+    public synchronized List<LeaderboardEntry> getEntries() {
+        return new ArrayList<>(ranking);
+    }
+
+    /** The best {@code limit} entries, best first. */
+    public synchronized List<LeaderboardEntry> getTop(int limit) {
+        List<LeaderboardEntry> list = new ArrayList<>(Math.min(limit, ranking.size()));
+        for (LeaderboardEntry e : ranking) {
+            if (list.size() == limit)
+                break;
+            list.add(e);
+        }
         return list;
     }
 
+    public synchronized int size() {
+        return entries.size();
+    }
+
     /**
      * Records one player's result from a finished game. {@code scoreGained}
      * is the total points they earned in that game; {@code won} is whether
@@ -64,38 +120,172 @@ public class LeaderboardStore {
     public void recordResult(String playerName, int scoreGained, boolean won) {
         if (playerName == null || playerName.isBlank())
             return;
-        LeaderboardEntry e = entries.computeIfAbsent(playerName, LeaderboardEntry::new);
-        e.recordGame(scoreGained, won);
-        save();
+        append(List.of(new LeaderboardJournal.Result(playerName, scoreGained, won)));
+    }
+
+    /**
+     * Records every player's result from one finished game as a single
+     * journal entry, so the game is kept or lost whole. {@code winner} is
+     * {@code null} for a draw.
+     */
+    public void recordGame(List<Player> players, Player winner) {
+        List<LeaderboardJournal.Result> results = new ArrayList<>(players.size());
+        for (Player p : players) {
+            if (p.getName() == null || p.getName().isBlank())
+                continue;
+            results.add(new LeaderboardJournal.Result(p.getName(), p.getScore(), p == winner));
+        }
+        if (!results.isEmpty())
+            append(results);
+    }
+
+    /**
+     * Makes every recorded game durable, folds the journal into the snapshot,
+     * and releases the journal file. Later results reopen it.
+     */
+    public void flush() {
+        compact();
+        try {
+            journal.close();
+        } catch (IOException ex) {
+            // Non-fatal: leaderboard persistence is best-effort.
+        }
+    }
+
+    private synchronized void append(List<LeaderboardJournal.Result> results) {
+        for (LeaderboardJournal.Result r : results)
+            apply(r);
+        try {
+            journal.append(results);
+        } catch (IOException ex) {
+            // Non-fatal: leaderboard persistence is best-effort.
+            return;
+        }
+        if (!syncScheduled) {
+            syncScheduled = true;
+            Tasks.runAfter("MindWars-LeaderboardSync", SYNC_DELAY_MS, this::sync);
+        }
+        if (!compactScheduled) {
+            compactScheduled = true;
+            Tasks.runAfter("MindWars-LeaderboardCompact", COMPACT_DELAY_MS, this::compact);
+        }
+    }
+
+    /** Updates one player's entry and moves it to its new rank. */
+    private void apply(LeaderboardJournal.Result r) {
+        LeaderboardEntry e = entries.get(r.name);
+        if (e == null) {
+            e = new LeaderboardEntry(r.name);
+            entries.put(r.name, e);
+        } else {
+            ranking.remove(e);
+        }
+        e.recordGame(r.score, r.won);
+        ranking.add(e);
+    }
+
+    private void put(LeaderboardEntry e) {
+        LeaderboardEntry old = entries.put(e.getName(), e);
+        if (old != null)
+            ranking.remove(old);
+        ranking.add(e);
     }
 
     // ── Persistence ──
 
     private void load() {
+        long seq = readSnapshot();
+        for (LeaderboardJournal.Event ev : journal.readAfter(seq)) {
+            for (LeaderboardJournal.Result r : ev.results) {
+                if (r != null && r.name != null && !r.name.isBlank())
+                    apply(r);
+            }
+        }
+    }
+
+    /** Loads the snapshot and returns the last journal sequence it covers. */
+    private long readSnapshot() {
         if (!Files.exists(file))
-            return;
+            return 0;
         try {
-            String json = Files.readString(file);
-            List<LeaderboardEntry> list = GSON.fromJson(json, LIST_TYPE);
-            if (list != null) {
-                for (LeaderboardEntry e : list) {
-                    if (e != null && e.getName() != null) {
-                        entries.put(e.getName(), e);
-                    }
+            JsonElement root = JsonParser.parseString(Files.readString(file));
+            long seq = 0;
+            JsonElement list = root;
+            if (root != null && root.isJsonObject()) {
+                JsonObject obj = root.getAsJsonObject();
+                seq = obj.has("journalSeq") ? obj.get("journalSeq").getAsLong() : 0;
+                list = obj.get("entries");
+            }
+            List<LeaderboardEntry> loaded = list == null || list.isJsonNull() ? null : GSON.fromJson(list, LIST_TYPE);
+            if (loaded != null) {
+                for (LeaderboardEntry e : loaded) {
+                    if (e != null && e.getName() != null)
+                        put(e);
                 }
             }
-        } catch (IOException | com.google.gson.JsonSyntaxException ex) {
+            return seq;
+        } catch (IOException | RuntimeException ex) {
             // Corrupt or unreadable file — start fresh rather than crashing.
             entries.clear();
+            ranking.clear();
+            return 0;
         }
     }
 
-    private void save() {
+    /** One fsync for everything appended since the last one. */
+    private void sync() {
+        synchronized (this) {
+            syncScheduled = false;
+        }
         try {
-            String json = GSON.toJson(getEntries(), LIST_TYPE);
-            Files.writeString(file, json);
+            journal.force();
         } catch (IOException ex) {
             // Non-fatal: leaderboard persistence is best-effort.
         }
     }
+
+    /**
+     * Writes the current entries as the new snapshot and drops the journal
+     * it covers. Only copying the entries and rotating the journal hold the
+     * store's lock; the snapshot is written while play goes on.
+     */
+    private void compact() {
+        synchronized (compactLock) {
+            List<LeaderboardEntry> copy = new ArrayList<>();
+            long seq;
+            synchronized (this) {
+                compactScheduled = false;
+                seq = journal.lastSeq();
+                for (LeaderboardEntry e : ranking)
+                    copy.add(e.copy());
+                try {
+                    journal.rotate();
+                } catch (IOException ex) {
+                    return;
+                }
+            }
+            try {
+                writeSnapshot(copy, seq);
+                journal.deleteRotated();
+            } catch (IOException ex) {
+                // Non-fatal: the journal still holds these games for the next try.
+            }
+        }
+    }
+
+    /** Writes a temp file, syncs it, and renames it over the snapshot. */
+    private void writeSnapshot(List<LeaderboardEntry> list, long seq) throws IOException {
+        JsonObject root = new JsonObject();
+        root.addProperty("journalSeq", seq);
+        root.add("entries", GSON.toJsonTree(list, LIST_TYPE));
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            Writer out = Channels.newWriter(ch, StandardCharsets.UTF_8);
+            GSON.toJson(root, out);
+            out.flush();
+            ch.force(true);
+        }
+        Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
 }
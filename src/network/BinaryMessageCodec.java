@@ -0,0 +1,379 @@
+package network;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact binary form of {@link NetworkMessage}. A message is one type byte
+ * (the {@link NetworkMessage.Type} ordinal) followed by tagged fields and a
+ * zero terminator. Only non-null fields are written, so a PHASE broadcast
+ * costs a handful of bytes instead of a JSON object with every key.
+ *
+ * <p>
+ * Each tag is {@code (fieldId << 3) | kind}. Numbers are zig-zag varints,
+ * strings are a varint byte length plus UTF-8, lists are a varint count
+ * plus their elements. The kind bits let a reader skip fields it does not
+ * know, so new fields can be added without breaking older peers. New
+ * {@link NetworkMessage.Type} constants must be appended, never inserted,
+ * because the type byte is the ordinal.
+ * </p>
+ *
+ * <p>
+ * On the wire every message is wrapped in a frame: a varint payload length
+ * followed by the payload (see {@link MessageCodec#frame}).
+ * </p>
+ */
+public final class BinaryMessageCodec {
+
+    private static final int KIND_NUMBER = 0;
+    private static final int KIND_BOOL = 1;
+    private static final int KIND_STRING = 2;
+    private static final int KIND_STRING_LIST = 3;
+    private static final int KIND_NUMBER_LIST = 4;
+
+    // Field ids. Never renumber; retire ids instead of reusing them.
+    private static final int F_TEXT = 1;
+    private static final int F_SENDER_INDEX = 2;
+    private static final int F_NAME = 3;
+    private static final int F_PLAYER_INDEX = 4;
+    private static final int F_ROOM_ID = 5;
+    private static final int F_CODEC = 6;
+    private static final int F_PHASE = 7;
+    private static final int F_CURRENT_PLAYER = 8;
+    private static final int F_ROUND = 9;
+    private static final int F_TOTAL_ROUNDS = 10;
+    private static final int F_QUESTION_TYPE = 11;
+    private static final int F_CATEGORY = 12;
+    private static final int F_DIFFICULTY = 13;
+    private static final int F_PROMPT = 14;
+    private static final int F_CHOICES = 15;
+    private static final int F_ANSWER = 16;
+    private static final int F_ELAPSED_MS = 17;
+    private static final int F_CORRECT = 18;
+    private static final int F_TIMED_OUT = 19;
+    private static final int F_POINTS_DELTA = 20;
+    private static final int F_CORRECT_ANSWER = 21;
+    private static final int F_SCORES = 22;
+    private static final int F_PLAYER_NAMES = 23;
+    private static final int F_CORRECT_ANSWERS = 24;
+    private static final int F_WRONG_ANSWERS = 25;
+    private static final int F_WINNER_INDEX = 26;
+    private static final int F_ERROR_MESSAGE = 27;
+    private static final int F_ROW = 28;
+    private static final int F_COL = 29;
+    private static final int F_GRID_SNAPSHOT = 30;
+    private static final int F_DISCONNECTED_NAME = 31;
+    private static final int F_DISCONNECTED_INDEX = 32;
+    private static final int F_MAP_SIZE = 33;
+    private static final int F_CLAIM_INSTRUCTION = 34;
+    private static final int F_CLAIMING_PLAYER = 35;
+    private static final int F_CLAIMS_LEFT = 36;
+    private static final int F_MAP_VERSION = 37;
+    private static final int F_CHANGED_CELLS = 38;
+
+    private static final NetworkMessage.Type[] TYPES = NetworkMessage.Type.values();
+
+    private BinaryMessageCodec() {
+    }
+
+    // ── Encoding ──
+
+    public static byte[] encode(NetworkMessage m) {
+        Writer w = new Writer();
+        w.write(m.type == null ? 0xFF : m.type.ordinal());
+        w.string(F_TEXT, m.text);
+        w.number(F_SENDER_INDEX, m.senderIndex);
+        w.string(F_NAME, m.name);
+        w.number(F_PLAYER_INDEX, m.playerIndex);
+        w.string(F_ROOM_ID, m.roomId);
+        w.string(F_CODEC, m.codec);
+        w.string(F_PHASE, m.phase);
+        w.number(F_CURRENT_PLAYER, m.currentPlayer);
+        w.number(F_ROUND, m.round);
+        w.number(F_TOTAL_ROUNDS, m.totalRounds);
+        w.string(F_QUESTION_TYPE, m.questionType);
+        w.string(F_CATEGORY, m.category);
+        w.string(F_DIFFICULTY, m.difficulty);
+        w.string(F_PROMPT, m.prompt);
+        w.strings(F_CHOICES, m.choices);
+        w.string(F_ANSWER, m.answer);
+        w.number(F_ELAPSED_MS, m.elapsedMs);
+        w.bool(F_CORRECT, m.correct);
+        w.bool(F_TIMED_OUT, m.timedOut);
+        w.number(F_POINTS_DELTA, m.pointsDelta);
+        w.string(F_CORRECT_ANSWER, m.correctAnswer);
+        w.numbers(F_SCORES, m.scores);
+        w.strings(F_PLAYER_NAMES, m.playerNames);
+        w.numbers(F_CORRECT_ANSWERS, m.correctAnswers);
+        w.numbers(F_WRONG_ANSWERS, m.wrongAnswers);
+        w.number(F_WINNER_INDEX, m.winnerIndex);
+        w.string(F_ERROR_MESSAGE, m.errorMessage);
+        w.number(F_ROW, m.row);
+        w.number(F_COL, m.col);
+        w.string(F_GRID_SNAPSHOT, m.gridSnapshot);
+        w.string(F_DISCONNECTED_NAME, m.disconnectedPlayerName);
+        w.number(F_DISCONNECTED_INDEX, m.disconnectedPlayerIndex);
+        w.number(F_MAP_SIZE, m.mapSize);
+        w.string(F_CLAIM_INSTRUCTION, m.claimInstruction);
+        w.number(F_CLAIMING_PLAYER, m.claimingPlayer);
+        w.number(F_CLAIMS_LEFT, m.claimsLeft);
+        w.number(F_MAP_VERSION, m.mapVersion);
+        w.numbers(F_CHANGED_CELLS, m.changedCells);
+        w.write(0);
+        return w.toByteArray();
+    }
+
+    // ── Decoding ──
+
+    /**
+     * Decodes one payload (without its length prefix). Throws
+     * {@link IllegalArgumentException} on truncated or malformed input.
+     */
+    public static NetworkMessage decode(byte[] buf, int off, int len) {
+        Reader r = new Reader(buf, off, off + len);
+        NetworkMessage m = new NetworkMessage();
+        int t = r.readByte();
+        m.type = t < TYPES.length ? TYPES[t] : null;
+        while (true) {
+            int tag = (int) r.varint();
+            if (tag == 0)
+                return m;
+            int kind = tag & 7;
+            switch (tag >>> 3) {
+                case F_TEXT -> m.text = r.string(kind);
+                case F_SENDER_INDEX -> m.senderIndex = r.integer(kind);
+                case F_NAME -> m.name = r.string(kind);
+                case F_PLAYER_INDEX -> m.playerIndex = r.integer(kind);
+                case F_ROOM_ID -> m.roomId = r.string(kind);
+                case F_CODEC -> m.codec = r.string(kind);
+                case F_PHASE -> m.phase = r.string(kind);
+                case F_CURRENT_PLAYER -> m.currentPlayer = r.integer(kind);
+                case F_ROUND -> m.round = r.integer(kind);
+                case F_TOTAL_ROUNDS -> m.totalRounds = r.integer(kind);
+                case F_QUESTION_TYPE -> m.questionType = r.string(kind);
+                case F_CATEGORY -> m.category = r.string(kind);
+                case F_DIFFICULTY -> m.difficulty = r.string(kind);
+                case F_PROMPT -> m.prompt = r.string(kind);
+                case F_CHOICES -> m.choices = r.strings(kind);
+                case F_ANSWER -> m.answer = r.string(kind);
+                case F_ELAPSED_MS -> m.elapsedMs = r.longValue(kind);
+                case F_CORRECT -> m.correct = r.bool(kind);
+                case F_TIMED_OUT -> m.timedOut = r.bool(kind);
+                case F_POINTS_DELTA -> m.pointsDelta = r.integer(kind);
+                case F_CORRECT_ANSWER -> m.correctAnswer = r.string(kind);
+                case F_SCORES -> m.scores = r.integers(kind);
+                case F_PLAYER_NAMES -> m.playerNames = r.strings(kind);
+                case F_CORRECT_ANSWERS -> m.correctAnswers = r.integers(kind);
+                case F_WRONG_ANSWERS -> m.wrongAnswers = r.integers(kind);
+                case F_WINNER_INDEX -> m.winnerIndex = r.integer(kind);
+                case F_ERROR_MESSAGE -> m.errorMessage = r.string(kind);
+                case F_ROW -> m.row = r.integer(kind);
+                case F_COL -> m.col = r.integer(kind);
+                case F_GRID_SNAPSHOT -> m.gridSnapshot = r.string(kind);
+                case F_DISCONNECTED_NAME -> m.disconnectedPlayerName = r.string(kind);
+                case F_DISCONNECTED_INDEX -> m.disconnectedPlayerIndex = r.integer(kind);
+                case F_MAP_SIZE -> m.mapSize = r.integer(kind);
+                case F_CLAIM_INSTRUCTION -> m.claimInstruction = r.string(kind);
+                case F_CLAIMING_PLAYER -> m.claimingPlayer = r.integer(kind);
+                case F_CLAIMS_LEFT -> m.claimsLeft = r.integer(kind);
+                case F_MAP_VERSION -> m.mapVersion = r.integer(kind);
+                case F_CHANGED_CELLS -> m.changedCells = r.integers(kind);
+                default -> r.skip(kind);
+            }
+        }
+    }
+
+    // ── Varints (shared with the frame layer) ──
+
+    /** Appends {@code value} as an unsigned LEB128 varint. */
+    static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    /**
+     * Reads a varint starting at {@code off}. Returns the value in the low
+     * 32 bits and the number of bytes consumed in the high 32 bits, or -1
+     * if {@code buf} ends before the varint does.
+     */
+    static long peekVarint(byte[] buf, int off, int end) {
+        long value = 0;
+        for (int shift = 0, i = off; i < end && shift < 35; shift += 7, i++) {
+            int b = buf[i];
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0)
+                return ((long) (i - off + 1) << 32) | (value & 0xFFFFFFFFL);
+        }
+        return -1;
+    }
+
+    private static final class Writer extends ByteArrayOutputStream {
+
+        Writer() {
+            super(64);
+        }
+
+        private void tag(int field, int kind) {
+            writeVarint(this, (field << 3) | kind);
+        }
+
+        private void zigzag(long v) {
+            writeVarint(this, (v << 1) ^ (v >> 63));
+        }
+
+        private void utf8(String s) {
+            byte[] b = s.getBytes(StandardCharsets.UTF_8);
+            writeVarint(this, b.length);
+            write(b, 0, b.length);
+        }
+
+        void number(int field, Number v) {
+            if (v == null)
+                return;
+            tag(field, KIND_NUMBER);
+            zigzag(v.longValue());
+        }
+
+        void bool(int field, Boolean v) {
+            if (v == null)
+                return;
+            tag(field, KIND_BOOL);
+            write(v ? 1 : 0);
+        }
+
+        void string(int field, String v) {
+            if (v == null)
+                return;
+            tag(field, KIND_STRING);
+            utf8(v);
+        }
+
+        void strings(int field, List<String> v) {
+            if (v == null)
+                return;
+            tag(field, KIND_STRING_LIST);
+            writeVarint(this, v.size());
+            for (String s : v)
+                utf8(s == null ? "" : s);
+        }
+
+        void numbers(int field, List<Integer> v) {
+            if (v == null)
+                return;
+            tag(field, KIND_NUMBER_LIST);
+            writeVarint(this, v.size());
+            for (Integer i : v)
+                zigzag(i == null ? 0 : i);
+        }
+    }
+
+    private static final class Reader {
+        private final byte[] buf;
+        private int pos;
+        private final int end;
+
+        Reader(byte[] buf, int pos, int end) {
+            this.buf = buf;
+            this.pos = pos;
+            this.end = end;
+        }
+
+        int readByte() {
+            if (pos >= end)
+                throw new IllegalArgumentException("truncated message");
+            return buf[pos++] & 0xFF;
+        }
+
+        long varint() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0)
+                    return value;
+            }
+            throw new IllegalArgumentException("varint too long");
+        }
+
+        private long zigzag() {
+            long v = varint();
+            return (v >>> 1) ^ -(v & 1);
+        }
+
+        private void expect(int kind, int expected) {
+            if (kind != expected)
+                throw new IllegalArgumentException("unexpected field kind " + kind);
+        }
+
+        private String utf8() {
+            int len = (int) varint();
+            if (len < 0 || len > end - pos)
+                throw new IllegalArgumentException("truncated string");
+            String s = new String(buf, pos, len, StandardCharsets.UTF_8);
+            pos += len;
+            return s;
+        }
+
+        Integer integer(int kind) {
+            expect(kind, KIND_NUMBER);
+            return (int) zigzag();
+        }
+
+        Long longValue(int kind) {
+            expect(kind, KIND_NUMBER);
+            return zigzag();
+        }
+
+        Boolean bool(int kind) {
+            expect(kind, KIND_BOOL);
+            return readByte() != 0;
+        }
+
+        String string(int kind) {
+            expect(kind, KIND_STRING);
+            return utf8();
+        }
+
+        List<String> strings(int kind) {
+            expect(kind, KIND_STRING_LIST);
+            int n = (int) varint();
+            List<String> list = new ArrayList<>(Math.min(n, 64));
+            for (int i = 0; i < n; i++)
+                list.add(utf8());
+            return list;
+        }
+
+        List<Integer> integers(int kind) {
+            expect(kind, KIND_NUMBER_LIST);
+            int n = (int) varint();
+            List<Integer> list = new ArrayList<>(Math.min(n, 64));
+            for (int i = 0; i < n; i++)
+                list.add((int) zigzag());
+            return list;
+        }
+
+        void skip(int kind) {
+            switch (kind) {
+                case KIND_NUMBER -> varint();
+                case KIND_BOOL -> readByte();
+                case KIND_STRING -> utf8();
+                case KIND_STRING_LIST -> {
+                    int n = (int) varint();
+                    for (int i = 0; i < n; i++)
+                        utf8();
+                }
+                case KIND_NUMBER_LIST -> {
+                    int n = (int) varint();
+                    for (int i = 0; i < n; i++)
+                        varint();
+                }
+                default -> throw new IllegalArgumentException("unknown field kind " + kind);
+            }
+        }
+    }
+}
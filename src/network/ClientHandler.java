@@ -0,0 +1,365 @@
+package network;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * One client connection on the {@link GameServer} selector loop. Owns the
+ * non-blocking channel, a read buffer with partial-frame reassembly and an
+ * outbound queue. Decoded messages are handed back to the server, which
+ * routes them to the {@link GameRoom} this connection has joined.
+ *
+ * <p>
+ * Outbound frames wait in a queue capped at {@link #MAX_QUEUED_BYTES}; the
+ * selector drains it whenever the socket is writable, so a stalled client
+ * only ever fills its own queue. What happens when it is full is up to the
+ * server's {@link GameServer.OverflowPolicy}.
+ * </p>
+ *
+ * <p>
+ * The connection speaks {@link MessageCodec.Format#JSON} until its
+ * {@code JOIN}; if that JOIN asks for binary, both directions switch
+ * before the JOIN is even dispatched, so the WELCOME already goes out in
+ * the negotiated format.
+ * </p>
+ */
+final class ClientHandler {
+
+    /** Size of the per-connection read buffer handed to the channel. */
+    private static final int READ_BUFFER_BYTES = 8 * 1024;
+
+    private final GameServer server;
+    private final SocketChannel channel;
+    private SelectionKey key;
+    private final ByteBuffer readBuffer = ByteBuffer.allocate(READ_BUFFER_BYTES);
+
+    /** Bytes read but not yet consumed as a whole frame. */
+    private byte[] pending = new byte[READ_BUFFER_BYTES];
+    private int pendingLen;
+
+    /**
+     * Most bytes that may wait in {@link #writeQueue} before the server's
+     * {@link GameServer.OverflowPolicy} kicks in.
+     */
+    static final int MAX_QUEUED_BYTES = 256 * 1024;
+
+    /** Most queued frames handed to one gathering write. */
+    private static final int MAX_GATHER = 64;
+
+    private final ArrayDeque<Outbound> writeQueue = new ArrayDeque<>();
+    private int queuedBytes;
+    private boolean closeAfterFlush;
+    private boolean disconnected;
+    private volatile boolean closed;
+
+    /** Room this connection joined, or {@code null} before its JOIN. */
+    volatile GameRoom room;
+    volatile int seatIndex = -1;
+    volatile String displayName = "";
+    volatile MessageCodec.Format format = MessageCodec.Format.JSON;
+
+    ClientHandler(GameServer server, SocketChannel channel) {
+        this.server = server;
+        this.channel = channel;
+    }
+
+    void attach(SelectionKey key) {
+        this.key = key;
+    }
+
+    void send(NetworkMessage msg) {
+        enqueue(MessageCodec.frame(msg, format), msg.type);
+    }
+
+    /**
+     * Queues an already-encoded frame for this client and asks the
+     * selector to wake up for a write. Safe to call from any thread; the
+     * same array may be queued on many connections. {@code type} is the
+     * message type inside the frame, used to coalesce on overflow.
+     * Returns {@code false} if the connection is closed or being dropped.
+     */
+    boolean enqueue(byte[] frame, NetworkMessage.Type type) {
+        return enqueueAll(List.of(frame), List.of(type));
+    }
+
+    /**
+     * Queues a run of frames in order, under one lock and with one wake-up;
+     * {@code types.get(i)} is the message type of {@code frames.get(i)}.
+     * Each frame keeps its own type, so the overflow policy still applies
+     * frame by frame. Returns {@code false} if the connection is closed or
+     * being dropped.
+     */
+    boolean enqueueAll(List<byte[]> frames, List<NetworkMessage.Type> types) {
+        if (closed)
+            return false;
+        boolean overflow = false;
+        synchronized (writeQueue) {
+            for (int i = 0; i < frames.size() && !overflow; i++) {
+                byte[] frame = frames.get(i);
+                NetworkMessage.Type type = types.get(i);
+                if (queuedBytes + frame.length <= MAX_QUEUED_BYTES) {
+                    writeQueue.add(new Outbound(frame, type));
+                    queuedBytes += frame.length;
+                } else {
+                    overflow = !onOverflow(frame, type);
+                }
+            }
+        }
+        if (overflow)
+            server.requestDisconnect(this);
+        else
+            requestWrite();
+        return !overflow;
+    }
+
+    /**
+     * Applies the server's overflow policy to a frame that does not fit.
+     * Returns {@code false} when the connection has to go. Caller holds
+     * the queue lock.
+     */
+    private boolean onOverflow(byte[] frame, NetworkMessage.Type type) {
+        switch (server.getOverflowPolicy()) {
+            case DROP:
+                // A lost MAP_UPDATE delta shows up as a version gap and the
+                // client resyncs, and a later SCORES/LOBBY/TURN supersedes a
+                // lost one. Losing a PHASE, QUESTION, RESULT or GAME_OVER
+                // would strand the client, so those disconnect instead.
+                return type != null && DROPPABLE.contains(type);
+            case COALESCE:
+                if (type == null || !COALESCIBLE.contains(type))
+                    return false;
+                // Every queued copy not yet on the wire is stale: drop them
+                // and queue the new one at the tail, so it still arrives
+                // after everything that was sent before it.
+                boolean removed = false;
+                Outbound head = writeQueue.peekFirst();
+                for (Iterator<Outbound> it = writeQueue.iterator(); it.hasNext();) {
+                    Outbound o = it.next();
+                    if (o.type != type || (o == head && o.buf.position() > 0))
+                        continue;
+                    it.remove();
+                    queuedBytes -= o.buf.limit();
+                    removed = true;
+                }
+                if (!removed || queuedBytes + frame.length > MAX_QUEUED_BYTES)
+                    return false;
+                writeQueue.add(new Outbound(frame, type));
+                queuedBytes += frame.length;
+                return true;
+            case DISCONNECT:
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Types whose latest copy makes every earlier one redundant, so a
+     * backlogged client can skip straight to it.
+     */
+    private static final Set<NetworkMessage.Type> COALESCIBLE = EnumSet.of(
+            NetworkMessage.Type.SCORES,
+            NetworkMessage.Type.LOBBY,
+            NetworkMessage.Type.TURN);
+
+    /** Types a client can lose without getting stuck: the coalescible ones, map deltas and chat. */
+    private static final Set<NetworkMessage.Type> DROPPABLE = EnumSet.of(
+            NetworkMessage.Type.SCORES,
+            NetworkMessage.Type.LOBBY,
+            NetworkMessage.Type.TURN,
+            NetworkMessage.Type.MAP_UPDATE,
+            NetworkMessage.Type.CHAT);
+
+    /** Types of the queued frames, oldest first. For tests. */
+    List<NetworkMessage.Type> queuedTypes() {
+        synchronized (writeQueue) {
+            List<NetworkMessage.Type> types = new ArrayList<>(writeQueue.size());
+            for (Outbound o : writeQueue)
+                types.add(o.type);
+            return types;
+        }
+    }
+
+    /** One queued frame. */
+    private static final class Outbound {
+        final ByteBuffer buf;
+        final NetworkMessage.Type type;
+
+        Outbound(byte[] frame, NetworkMessage.Type type) {
+            this.buf = ByteBuffer.wrap(frame);
+            this.type = type;
+        }
+    }
+
+    /** Flushes whatever is still queued, then closes the connection. */
+    void closeWhenFlushed() {
+        synchronized (writeQueue) {
+            closeAfterFlush = true;
+        }
+        requestWrite();
+    }
+
+    void close() {
+        closed = true;
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    private void requestWrite() {
+        SelectionKey k = key;
+        if (k == null)
+            return;
+        try {
+            k.interestOpsOr(SelectionKey.OP_WRITE);
+            k.selector().wakeup();
+        } catch (CancelledKeyException ignored) {
+            // Closed concurrently; nothing left to flush to.
+        }
+    }
+
+    void onReadable() {
+        int n;
+        try {
+            readBuffer.clear();
+            n = channel.read(readBuffer);
+        } catch (IOException e) {
+            n = -1;
+        }
+        if (n < 0) {
+            disconnect();
+            return;
+        }
+        readBuffer.flip();
+        append(readBuffer);
+
+        int start = 0;
+        while (!closed) {
+            int consumed = format == MessageCodec.Format.BINARY
+                    ? nextBinaryFrame(start)
+                    : nextJsonLine(start);
+            if (consumed <= 0)
+                break;
+            start += consumed;
+        }
+        if (closed)
+            return;
+        System.arraycopy(pending, start, pending, 0, pendingLen - start);
+        pendingLen -= start;
+        if (pendingLen > MessageCodec.MAX_FRAME_BYTES)
+            disconnect(); // a peer that never finishes a frame is dropped, not buffered forever
+    }
+
+    private void append(ByteBuffer src) {
+        int n = src.remaining();
+        if (pendingLen + n > pending.length)
+            pending = Arrays.copyOf(pending, Math.max(pending.length * 2, pendingLen + n));
+        src.get(pending, pendingLen, n);
+        pendingLen += n;
+    }
+
+    /** Consumes one newline-terminated JSON message; 0 if it is incomplete. */
+    private int nextJsonLine(int start) {
+        for (int i = start; i < pendingLen; i++) {
+            if (pending[i] != '\n')
+                continue;
+            String line = new String(pending, start, i - start, StandardCharsets.UTF_8);
+            NetworkMessage msg;
+            try {
+                msg = MessageCodec.decode(line);
+            } catch (RuntimeException e) {
+                msg = null;
+            }
+            deliver(msg);
+            return i - start + 1;
+        }
+        return 0;
+    }
+
+    /**
+     * Consumes one length-prefixed binary frame; 0 if it is incomplete and
+     * -1 if the connection was dropped for a malformed frame.
+     */
+    private int nextBinaryFrame(int start) {
+        long header = BinaryMessageCodec.peekVarint(pending, start, pendingLen);
+        if (header < 0) {
+            if (pendingLen - start >= 5)
+                disconnect();
+            return closed ? -1 : 0;
+        }
+        int prefix = (int) (header >>> 32);
+        int len = (int) header;
+        if (len < 0 || len > MessageCodec.MAX_FRAME_BYTES) {
+            disconnect();
+            return -1;
+        }
+        if (start + prefix + len > pendingLen)
+            return 0;
+        NetworkMessage msg;
+        try {
+            msg = BinaryMessageCodec.decode(pending, start + prefix, len);
+        } catch (RuntimeException e) {
+            msg = null;
+        }
+        deliver(msg);
+        return prefix + len;
+    }
+
+    private void deliver(NetworkMessage msg) {
+        if (msg == null || msg.type == null)
+            return;
+        if (msg.type == NetworkMessage.Type.JOIN && room == null)
+            format = MessageCodec.parseFormat(msg.codec);
+        server.dispatch(this, msg);
+    }
+
+    void onWritable() {
+        try {
+            synchronized (writeQueue) {
+                while (!writeQueue.isEmpty()) {
+                    // One gathering write for everything queued, so a
+                    // transition's frames still leave in a single syscall.
+                    ByteBuffer[] bufs = new ByteBuffer[Math.min(writeQueue.size(), MAX_GATHER)];
+                    Iterator<Outbound> it = writeQueue.iterator();
+                    for (int i = 0; i < bufs.length; i++)
+                        bufs[i] = it.next().buf;
+                    channel.write(bufs);
+                    while (!writeQueue.isEmpty() && !writeQueue.peek().buf.hasRemaining())
+                        queuedBytes -= writeQueue.poll().buf.limit();
+                    if (bufs[bufs.length - 1].hasRemaining())
+                        return; // socket buffer full, wait for the next OP_WRITE
+                }
+                if (closeAfterFlush) {
+                    disconnect();
+                    return;
+                }
+                key.interestOps(SelectionKey.OP_READ);
+            }
+        } catch (IOException | CancelledKeyException e) {
+            disconnect();
+        }
+    }
+
+    /**
+     * Closes the socket and lets the server release the seat. Runs at most
+     * once per connection.
+     */
+    void disconnect() {
+        close();
+        if (disconnected)
+            return;
+        disconnected = true;
+        server.onDisconnected(this);
+    }
+}
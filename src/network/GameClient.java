@@ -1,23 +1,33 @@
 package network;
 
-import java.io.BufferedReader;
+import util.Tasks;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.PrintWriter;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.InetSocketAddress;
 import java.net.Socket;
 import java.util.function.Consumer;
 
 /**
- * Thin TCP client that talks to a {@link GameServer} over newline-delimited
- * JSON (#87). It does not own any game state of its own — every authoritative
- * update arrives as a broadcast from the server and is dispatched to the
- * consumer registered via {@link #setListener(Consumer)}.
+ * Thin TCP client that talks to a {@link GameServer} (#87). It does not own
+ * any game state of its own — every authoritative update arrives as a
+ * broadcast from the server and is dispatched to the consumer registered
+ * via {@link #setListener(Consumer)}.
+ *
+ * <p>
+ * The {@code JOIN} always goes out as a JSON line naming the wire format
+ * this client wants ({@link MessageCodec#defaultFormat()} unless
+ * {@link #setWireFormat} says otherwise); every message after it, in both
+ * directions, uses that format.
+ * </p>
  *
  * <p>
  * Typical usage:
  * </p>
- * 
+ *
  * <pre>
  * GameClient c = new GameClient();
  * c.setListener(msg -&gt; ...);
@@ -29,10 +39,11 @@ import java.util.function.Consumer;
 public class GameClient {
 
     private Socket socket;
-    private BufferedReader in;
-    private PrintWriter out;
-    private Thread readerThread;
+    private InputStream in;
+    private OutputStream out;
     private volatile boolean running;
+    private MessageCodec.Format requestedFormat = MessageCodec.defaultFormat();
+    private volatile MessageCodec.Format format = MessageCodec.Format.JSON;
 
     private Consumer<NetworkMessage> listener = msg -> {
     };
@@ -42,6 +53,16 @@ public class GameClient {
         }) : listener;
     }
 
+    /** Chooses the wire format to negotiate; only effective before connecting. */
+    public void setWireFormat(MessageCodec.Format format) {
+        this.requestedFormat = format == null ? MessageCodec.Format.JSON : format;
+    }
+
+    /** Format in use on the current connection (JSON until JOIN is sent). */
+    public MessageCodec.Format getWireFormat() {
+        return format;
+    }
+
     public boolean isConnected() {
         return running && socket != null && !socket.isClosed();
     }
@@ -56,15 +77,31 @@ public class GameClient {
      * not hang the caller. Throws on failure so callers can surface it.
      */
     public void connect(String host, int port, String playerName) throws IOException {
+        connect(host, port, playerName, null);
+    }
+
+    /**
+     * Same as {@link #connect(String, int, String)} but asks a multi-room
+     * server to seat this client in {@code roomId} ({@code null} = the
+     * default room).
+     */
+    public void connect(String host, int port, String playerName, String roomId) throws IOException {
         this.socket = new Socket();
         this.socket.connect(new InetSocketAddress(host, port), CONNECT_TIMEOUT_MS);
-        this.in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
-        this.out = new PrintWriter(socket.getOutputStream(), true);
+        this.socket.setTcpNoDelay(true);
+        this.in = new BufferedInputStream(socket.getInputStream());
+        this.out = new BufferedOutputStream(socket.getOutputStream());
+        this.format = MessageCodec.Format.JSON;
         this.running = true;
-        this.readerThread = new Thread(this::readLoop, "MindWars-Client-Reader");
-        this.readerThread.setDaemon(true);
-        this.readerThread.start();
-        send(NetworkMessage.join(playerName));
+
+        NetworkMessage join = NetworkMessage.join(playerName, roomId);
+        join.codec = MessageCodec.formatName(requestedFormat);
+        send(join);
+        // The server switches right after reading the JOIN, before it
+        // replies, so the reader can start in the negotiated format.
+        this.format = requestedFormat;
+
+        Tasks.runDedicated("MindWars-Client-Reader", this::readLoop);
     }
 
     public void sendReady() {
@@ -80,9 +117,18 @@ public class GameClient {
     }
 
     public void send(NetworkMessage msg) {
-        if (out == null)
+        OutputStream o = out;
+        if (o == null)
             return;
-        out.println(MessageCodec.encode(msg));
+        byte[] frame = MessageCodec.frame(msg, format);
+        synchronized (o) {
+            try {
+                o.write(frame);
+                o.flush();
+            } catch (IOException ignored) {
+                // The reader notices the dead socket and stops the client.
+            }
+        }
     }
 
     public void close() {
@@ -96,17 +142,14 @@ public class GameClient {
 
     private void readLoop() {
         try {
-            String line;
-            while (running && (line = in.readLine()) != null) {
-                NetworkMessage msg = MessageCodec.decode(line);
-                if (msg != null){
-                    listener.accept(msg);
+            NetworkMessage msg;
+            while (running && (msg = MessageCodec.readFrame(in, format)) != null) {
+                listener.accept(msg);
                 if (msg.type == NetworkMessage.Type.ERROR) {
                     running = false;
                 }
             }
-        }
-        } catch (IOException e) {
+        } catch (IOException | RuntimeException e) {
             if (running)
                 System.err.println("[client] read failed: " + e.getMessage());
         } finally {
@@ -0,0 +1,672 @@
+package network;
+
+import model.AnswerResult;
+import model.GameModel;
+import model.GamePhase;
+import model.GameSettings;
+import player.Player;
+import trivia.Question;
+import util.Tasks;
+
+import java.beans.PropertyChangeListener;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * One independent match hosted by a {@link GameServer}. Owns its own
+ * {@link GameModel}, seats, ready flags and territory pick order, and
+ * turns phase changes on that model into broadcasts to its own clients
+ * only. Every room is guarded by its own monitor, so matches in different
+ * rooms never wait on each other.
+ *
+ * <p>
+ * Each client message, each delayed step and each phase change is one
+ * transition. All frames a transition sends are batched and go out to
+ * each client as one buffer. Frames are self-delimiting, so clients read
+ * them back one by one in order without knowing they were batched.
+ * </p>
+ */
+public class GameRoom {
+
+    /** Room used by clients whose {@code JOIN} does not name one. */
+    public static final String DEFAULT_ID = "default";
+
+    /**
+     * Pause between an answer's RESULT and the next phase, so clients can
+     * show the feedback. Defaults to 1600 ms; load tests lower it with
+     * {@code -Dmindwars.resultDelay=<ms>}.
+     */
+    static final long RESULT_DELAY_MS = Long.getLong("mindwars.resultDelay", 1600L);
+
+    private final String id;
+    private final boolean pinned;
+    private GameSettings settings;
+    private final GameModel model;
+    private final PropertyChangeListener phaseListener;
+
+    private final List<ClientHandler> clients = new CopyOnWriteArrayList<>();
+
+    /**
+     * Tracks which players have sent READY for the current HOT_SEAT_PASS /
+     * INVASION_PASS phase. Cleared on every phase change.
+     */
+    private final boolean[] readyFlags;
+
+    /**
+     * The in-flight answer submitted by each player index for the current question.
+     */
+    private final NetworkMessage[] pendingAnswers;
+    private int[] pickOrder;
+
+    private int pickIndex;
+
+    /**
+     * Owners as last broadcast, for the map instance in {@link #sentMap}.
+     * MAP_UPDATE only carries the cells that differ from this copy; the
+     * version goes up by one for every update that changes something.
+     */
+    private game.MapGrid sentMap;
+    private char[] sentOwners;
+    private int mapVersion;
+
+    /**
+     * Frames produced by the transition in progress, per recipient. While
+     * {@link #batchDepth} is positive, sends only land here; the outermost
+     * {@link #endBatch()} hands each client all of its frames at once, and
+     * the client's gathering write sends a PHASE and the
+     * QUESTION/SCORES/MAP_UPDATE that follow it in a single write. Guarded
+     * by {@code this}.
+     */
+    private final Map<ClientHandler, Batch> batches = new LinkedHashMap<>();
+    private int batchDepth;
+
+    /**
+     * @param pinned whether the room survives being emptied. The room built
+     *               around a caller-supplied model is pinned; rooms created
+     *               on demand are reaped once their last client leaves.
+     */
+    GameRoom(String id, GameSettings settings, GameModel model, boolean pinned) {
+        this.id = id;
+        this.settings = settings;
+        this.model = model;
+        this.pinned = pinned;
+
+        int playerCount = Math.max(settings.numPlayers, 1);
+
+        this.readyFlags = new boolean[playerCount];
+        this.pendingAnswers = new NetworkMessage[playerCount];
+
+        this.phaseListener = evt -> {
+            if (GameModel.PROP_PHASE.equals(evt.getPropertyName())) {
+                onPhaseChanged((GamePhase) evt.getNewValue());
+            }
+        };
+        model.addPropertyChangeListener(phaseListener);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public GameModel getModel() {
+        return model;
+    }
+
+    public int getConnectedCount() {
+        return clients.size();
+    }
+
+    boolean isPinned() {
+        return pinned;
+    }
+
+    boolean isEmpty() {
+        return clients.isEmpty();
+    }
+
+    /** Releases a seat after its connection dropped and tells the others. */
+    void leave(ClientHandler h) {
+        boolean wasMember = clients.remove(h);
+        if (wasMember && h.seatIndex >= 0) {
+            synchronized (this) {
+                beginBatch();
+                try {
+                    broadcastPlayerLeft(h.seatIndex, h.displayName);
+                    broadcastLobby();
+                } finally {
+                    endBatch();
+                }
+            }
+        }
+    }
+
+    /** Closes every seat and detaches from the model. */
+    void close() {
+        model.removePropertyChangeListener(phaseListener);
+        for (ClientHandler h : clients)
+            h.close();
+        clients.clear();
+    }
+
+    // ── Client messages ──
+
+    /**
+     * Runs one client message as a single transition: everything it makes
+     * the room send is flushed together at the end.
+     */
+    void handle(ClientHandler h, NetworkMessage msg) {
+        synchronized (this) {
+            beginBatch();
+            try {
+                dispatch(h, msg);
+            } finally {
+                endBatch();
+            }
+        }
+    }
+
+    private void dispatch(ClientHandler h, NetworkMessage msg) {
+        switch (msg.type) {
+            case JOIN -> sendTo(h, NetworkMessage.error("already joined room " + id));
+            case READY -> onReady(h);
+            case ANSWER -> onAnswer(h, msg);
+            case CLAIM_CELL -> onClaimCell(h, msg);
+            case START_GAME -> {
+                if (h.seatIndex == 0) {
+                    synchronized (this) {
+                        settings = withJoinedNames(settings, clients);
+                        model.startGame(settings);
+                    }
+                }
+            }
+            case MAP_RESYNC -> {
+                synchronized (this) {
+                    sendTo(h, fullMapUpdate());
+                }
+            }
+            case CHAT -> {
+                msg.senderIndex = h.seatIndex;
+                msg.name = h.displayName;
+                broadcast(msg);
+            }
+            default -> sendTo(h, NetworkMessage.error("unsupported client message: " + msg.type));
+        }
+    }
+
+    /**
+     * Seats a connection that sent {@code JOIN} for this room. Late joiners
+     * and overflow connections get an error and are closed once it has
+     * been flushed.
+     */
+    void join(ClientHandler h, NetworkMessage msg) {
+        synchronized (this) {
+            if (model.getPhase() != GamePhase.SETUP) {
+                h.send(NetworkMessage.error("Game already in progress in room " + id + "."));
+                h.closeWhenFlushed();
+                return;
+            }
+            int limit = (settings != null && settings.numPlayers > 0)
+                    ? settings.numPlayers
+                    : GameServer.MAX_PLAYERS;
+            if (clients.size() >= limit) {
+                h.send(NetworkMessage.error("Server is full. Maximum " + limit + " players allowed."));
+                h.closeWhenFlushed();
+                return;
+            }
+
+            h.seatIndex = clients.size();
+            h.displayName = msg.name == null ? ("Player " + (h.seatIndex + 1)) : msg.name;
+            h.room = this;
+            clients.add(h);
+
+            NetworkMessage welcome = new NetworkMessage(NetworkMessage.Type.WELCOME);
+            welcome.playerIndex = h.seatIndex;
+            welcome.roomId = id;
+            welcome.codec = MessageCodec.formatName(h.format);
+            if (settings != null) {
+                welcome.totalRounds = GameModel.estimateTotalRounds(settings.mapSize);
+            }
+            beginBatch();
+            try {
+                sendTo(h, welcome);
+                broadcastLobby();
+            } finally {
+                endBatch();
+            }
+        }
+    }
+
+    private void onReady(ClientHandler h) {
+        if (h.seatIndex < 0)
+            return;
+        synchronized (this) {
+            GamePhase phase = model.getPhase();
+            if (phase != GamePhase.HOT_SEAT_PASS && phase != GamePhase.INVASION_PASS) {
+                return;
+            }
+            // For HOT_SEAT_PASS the active player is currentPlayerIndex.
+            // For INVASION_PASS the active player is invaderIndex.
+            readyFlags[h.seatIndex] = true;
+
+            if (!allConnectedPlayersReady()) {
+                return;
+            }
+
+            if (phase == GamePhase.HOT_SEAT_PASS) {
+                model.beginQuestion();
+            } else {
+                model.beginInvasionSelect();
+            }
+        }
+    }
+
+    private void onAnswer(ClientHandler h, NetworkMessage msg) {
+        if (h.seatIndex < 0)
+            return;
+        synchronized (this) {
+            GamePhase phase = model.getPhase();
+            if (phase != GamePhase.QUESTION) {
+                sendTo(h, NetworkMessage.error("no question in progress"));
+                return;
+            }
+            if (h.seatIndex != model.getCurrentPlayerIndex()) {
+                sendTo(h, NetworkMessage.error("not your turn"));
+                return;
+            }
+            pendingAnswers[h.seatIndex] = msg;
+            long elapsed = msg.elapsedMs == null ? 0L : msg.elapsedMs;
+            AnswerResult result = model.submitAnswer(msg.answer, elapsed);
+            broadcastResult(result, h.seatIndex);
+            broadcastScores();
+        }
+        // Give clients time to render the RESULT feedback before the next
+        // PHASE/QUESTION broadcast overwrites it. Scheduled outside the
+        // synchronized block so the server thread isn't blocked.
+        Tasks.runAfter("MindWars-PostAnswer-" + id, RESULT_DELAY_MS, () -> {
+            synchronized (this) {
+                beginBatch();
+                try {
+                    if (model.getPhase() == GamePhase.QUESTION) {
+                        model.advanceAfterAnswer();
+                    }
+                } finally {
+                    endBatch();
+                }
+            }
+        });
+    }
+
+    private void onClaimCell(ClientHandler h, NetworkMessage msg) {
+        if (h.seatIndex < 0 || msg.row == null || msg.col == null)
+            return;
+        synchronized (this) {
+            // Must be in TERRITORY_CLAIM phase
+            if (model.getPhase() != GamePhase.TERRITORY_CLAIM) {
+                sendTo(h, NetworkMessage.error("not in territory claim phase"));
+                return;
+            }
+            if (pickOrder == null || pickIndex >= pickOrder.length
+                    || pickOrder[pickIndex] != h.seatIndex) {
+                sendTo(h, NetworkMessage.error("not your turn to claim"));
+                return;
+            }
+            // Try to claim the cell via the model
+            boolean ok = model.claimCell(h.seatIndex, msg.row, msg.col);
+            if (!ok) {
+                sendTo(h, NetworkMessage.error("cell already taken"));
+                return;
+            }
+            pickIndex++;
+
+            // Broadcast updated map to all clients
+            broadcastMapUpdate();
+
+            // If all picks exhausted (or map full), finish the round
+            if (pickIndex >= pickOrder.length || model.getMap().isMapFull()) {
+                model.finishRound();
+            }
+        }
+    }
+
+    private boolean allConnectedPlayersReady() {
+        if (clients.isEmpty()) {
+            return false;
+        }
+
+        for (ClientHandler h : clients) {
+            if (h.seatIndex < 0 || h.seatIndex >= readyFlags.length) {
+                return false;
+            }
+
+            if (!readyFlags[h.seatIndex]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private void buildPickOrder() {
+        int[] claimCounts = model.roundClaimCounts();
+        int winner = model.determineRoundWinnerIndex();
+        int numPlayers = claimCounts.length;
+
+        int total = 0;
+        for (int c : claimCounts)
+            total += c;
+
+        pickOrder = new int[total];
+        int idx = 0;
+        for (int i = 0; i < claimCounts[winner]; i++)
+            pickOrder[idx++] = winner;
+        for (int p = 0; p < numPlayers; p++) {
+            if (p == winner)
+                continue;
+            for (int i = 0; i < claimCounts[p]; i++)
+                pickOrder[idx++] = p;
+        }
+        pickIndex = 0;
+    }
+
+    // ── Broadcasts ──
+
+    private synchronized void onPhaseChanged(GamePhase phase) {
+        // Also covers transitions started outside handle(), e.g. a host
+        // calling forcePhase on the model directly.
+        beginBatch();
+        try {
+            announcePhase(phase);
+        } finally {
+            endBatch();
+        }
+    }
+
+    private void announcePhase(GamePhase phase) {
+        // Reset ready flags on every phase transition so they don't leak.
+        for (int i = 0; i < readyFlags.length; i++)
+            readyFlags[i] = false;
+
+        NetworkMessage m = new NetworkMessage(NetworkMessage.Type.PHASE);
+        m.phase = phase.name();
+        // For invasion phases, currentPlayer must be the invader index, not
+        // getCurrentPlayerIndex() which is always 0 after a reset.
+        if (phase == GamePhase.INVASION_PASS || phase == GamePhase.INVASION_BATTLE) {
+            m.currentPlayer = model.getInvaderIndex();
+        } else {
+            m.currentPlayer = model.getCurrentPlayerIndex();
+        }
+        m.round = model.getRoundNumber();
+        m.totalRounds = model.getTotalRounds();
+        broadcast(m);
+
+        switch (phase) {
+            case QUESTION -> broadcastQuestion();
+            case TERRITORY_CLAIM -> {
+                buildPickOrder();
+                broadcastMapUpdate();
+            }
+            case INVASION_PASS, INVASION_SELECT, INVASION_BATTLE -> {
+                model.forcePhase(GamePhase.GAME_OVER);
+            }
+            case GAME_OVER -> broadcastGameOver();
+            default -> {
+            }
+        }
+    }
+
+    private void broadcastQuestion() {
+        Question q = model.getCurrentQuestion();
+        if (q == null)
+            return;
+        NetworkMessage m = new NetworkMessage(NetworkMessage.Type.QUESTION);
+        m.questionType = q.getType() == null ? null : q.getType().name();
+        m.category = q.getCategory();
+        m.difficulty = q.getDifficulty();
+        m.prompt = q.getPrompt();
+        m.choices = q.getChoices() == null ? null : new ArrayList<>(q.getChoices());
+        m.currentPlayer = model.getCurrentPlayerIndex();
+        broadcast(m);
+    }
+
+    private void broadcastResult(AnswerResult result, int playerIndex) {
+        NetworkMessage m = new NetworkMessage(NetworkMessage.Type.RESULT);
+        m.playerIndex = playerIndex;
+        m.correct = result.correct;
+        m.timedOut = result.timedOut;
+        m.pointsDelta = result.pointsDelta;
+        m.correctAnswer = result.correctAnswer;
+        m.elapsedMs = result.elapsedMs;
+        for (ClientHandler h : clients) {
+            if (h.seatIndex == playerIndex) {
+                sendTo(h, m);
+                break;
+            }
+        }
+    }
+
+    private void broadcastScores() {
+        NetworkMessage m = new NetworkMessage(NetworkMessage.Type.SCORES);
+        List<Integer> scores = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        for (ClientHandler h : clients) {
+            names.add(h.displayName);
+        }
+        for (Player p : model.getPlayers()) {
+            scores.add(p.getScore());
+            // names.add(p.getName());
+        }
+        m.scores = scores;
+        m.playerNames = names;
+        broadcast(m);
+    }
+
+    private void broadcastGameOver() {
+        Player winner = model.computeWinner();
+        NetworkMessage m = new NetworkMessage(NetworkMessage.Type.GAME_OVER);
+        m.winnerIndex = winner == null ? null : model.getPlayers().indexOf(winner);
+
+        List<String> names = new ArrayList<>();
+        List<Integer> scores = new ArrayList<>();
+        List<Integer> corrects = new ArrayList<>();
+        List<Integer> wrongs = new ArrayList<>();
+        for (Player p : model.getPlayers()) {
+            names.add(p.getName());
+            scores.add(p.getScore());
+            corrects.add(p.getCorrectAnswers());
+            wrongs.add(p.getWrongAnswers());
+        }
+        m.playerNames = names;
+        m.scores = scores;
+        m.correctAnswers = corrects;
+        m.wrongAnswers = wrongs;
+
+        // Clients rebuild the final board from their cached map, so only
+        // flush outstanding changes and name the version it must match.
+        game.MapGrid map = model.getMap();
+        if (map != null) {
+            List<Integer> changes = collectMapChanges(map);
+            if (changes == null || !changes.isEmpty())
+                broadcast(mapUpdate(map, changes));
+            m.mapVersion = mapVersion;
+            m.mapSize = map.getSize();
+        }
+
+        broadcast(m);
+    }
+
+    private void broadcastPlayerLeft(int seatIndex, String name) {
+        NetworkMessage m = new NetworkMessage(NetworkMessage.Type.PLAYER_LEFT);
+        m.disconnectedPlayerIndex = seatIndex;
+        m.disconnectedPlayerName = name == null || name.isBlank() ? "Player " + (seatIndex + 1) : name;
+        broadcast(m);
+    }
+
+    private void broadcastLobby() {
+        NetworkMessage m = new NetworkMessage(NetworkMessage.Type.LOBBY);
+        List<String> names = new ArrayList<>();
+        for (ClientHandler h : clients)
+            names.add(h.displayName);
+        m.playerNames = names;
+        broadcast(m);
+    }
+
+    private void broadcast(NetworkMessage msg) {
+        // Encode at most once per wire format, however many clients share it.
+        byte[][] frames = new byte[MessageCodec.Format.values().length][];
+        for (ClientHandler h : clients) {
+            int f = h.format.ordinal();
+            if (frames[f] == null)
+                frames[f] = MessageCodec.frame(msg, h.format);
+            deliver(h, frames[f], msg.type);
+        }
+    }
+
+    private void sendTo(ClientHandler h, NetworkMessage msg) {
+        deliver(h, MessageCodec.frame(msg, h.format), msg.type);
+    }
+
+    private void deliver(ClientHandler h, byte[] frame, NetworkMessage.Type type) {
+        // batchDepth is only non-zero while some thread holds this monitor
+        // inside a transition; only that thread may add to the batch.
+        if (batchDepth > 0 && Thread.holdsLock(this)) {
+            batches.computeIfAbsent(h, k -> new Batch()).add(frame, type);
+        } else {
+            h.enqueue(frame, type);
+        }
+    }
+
+    private void beginBatch() {
+        batchDepth++;
+    }
+
+    private void endBatch() {
+        if (--batchDepth > 0 || batches.isEmpty())
+            return;
+        for (Map.Entry<ClientHandler, Batch> e : batches.entrySet()) {
+            Batch b = e.getValue();
+            e.getKey().enqueueAll(b.frames, b.types);
+        }
+        batches.clear();
+    }
+
+    /**
+     * Frames queued for one client during a transition, in order, each with
+     * its message type so the client's overflow policy can still tell a
+     * SCORES from a PHASE. The arrays are the shared broadcast encodings.
+     */
+    private static final class Batch {
+        final List<byte[]> frames = new ArrayList<>(4);
+        final List<NetworkMessage.Type> types = new ArrayList<>(4);
+
+        void add(byte[] frame, NetworkMessage.Type type) {
+            frames.add(frame);
+            types.add(type);
+        }
+    }
+
+    private void broadcastMapUpdate() {
+        game.MapGrid map = model.getMap();
+        if (map == null)
+            return;
+        broadcast(mapUpdate(map, collectMapChanges(map)));
+    }
+
+    /** Whole-board MAP_UPDATE for a client that lost track of the version. */
+    private NetworkMessage fullMapUpdate() {
+        game.MapGrid map = model.getMap();
+        if (map == null)
+            return NetworkMessage.error("no map yet");
+        if (map != sentMap)
+            collectMapChanges(map);
+        return mapUpdate(map, null);
+    }
+
+    /**
+     * Brings {@link #sentOwners} up to date with {@code map} and returns the
+     * changed cells as {@code [cellIndex, owner, ...]} pairs, or
+     * {@code null} when {@code map} is a new (or cleared) board that has to
+     * go out whole. Only the cells the map reports as written are looked
+     * at, so a claim costs its own cells, not a board scan.
+     */
+    private List<Integer> collectMapChanges(game.MapGrid map) {
+        int size = map.getSize();
+        int[] written = map.takeChangedCells();
+        if (written == null || map != sentMap || sentOwners == null || sentOwners.length != size * size) {
+            sentMap = map;
+            sentOwners = new char[size * size];
+            for (int r = 0; r < size; r++)
+                for (int c = 0; c < size; c++)
+                    sentOwners[r * size + c] = map.getOwner(r, c);
+            mapVersion++;
+            return null;
+        }
+        List<Integer> changes = new ArrayList<>(written.length * 2);
+        for (int idx : written) {
+            char owner = map.getOwner(idx / size, idx % size);
+            if (owner != sentOwners[idx]) {
+                sentOwners[idx] = owner;
+                changes.add(idx);
+                changes.add((int) owner);
+            }
+        }
+        if (!changes.isEmpty())
+            mapVersion++;
+        return changes;
+    }
+
+    /**
+     * Builds a MAP_UPDATE at the current version: a delta when
+     * {@code changes} is given, the full board from {@link #sentOwners}
+     * otherwise.
+     */
+    private NetworkMessage mapUpdate(game.MapGrid map, List<Integer> changes) {
+        NetworkMessage m = new NetworkMessage(NetworkMessage.Type.MAP_UPDATE);
+        m.mapSize = map.getSize();
+        m.mapVersion = mapVersion;
+        if (changes == null) {
+            m.gridSnapshot = new String(sentOwners);
+        } else {
+            m.changedCells = changes;
+        }
+
+        if (pickOrder == null || pickIndex >= pickOrder.length || map.isMapFull()) {
+            m.claimInstruction = "All territories claimed!";
+            m.claimingPlayer = -1;
+            m.claimsLeft = 0;
+        } else {
+            int nextPlayer = pickOrder[pickIndex];
+            // Count consecutive picks for nextPlayer
+            int left = 0;
+            for (int i = pickIndex; i < pickOrder.length && pickOrder[i] == nextPlayer; i++)
+                left++;
+
+            List<Player> players = model.getPlayers();
+            String pName = (nextPlayer < players.size()) ? players.get(nextPlayer).getName()
+                    : ("Player " + (nextPlayer + 1));
+            m.claimInstruction = pName + " — choose " + left + (left == 1 ? " territory" : " territories");
+            m.claimingPlayer = nextPlayer;
+            m.claimsLeft = left;
+        }
+        return m;
+    }
+
+    private static GameSettings withJoinedNames(GameSettings base, List<ClientHandler> clients) {
+        int count = clients.size();
+        String p1 = clients.get(0).displayName;
+        String p2 = (count >= 2) ? clients.get(1).displayName : base.player2Name;
+        String p3 = (count >= 3) ? clients.get(2).displayName : base.player3Name;
+        String p4 = (count >= 4) ? clients.get(3).displayName : base.player4Name;
+
+        return new GameSettings(
+                base.mapSize,
+                base.vsBot,
+                p1, p2, p3, p4,
+                base.randomMode,
+                base.category,
+                base.difficulty,
+                count);
+    }
+}
\ No newline at end of file
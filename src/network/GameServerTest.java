@@ -1,14 +1,21 @@
 package network;
 
 import model.GameModel;
+import model.GamePhase;
 import model.GameSettings;
 import trivia.Question;
 import trivia.QuestionBank;
+import trivia.QuestionDeck;
 import trivia.QuestionType;
 
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 
@@ -42,33 +49,24 @@ public class GameServerTest {
                 false, // randomMode
                 "General",
                 "Normal",
-                1);
+                2);
     }
 
-    /** Minimal bank with one MCQ so the server has questions to broadcast. */
+    /**
+     * Minimal bank with one MCQ so the server has questions to broadcast.
+     * Its decks deal that question forever, however many rounds are asked for.
+     */
     private static QuestionBank stubBank() {
-        // Built ahead of time because QuestionBank's super-ctor calls
-        // getAllQuestionsAsList() before any subclass field initialisers run.
         final Question q = makeQuestion();
-        return new QuestionBank(null) {
+        return new QuestionBank(List.of(q)) {
             @Override
-            public Question getQuestion(String cat, String diff) {
-                return q;
-            }
-
-            @Override
-            public Set<String> getCategories() {
-                return Set.of("Tech");
-            }
-
-            @Override
-            public Set<String> getDifficulties(String c) {
-                return Set.of("Easy");
-            }
-
-            @Override
-            public List<Question> getAllQuestionsAsList() {
-                return q == null ? List.of() : List.of(q);
+            public QuestionDeck newDeck() {
+                return new QuestionDeck(this) {
+                    @Override
+                    public synchronized Question draw(String cat, String diff) {
+                        return q;
+                    }
+                };
             }
         };
     }
@@ -84,6 +82,16 @@ public class GameServerTest {
         return q;
     }
 
+    /**
+     * Seat 0 is the host and the only one allowed to start the match. Waits
+     * for both JOINs to be seated first so START_GAME sees a full lobby.
+     */
+    private static void startMatch(GameServer server, GameClient host) throws InterruptedException {
+        for (int i = 0; i < 40 && server.getConnectedCount() < 2; i++)
+            Thread.sleep(25);
+        host.send(new NetworkMessage(NetworkMessage.Type.START_GAME));
+    }
+
     private static void testHandshakeAndPhaseBroadcast() throws Exception {
         System.out.println("\n[testHandshakeAndPhaseBroadcast]");
 
@@ -111,6 +119,7 @@ public class GameServerTest {
 
         c1.connect("127.0.0.1", port, "Alice");
         c2.connect("127.0.0.1", port, "Bob");
+        startMatch(server, c1);
 
         boolean gotPhase = phaseLatch.await(2, TimeUnit.SECONDS);
         assertTrue("both clients saw a PHASE broadcast", gotPhase);
@@ -148,11 +157,12 @@ public class GameServerTest {
 
         c1.connect("127.0.0.1", port, "Alice");
         c2.connect("127.0.0.1", port, "Bob");
+        startMatch(server, c1);
         Thread.sleep(200); // give the lobby a moment
 
-        // Only the current player's READY advances the phase.
-        int current = model.getCurrentPlayerIndex();
-        (current == 0 ? c1 : c2).sendReady();
+        // The question only starts once every connected seat is READY.
+        c1.sendReady();
+        c2.sendReady();
 
         boolean gotQuestion = questionLatch.await(2, TimeUnit.SECONDS);
         assertTrue("both clients received a QUESTION after READY", gotQuestion);
@@ -170,7 +180,9 @@ public class GameServerTest {
         server.start();
         int port = server.getBoundPort();
 
-        CountDownLatch resultLatch = new CountDownLatch(2);
+        // RESULT is private to the answering seat; SCORES goes to everyone.
+        CountDownLatch resultLatch = new CountDownLatch(1);
+        CountDownLatch scoresLatch = new CountDownLatch(2);
         boolean[] correctSeen = { false };
         GameClient c1 = new GameClient();
         GameClient c2 = new GameClient();
@@ -180,23 +192,34 @@ public class GameServerTest {
                     correctSeen[0] = true;
                 resultLatch.countDown();
             }
+            if (msg.type == NetworkMessage.Type.SCORES)
+                scoresLatch.countDown();
         });
         c2.setListener(msg -> {
-            if (msg.type == NetworkMessage.Type.RESULT)
+            if (msg.type == NetworkMessage.Type.RESULT) {
+                if (Boolean.TRUE.equals(msg.correct))
+                    correctSeen[0] = true;
                 resultLatch.countDown();
+            }
+            if (msg.type == NetworkMessage.Type.SCORES)
+                scoresLatch.countDown();
         });
 
         c1.connect("127.0.0.1", port, "Alice");
         c2.connect("127.0.0.1", port, "Bob");
+        startMatch(server, c1);
         Thread.sleep(200);
 
         int current = model.getCurrentPlayerIndex();
-        (current == 0 ? c1 : c2).sendReady();
+        c1.sendReady();
+        c2.sendReady();
         Thread.sleep(200);
         (current == 0 ? c1 : c2).sendAnswer("B", 1500);
 
         boolean gotResult = resultLatch.await(2, TimeUnit.SECONDS);
-        assertTrue("both clients received a RESULT after ANSWER", gotResult);
+        assertTrue("answering client received a RESULT after ANSWER", gotResult);
+        assertTrue("both clients received SCORES after ANSWER",
+                scoresLatch.await(2, TimeUnit.SECONDS));
         assertTrue("RESULT marked answer correct", correctSeen[0]);
 
         c1.close();
@@ -204,6 +227,293 @@ public class GameServerTest {
         server.stop();
     }
 
+    private static void testPartialLineFraming() throws Exception {
+        System.out.println("\n[testPartialLineFraming]");
+
+        GameModel model = new GameModel(stubBank());
+        GameServer server = new GameServer(0, defaultSettings(), model);
+        server.start();
+
+        // Raw socket so the JOIN can be split across two TCP writes.
+        try (Socket raw = new Socket("127.0.0.1", server.getBoundPort())) {
+            raw.setSoTimeout(2000);
+            OutputStream out = raw.getOutputStream();
+            byte[] join = (MessageCodec.encode(NetworkMessage.join("Carol")) + "\n")
+                    .getBytes(StandardCharsets.UTF_8);
+            int half = join.length / 2;
+            out.write(join, 0, half);
+            out.flush();
+            Thread.sleep(100);
+            out.write(join, half, join.length - half);
+            out.flush();
+
+            BufferedReader in = new BufferedReader(
+                    new InputStreamReader(raw.getInputStream(), StandardCharsets.UTF_8));
+            NetworkMessage first = MessageCodec.decode(in.readLine());
+            assertTrue("split JOIN is reassembled into a WELCOME",
+                    first != null && first.type == NetworkMessage.Type.WELCOME);
+        }
+
+        server.stop();
+    }
+
+    private static void testStalledClientIsDropped() throws Exception {
+        System.out.println("\n[testStalledClientIsDropped]");
+
+        GameModel model = new GameModel(stubBank());
+        GameServer server = new GameServer(0, defaultSettings(), model);
+        server.setOverflowPolicy(GameServer.OverflowPolicy.DISCONNECT);
+        server.start();
+
+        // Joins, then never reads another byte.
+        try (Socket stalled = new Socket("127.0.0.1", server.getBoundPort())) {
+            stalled.setReceiveBufferSize(4096);
+            stalled.getOutputStream().write((MessageCodec.encode(NetworkMessage.join("Slow")) + "\n")
+                    .getBytes(StandardCharsets.UTF_8));
+            stalled.getOutputStream().flush();
+
+            CountDownLatch lastChat = new CountDownLatch(1);
+            GameClient chatty = new GameClient();
+            chatty.setListener(m -> {
+                if (m.type == NetworkMessage.Type.CHAT && "last".equals(m.text))
+                    lastChat.countDown();
+            });
+            chatty.connect("127.0.0.1", server.getBoundPort(), "Chatty");
+            for (int i = 0; i < 40 && server.getConnectedCount() < 2; i++)
+                Thread.sleep(25);
+
+            String bulk = "x".repeat(32 * 1024);
+            for (int i = 0; i < 256 && server.getConnectedCount() == 2; i++)
+                chatty.sendChat(bulk);
+            chatty.sendChat("last");
+
+            assertTrue("the reading client still gets every broadcast",
+                    lastChat.await(5, TimeUnit.SECONDS));
+            for (int i = 0; i < 40 && server.getConnectedCount() > 1; i++)
+                Thread.sleep(25);
+            assertTrue("the stalled client was disconnected", server.getConnectedCount() == 1);
+            chatty.close();
+        }
+
+        server.stop();
+    }
+
+    private static void testOverflowKeepsOrder() {
+        System.out.println("\n[testOverflowKeepsOrder]");
+
+        GameServer server = new GameServer(0, defaultSettings(), new GameModel(stubBank()));
+        server.setOverflowPolicy(GameServer.OverflowPolicy.COALESCE);
+        ClientHandler h = new ClientHandler(server, null);
+        int max = ClientHandler.MAX_QUEUED_BYTES;
+        h.enqueue(new byte[max - 300], NetworkMessage.Type.CHAT);
+        h.enqueue(new byte[100], NetworkMessage.Type.TURN);
+        h.enqueue(new byte[100], NetworkMessage.Type.PHASE);
+        h.enqueue(new byte[100], NetworkMessage.Type.QUESTION);
+
+        assertTrue("a coalescible frame replaces its stale copy when full",
+                h.enqueue(new byte[100], NetworkMessage.Type.TURN));
+        assertTrue("the new copy goes after the frames queued before it", h.queuedTypes().equals(List.of(
+                NetworkMessage.Type.CHAT, NetworkMessage.Type.PHASE, NetworkMessage.Type.QUESTION,
+                NetworkMessage.Type.TURN)));
+        assertTrue("a full queue cannot take a PHASE under COALESCE",
+                !h.enqueue(new byte[100], NetworkMessage.Type.PHASE));
+
+        server.setOverflowPolicy(GameServer.OverflowPolicy.DROP);
+        ClientHandler d = new ClientHandler(server, null);
+        d.enqueue(new byte[max], NetworkMessage.Type.CHAT);
+        assertTrue("DROP discards a map delta", d.enqueue(new byte[10], NetworkMessage.Type.MAP_UPDATE));
+        assertTrue("DROP disconnects rather than lose a QUESTION",
+                !d.enqueue(new byte[10], NetworkMessage.Type.QUESTION));
+    }
+
+    private static void testBatchedTransitionsCoalesce() {
+        System.out.println("\n[testBatchedTransitionsCoalesce]");
+
+        GameServer server = new GameServer(0, defaultSettings(), new GameModel(stubBank()));
+        server.setOverflowPolicy(GameServer.OverflowPolicy.COALESCE);
+        ClientHandler stalled = new ClientHandler(server, null);
+        int max = ClientHandler.MAX_QUEUED_BYTES;
+        List<NetworkMessage.Type> transition = List.of(
+                NetworkMessage.Type.PHASE, NetworkMessage.Type.SCORES, NetworkMessage.Type.TURN);
+
+        stalled.enqueue(new byte[max - 500], NetworkMessage.Type.CHAT);
+        boolean alive = stalled.enqueueAll(List.of(new byte[100], new byte[100], new byte[100]), transition);
+        assertTrue("a batch that fits is queued frame by frame", alive && stalled.queuedTypes().size() == 4);
+
+        // Room for the PHASE only: the SCORES and TURN behind it in the same
+        // batch replace their stale copies instead of dropping the client.
+        alive = stalled.enqueueAll(List.of(new byte[200], new byte[100], new byte[100]), transition);
+        assertTrue("a backlogged client survives a batched transition under COALESCE", alive);
+        assertTrue("coalesced frames still follow the PHASE they came with", stalled.queuedTypes().equals(List.of(
+                NetworkMessage.Type.CHAT, NetworkMessage.Type.PHASE, NetworkMessage.Type.PHASE,
+                NetworkMessage.Type.SCORES, NetworkMessage.Type.TURN)));
+    }
+
+    private static void testRoomsAreIndependentAndReaped() throws Exception {
+        System.out.println("\n[testRoomsAreIndependentAndReaped]");
+
+        QuestionBank bank = stubBank();
+        GameServer server = new GameServer(0, defaultSettings(), () -> new GameModel(bank));
+        server.start();
+        int port = server.getBoundPort();
+
+        CountDownLatch welcomes = new CountDownLatch(3);
+        List<Integer> seats = new CopyOnWriteArrayList<>();
+        java.util.function.Consumer<NetworkMessage> onWelcome = msg -> {
+            if (msg.type == NetworkMessage.Type.WELCOME) {
+                seats.add(msg.playerIndex);
+                welcomes.countDown();
+            }
+        };
+        GameClient a1 = new GameClient();
+        GameClient a2 = new GameClient();
+        GameClient b1 = new GameClient();
+        a1.setListener(onWelcome);
+        a2.setListener(onWelcome);
+        b1.setListener(onWelcome);
+
+        a1.connect("127.0.0.1", port, "Alice", "alpha");
+        Thread.sleep(50);
+        a2.connect("127.0.0.1", port, "Bob", "alpha");
+        b1.connect("127.0.0.1", port, "Carol", "beta");
+
+        assertTrue("all three clients were welcomed", welcomes.await(2, TimeUnit.SECONDS));
+        assertTrue("two rooms were created on demand", server.getRoomCount() == 2);
+        assertTrue("alpha seats two players", server.getRoom("alpha").getConnectedCount() == 2);
+        assertTrue("beta seats its own player 0",
+                server.getRoom("beta").getConnectedCount() == 1
+                        && seats.stream().filter(i -> i == 0).count() == 2);
+
+        b1.close();
+        for (int i = 0; i < 40 && server.getRoomCount() > 1; i++)
+            Thread.sleep(25);
+        assertTrue("empty room is reaped", server.getRoom("beta") == null);
+        assertTrue("busy room survives", server.getRoom("alpha") != null);
+
+        a1.close();
+        a2.close();
+        server.stop();
+    }
+
+    private static void testBinaryCodecRoundTrip() {
+        System.out.println("\n[testBinaryCodecRoundTrip]");
+
+        NetworkMessage m = new NetworkMessage(NetworkMessage.Type.GAME_OVER);
+        m.winnerIndex = 1;
+        m.playerNames = List.of("Alice", "Bob", "Zoë");
+        m.scores = List.of(30, -10, 0);
+        m.elapsedMs = 12_345_678_901L;
+        m.correct = Boolean.FALSE;
+        m.gridSnapshot = "XO.XO.XO.";
+        m.mapSize = 3;
+        m.mapVersion = 7;
+        m.changedCells = List.of(4, (int) 'X', 8, (int) 'O');
+
+        byte[] frame = MessageCodec.frame(m, MessageCodec.Format.BINARY);
+        NetworkMessage back;
+        try {
+            back = MessageCodec.readFrame(new java.io.ByteArrayInputStream(frame),
+                    MessageCodec.Format.BINARY);
+        } catch (java.io.IOException e) {
+            back = null;
+        }
+        assertTrue("binary frame decodes to the same message",
+                back != null
+                        && MessageCodec.encode(back).equals(MessageCodec.encode(m)));
+        assertTrue("binary frame is smaller than the JSON line",
+                frame.length < MessageCodec.frame(m, MessageCodec.Format.JSON).length);
+    }
+
+    private static void testMapUpdatesAreDeltas() throws Exception {
+        System.out.println("\n[testMapUpdatesAreDeltas]");
+
+        GameModel model = new GameModel(stubBank());
+        GameServer server = new GameServer(0, defaultSettings(), model);
+        server.start();
+        int port = server.getBoundPort();
+
+        List<NetworkMessage> a = new CopyOnWriteArrayList<>();
+        GameClient c1 = new GameClient();
+        c1.setListener(a::add);
+        GameClient c2 = new GameClient();
+        c1.connect("127.0.0.1", port, "Alice");
+        c2.connect("127.0.0.1", port, "Bob");
+        startMatch(server, c1);
+        for (int i = 0; i < 40 && model.getPhase().name().equals("SETUP"); i++)
+            Thread.sleep(25);
+
+        // Alice wins the round, so she picks first.
+        model.setRoundCorrect(0, true);
+        model.setRoundCorrect(1, false);
+        model.forcePhase(GamePhase.TERRITORY_CLAIM);
+        NetworkMessage full = awaitMapUpdate(a, 0);
+        assertTrue("entering TERRITORY_CLAIM sends the whole board",
+                full != null && full.gridSnapshot != null && full.mapVersion != null);
+
+        c1.sendClaimCell(0, 0);
+        NetworkMessage delta = awaitMapUpdate(a, 1);
+        assertTrue("a claim sends only the changed cell",
+                delta != null && delta.gridSnapshot == null
+                        && delta.changedCells != null && delta.changedCells.size() == 2
+                        && delta.changedCells.get(0) == 0);
+        assertTrue("the delta moves the version on by one",
+                full != null && delta != null && delta.mapVersion == full.mapVersion + 1);
+
+        c1.send(NetworkMessage.mapResync());
+        NetworkMessage resync = awaitMapUpdate(a, 2);
+        assertTrue("MAP_RESYNC returns the current board at the current version",
+                resync != null && delta != null && resync.gridSnapshot != null
+                        && resync.gridSnapshot.charAt(0) == (char) delta.changedCells.get(1).intValue()
+                        && resync.mapVersion.equals(delta.mapVersion));
+
+        c1.close();
+        c2.close();
+        server.stop();
+    }
+
+    /** Waits for the {@code n}-th MAP_UPDATE (0-based) in {@code seen}. */
+    private static NetworkMessage awaitMapUpdate(List<NetworkMessage> seen, int n) throws InterruptedException {
+        for (int i = 0; i < 80; i++) {
+            List<NetworkMessage> updates = seen.stream()
+                    .filter(m -> m.type == NetworkMessage.Type.MAP_UPDATE).toList();
+            if (updates.size() > n)
+                return updates.get(n);
+            Thread.sleep(25);
+        }
+        return null;
+    }
+
+    private static void testMixedWireFormatsShareARoom() throws Exception {
+        System.out.println("\n[testMixedWireFormatsShareARoom]");
+
+        GameModel model = new GameModel(stubBank());
+        GameServer server = new GameServer(0, defaultSettings(), model);
+        server.start();
+        int port = server.getBoundPort();
+
+        CountDownLatch fullLobby = new CountDownLatch(2);
+        java.util.function.Consumer<NetworkMessage> onLobby = msg -> {
+            if (msg.type == NetworkMessage.Type.LOBBY && msg.playerNames.size() == 2)
+                fullLobby.countDown();
+        };
+        GameClient json = new GameClient();
+        json.setWireFormat(MessageCodec.Format.JSON);
+        json.setListener(onLobby);
+        GameClient binary = new GameClient();
+        binary.setWireFormat(MessageCodec.Format.BINARY);
+        binary.setListener(onLobby);
+
+        json.connect("127.0.0.1", port, "Alice");
+        binary.connect("127.0.0.1", port, "Bob");
+
+        assertTrue("JSON and binary clients both see the full lobby",
+                fullLobby.await(2, TimeUnit.SECONDS));
+
+        json.close();
+        binary.close();
+        server.stop();
+    }
+
     public static void main(String[] args) throws Exception {
         System.out.println("============================================================");
         System.out.println("  GameServer / GameClient Integration Tests");
@@ -212,6 +522,14 @@ public class GameServerTest {
         testHandshakeAndPhaseBroadcast();
         testReadyBroadcastsQuestion();
         testAnswerBroadcastsResult();
+        testPartialLineFraming();
+        testRoomsAreIndependentAndReaped();
+        testBinaryCodecRoundTrip();
+        testMixedWireFormatsShareARoom();
+        testMapUpdatesAreDeltas();
+        testStalledClientIsDropped();
+        testOverflowKeepsOrder();
+        testBatchedTransitionsCoalesce();
 
         System.out.println("\n============================================================");
         if (failures == 0) {
@@ -2,13 +2,35 @@ package network;
 
 import com.google.gson.Gson;
 
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
 /**
- * Tiny helper that hides the Gson dependency behind a pair of static
- * methods. Each encoded line ends in {@code \n} so readers can use
- * {@link java.io.BufferedReader#readLine()}.
+ * Tiny helper that hides the wire encodings behind a few static methods.
+ *
+ * <p>
+ * Two {@link Format}s exist. {@link Format#JSON} is one Gson-encoded
+ * message per line, each ending in {@code \n} — easy to read in a packet
+ * dump or with {@code nc}. {@link Format#BINARY} is a varint length
+ * prefix followed by a {@link BinaryMessageCodec} payload. Every
+ * connection starts in JSON; the {@code JOIN} line names the format both
+ * sides switch to for everything after it.
+ * </p>
  */
 public final class MessageCodec {
 
+    /** Encodings a connection can negotiate in its {@code JOIN}. */
+    public enum Format {
+        JSON,
+        BINARY
+    }
+
+    /** Largest frame either side accepts before dropping the peer. */
+    public static final int MAX_FRAME_BYTES = 64 * 1024;
+
     private static final Gson GSON = new Gson();
 
     private MessageCodec() {
@@ -23,4 +45,84 @@ public final class MessageCodec {
             return null;
         return GSON.fromJson(line, NetworkMessage.class);
     }
+
+    /**
+     * Format a client asks for when none is chosen explicitly: binary,
+     * unless {@code -Dmindwars.wire=json} is set for debugging.
+     */
+    public static Format defaultFormat() {
+        return parseFormat(System.getProperty("mindwars.wire", "binary"));
+    }
+
+    /** Maps the {@code codec} name carried in JOIN/WELCOME; unknown means JSON. */
+    public static Format parseFormat(String name) {
+        return "binary".equalsIgnoreCase(name) ? Format.BINARY : Format.JSON;
+    }
+
+    public static String formatName(Format format) {
+        return format == Format.BINARY ? "binary" : "json";
+    }
+
+    /** Encodes {@code msg} as the exact bytes that go on the wire. */
+    public static byte[] frame(NetworkMessage msg, Format format) {
+        if (format == Format.BINARY) {
+            byte[] payload = BinaryMessageCodec.encode(msg);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(payload.length + 3);
+            BinaryMessageCodec.writeVarint(out, payload.length);
+            out.write(payload, 0, payload.length);
+            return out.toByteArray();
+        }
+        return (encode(msg) + "\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Blocking read of the next framed message. Returns {@code null} on a
+     * clean end of stream; frames that decode to nothing are skipped.
+     */
+    public static NetworkMessage readFrame(InputStream in, Format format) throws IOException {
+        while (true) {
+            NetworkMessage msg;
+            if (format == Format.BINARY) {
+                int len = readVarint(in);
+                if (len < 0)
+                    return null;
+                if (len > MAX_FRAME_BYTES)
+                    throw new IOException("frame too large: " + len);
+                byte[] payload = in.readNBytes(len);
+                if (payload.length < len)
+                    throw new EOFException("truncated frame");
+                msg = BinaryMessageCodec.decode(payload, 0, len);
+            } else {
+                ByteArrayOutputStream line = new ByteArrayOutputStream(256);
+                int b;
+                while ((b = in.read()) != -1 && b != '\n') {
+                    line.write(b);
+                    if (line.size() > MAX_FRAME_BYTES)
+                        throw new IOException("line too long");
+                }
+                if (b == -1 && line.size() == 0)
+                    return null;
+                msg = decode(line.toString(StandardCharsets.UTF_8));
+            }
+            if (msg != null)
+                return msg;
+        }
+    }
+
+    /** Reads a varint length, or returns -1 on end of stream before it starts. */
+    private static int readVarint(InputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.read();
+            if (b == -1) {
+                if (shift == 0)
+                    return -1;
+                throw new EOFException("truncated frame length");
+            }
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0)
+                return value;
+        }
+        throw new IOException("malformed frame length");
+    }
 }
@@ -4,8 +4,9 @@ import java.util.List;
 
 /**
  * Wire format for messages exchanged between the server and its clients
- * (#87). Serialised to JSON (one message per line) by Gson. A single POJO
- * shape is used in both directions; unused fields are left null.
+ * (#87). Serialised either to JSON (one message per line) by Gson or to the
+ * compact {@link BinaryMessageCodec} form. A single POJO shape is used in
+ * both directions; unused fields are left null.
  *
  * <p>
  * Message {@link #type} names come from {@link Type}. The server drives
@@ -36,7 +37,9 @@ public class NetworkMessage {
         MAP_UPDATE,
         // chat box
         CHAT,
-        PLAYER_LEFT
+        PLAYER_LEFT,
+        // Client -> Server: cached map is out of date, send it whole
+        MAP_RESYNC
     }
 
     public Type type;
@@ -48,6 +51,18 @@ public class NetworkMessage {
     public String name;
     public Integer playerIndex;
 
+    /**
+     * Room to join (JOIN) or the room that was joined (WELCOME). Null means
+     * the server's default room.
+     */
+    public String roomId;
+
+    /**
+     * Wire format requested in JOIN and confirmed in WELCOME ("json" or
+     * "binary"); see {@link MessageCodec.Format}.
+     */
+    public String codec;
+
     // Phase / turn
     public String phase;
     public Integer currentPlayer;
@@ -89,8 +104,22 @@ public class NetworkMessage {
     /** Column of the cell the client wants to claim (CLAIM_CELL). */
     public Integer col;
 
+    /** Full board, row-major, one owner char per cell (MAP_UPDATE, GAME_OVER). */
     public String gridSnapshot;
 
+    /**
+     * Version of the server's board (MAP_UPDATE, GAME_OVER). A delta moves
+     * a client from {@code mapVersion - 1} to {@code mapVersion}.
+     */
+    public Integer mapVersion;
+
+    /**
+     * Cells changed since the previous version, as flat
+     * {@code [row * mapSize + col, owner char, ...]} pairs (MAP_UPDATE).
+     * Empty means the board is unchanged at {@link #mapVersion}.
+     */
+    public List<Integer> changedCells;
+
     public String disconnectedPlayerName;
     public Integer disconnectedPlayerIndex;
 
@@ -118,8 +147,13 @@ public class NetworkMessage {
     }
 
     public static NetworkMessage join(String name) {
+        return join(name, null);
+    }
+
+    public static NetworkMessage join(String name, String roomId) {
         NetworkMessage m = new NetworkMessage(Type.JOIN);
         m.name = name;
+        m.roomId = roomId;
         return m;
     }
 
@@ -141,6 +175,10 @@ public class NetworkMessage {
         return m;
     }
 
+    public static NetworkMessage mapResync() {
+        return new NetworkMessage(Type.MAP_RESYNC);
+    }
+
     public static NetworkMessage error(String msg) {
         NetworkMessage m = new NetworkMessage(Type.ERROR);
         m.errorMessage = msg;
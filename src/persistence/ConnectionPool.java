@@ -0,0 +1,168 @@
+package persistence;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A small bounded pool of long-lived JDBC connections. At most
+ * {@code maxSize} connections are lent out at once; a borrower waits up to
+ * the borrow timeout for one to come back, then gets an
+ * {@link SQLException}. Idle connections are reused most-recent first, so
+ * the busiest ones keep their statement caches warm.
+ *
+ * <p>
+ * Connections are opened lazily by the {@link ConnectionFactory}, which is
+ * where database-specific setup (pragmas and so on) belongs, and are only
+ * closed by {@link #close()} or when they turn out to be broken.
+ * </p>
+ */
+public class ConnectionPool implements AutoCloseable {
+
+    /** Opens and prepares one new connection. */
+    @FunctionalInterface
+    public interface ConnectionFactory {
+        Connection open() throws SQLException;
+    }
+
+    private final ConnectionFactory factory;
+    private final int maxSize;
+    private final long borrowTimeoutMs;
+    private final int statementCacheSize;
+    private final Semaphore permits;
+    private final ConcurrentLinkedDeque<PooledConnection> idle = new ConcurrentLinkedDeque<>();
+    private volatile boolean closed;
+
+    // ── Metrics ──
+    private final LongAdder borrows = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder opened = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final LongAccumulator maxWaitNanos = new LongAccumulator(Math::max, 0);
+    private final AtomicInteger active = new AtomicInteger();
+    final LongAdder statementHits = new LongAdder();
+    final LongAdder statementMisses = new LongAdder();
+
+    public ConnectionPool(ConnectionFactory factory, int maxSize, long borrowTimeoutMs, int statementCacheSize) {
+        if (maxSize < 1)
+            throw new IllegalArgumentException("maxSize must be at least 1");
+        this.factory = factory;
+        this.maxSize = maxSize;
+        this.borrowTimeoutMs = borrowTimeoutMs;
+        this.statementCacheSize = statementCacheSize;
+        this.permits = new Semaphore(maxSize, true);
+    }
+
+    /**
+     * Lends out a connection; close the returned handle (try-with-resources)
+     * to give it back.
+     */
+    public PooledConnection borrow() throws SQLException {
+        if (closed)
+            throw new SQLException("connection pool is closed");
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(borrowTimeoutMs, TimeUnit.MILLISECONDS)) {
+                timeouts.increment();
+                throw new SQLException("timed out after " + borrowTimeoutMs + " ms waiting for a database connection ("
+                        + maxSize + " in use)");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("interrupted waiting for a database connection", e);
+        }
+        long waited = System.nanoTime() - start;
+        borrows.increment();
+        waitNanos.add(waited);
+        maxWaitNanos.accumulate(waited);
+
+        try {
+            PooledConnection c;
+            while ((c = idle.pollFirst()) != null) {
+                if (!c.raw().isClosed())
+                    break;
+                c.discard();
+            }
+            if (c == null) {
+                c = new PooledConnection(this, factory.open(), statementCacheSize);
+                opened.increment();
+            }
+            c.lend();
+            active.incrementAndGet();
+            return c;
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /** Called by {@link PooledConnection#close()}. */
+    void release(PooledConnection c, boolean broken) {
+        active.decrementAndGet();
+        if (broken || closed)
+            c.discard();
+        else
+            idle.offerFirst(c);
+        permits.release();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /** Closes every idle connection; connections still lent out close when returned. */
+    @Override
+    public void close() {
+        closed = true;
+        PooledConnection c;
+        while ((c = idle.pollFirst()) != null)
+            c.discard();
+    }
+
+    public Stats stats() {
+        return new Stats(borrows.sum(), timeouts.sum(), opened.sum(), waitNanos.sum(), maxWaitNanos.get(),
+                active.get(), idle.size(), statementHits.sum(), statementMisses.sum());
+    }
+
+    /** A snapshot of the pool's counters since it was created. */
+    public static final class Stats {
+        public final long borrows;
+        public final long timeouts;
+        public final long opened;
+        public final long totalWaitNanos;
+        public final long maxWaitNanos;
+        public final int active;
+        public final int idle;
+        public final long statementHits;
+        public final long statementMisses;
+
+        Stats(long borrows, long timeouts, long opened, long totalWaitNanos, long maxWaitNanos, int active, int idle,
+                long statementHits, long statementMisses) {
+            this.borrows = borrows;
+            this.timeouts = timeouts;
+            this.opened = opened;
+            this.totalWaitNanos = totalWaitNanos;
+            this.maxWaitNanos = maxWaitNanos;
+            this.active = active;
+            this.idle = idle;
+            this.statementHits = statementHits;
+            this.statementMisses = statementMisses;
+        }
+
+        public double averageWaitMs() {
+            return borrows == 0 ? 0 : totalWaitNanos / 1e6 / borrows;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("borrows=%d timeouts=%d opened=%d active=%d idle=%d wait(avg=%.3f ms, max=%.3f ms) "
+                    + "statements(hits=%d, misses=%d)", borrows, timeouts, opened, active, idle, averageWaitMs(),
+                    maxWaitNanos / 1e6, statementHits, statementMisses);
+        }
+    }
+}
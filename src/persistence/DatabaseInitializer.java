@@ -1,16 +1,26 @@
 package persistence;
 
-import java.sql.Connection;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 
 public class DatabaseInitializer {
 
+    private static boolean initialized;
+
+    /** Runs {@link #initialize()} the first time it is called in this process. */
+    public static synchronized void ensureInitialized() {
+        if (!initialized) {
+            initialize();
+            initialized = true;
+        }
+    }
+
     public static void initialize() {
 
         try (
-                Connection conn = DatabaseManager.getConnection();
-                Statement stmt = conn.createStatement()) {
+                PooledConnection conn = DatabaseManager.borrow();
+                Statement stmt = conn.raw().createStatement()) {
             stmt.execute("""
 
                     CREATE TABLE IF NOT EXISTS users(
@@ -26,26 +36,35 @@ public class DatabaseInitializer {
                     """
 
             );
+            retireOldSavedGames(stmt);
+            // One row per named save slot. The header columns are what the
+            // load screen lists; game_state (a GameMementoStore encoding)
+            // stays last so reading the headers never touches its pages.
             stmt.execute("""
                                 CREATE TABLE IF NOT EXISTS saved_games(
                                     id INTEGER PRIMARY KEY AUTOINCREMENT,
-                                    save_name TEXT NOT NULL,
+                                    save_name TEXT NOT NULL UNIQUE,
                                     map_size INTEGER NOT NULL,
                                     game_mode TEXT NOT NULL,
                                     phase  TEXT NOT NULL,
                                     current_turn_user_id INTEGER,
-                                    player1_user_id INTEGER NOT NULL,
-                                    player2_user_id INTEGER NOT NULL,
-                                    game_state_json TEXT NOT NULL,
+                                    player1_user_id INTEGER,
+                                    player2_user_id INTEGER,
+                                    players TEXT NOT NULL,
+                                    round INTEGER NOT NULL,
+                                    saved_at TEXT,
                                     created_at TEXT NOT NULL DEFAULT CURRENT_TIMESTAMP,
                                     updated_at TEXT NOT NULL DEFAULT CURRENT_TIMESTAMP,
+                                    game_state BLOB NOT NULL,
                                     FOREIGN KEY (player1_user_id) REFERENCES users(id),
                                     FOREIGN KEY (player2_user_id) REFERENCES users(id),
                                     FOREIGN KEY (current_turn_user_id) REFERENCES users(id)
-
-
                                 )
-
+                    """);
+            // Covers the slot list, so listing reads this index alone.
+            stmt.execute("""
+                        CREATE INDEX IF NOT EXISTS idx_saved_games_list
+                            ON saved_games (updated_at DESC, save_name, saved_at, players, round, map_size, game_mode)
                     """);
             stmt.execute("""
                         CREATE TABLE IF NOT EXISTS leaderboard_entries (
@@ -64,9 +83,87 @@ public class DatabaseInitializer {
                             FOREIGN KEY (user_id) REFERENCES users(id)
                         )
                     """);
+            // Running totals per player for every (mode, map size) pair, plus
+            // the rollups '*' = any mode and 0 = any size, so a top-N read is
+            // one index range scan instead of an aggregate over every game.
+            stmt.execute("""
+                        CREATE TABLE IF NOT EXISTS leaderboard_totals (
+                            user_id INTEGER NOT NULL,
+                            game_mode TEXT NOT NULL,
+                            map_size INTEGER NOT NULL,
+                            games INTEGER NOT NULL DEFAULT 0,
+                            wins INTEGER NOT NULL DEFAULT 0,
+                            total_score INTEGER NOT NULL DEFAULT 0,
+                            total_response_time_ms REAL NOT NULL DEFAULT 0,
+                            PRIMARY KEY (user_id, game_mode, map_size),
+                            FOREIGN KEY (user_id) REFERENCES users(id)
+                        )
+                    """);
+            stmt.execute("""
+                        CREATE INDEX IF NOT EXISTS idx_leaderboard_totals_rank
+                            ON leaderboard_totals (game_mode, map_size, wins DESC, total_score DESC, games)
+                    """);
+            backfillTotals(stmt);
 
         } catch (SQLException e) {
             throw new RuntimeException("Failed to initialize the database", e);
         }
     }
+
+    /**
+     * Renames a {@code saved_games} table in the first layout (JSON text
+     * state, required account ids) to {@code saved_games_v1}, so the slot
+     * table can be created; its rows are kept, not converted.
+     */
+    private static void retireOldSavedGames(Statement stmt) throws SQLException {
+        boolean old = false;
+        try (ResultSet rs = stmt.executeQuery("PRAGMA table_info(saved_games)")) {
+            while (rs.next()) {
+                if ("game_state_json".equals(rs.getString("name")))
+                    old = true;
+            }
+        }
+        if (old)
+            stmt.execute("ALTER TABLE saved_games RENAME TO saved_games_v1");
+    }
+
+    /**
+     * Builds the totals from existing games once, when the table is new. Like
+     * {@link LeaderboardRecorder}, each game counts once under every distinct
+     * key among its exact (mode, size) and the rollups over any mode
+     * ({@code '*'}) and any size (0). A game without a mode or size already
+     * has that rollup as its exact key, so the rollup passes skip it, and
+     * passes that meet on a key add up instead of overwriting.
+     */
+    private static void backfillTotals(Statement stmt) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery("""
+                SELECT (SELECT COUNT(*) FROM leaderboard_totals), (SELECT COUNT(*) FROM leaderboard_entries)
+                """)) {
+            if (!rs.next() || rs.getLong(1) > 0 || rs.getLong(2) == 0)
+                return;
+        }
+        String mode = "COALESCE(game_mode, '*')";
+        String size = "COALESCE(map_size, 0)";
+        String hasMode = "game_mode IS NOT NULL";
+        String hasSize = size + " <> 0";
+        String[][] groupings = {
+                { mode, size, "1" },
+                { mode, "0", hasSize },
+                { "'*'", size, hasMode },
+                { "'*'", "0", hasMode + " AND " + hasSize },
+        };
+        for (String[] g : groupings) {
+            // The WHERE is always present: SQLite needs one before an upsert's ON CONFLICT.
+            // Grouping is by result position; a literal 0 in GROUP BY would mean a column number.
+            stmt.execute("INSERT INTO leaderboard_totals "
+                    + "(user_id, game_mode, map_size, games, wins, total_score, total_response_time_ms) "
+                    + "SELECT user_id, " + g[0] + ", " + g[1] + ", COUNT(*), COALESCE(SUM(won), 0), "
+                    + "COALESCE(SUM(score), 0), COALESCE(SUM(average_response_time_ms), 0) FROM leaderboard_entries "
+                    + "WHERE " + g[2] + " GROUP BY 1, 2, 3 "
+                    + "ON CONFLICT (user_id, game_mode, map_size) DO UPDATE SET "
+                    + "games = games + excluded.games, wins = wins + excluded.wins, "
+                    + "total_score = total_score + excluded.total_score, "
+                    + "total_response_time_ms = total_response_time_ms + excluded.total_response_time_ms");
+        }
+    }
 }
@@ -3,11 +3,103 @@ package persistence;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.sql.Statement;
 
+/**
+ * Shared access to the SQLite database through one {@link ConnectionPool}.
+ * The pool starts on first use: it switches the file to WAL journaling
+ * (readers no longer block the writer, and the setting sticks to the
+ * file), and every connection it opens gets the per-connection pragmas
+ * once, when opened.
+ *
+ * <p>
+ * Pool size defaults to 4 connections ({@code -Dmindwars.db.pool=<n>});
+ * SQLite allows a single writer at a time, so more mainly helps readers.
+ * Writers that find the database locked wait up to the busy timeout
+ * instead of failing.
+ * </p>
+ */
 public class DatabaseManager {
     private static final String DB_URL = "jdbc:sqlite:mindwars.db";
 
-    public static Connection getConnection() throws SQLException {
-        return DriverManager.getConnection(DB_URL);
+    private static final int POOL_SIZE = Integer.getInteger("mindwars.db.pool", 4);
+    private static final long BORROW_TIMEOUT_MS = 10_000;
+    private static final int STATEMENT_CACHE_SIZE = 32;
+    private static final int BUSY_TIMEOUT_MS = 5_000;
+
+    private static ConnectionPool pool;
+    private static boolean hookRegistered;
+
+    /** Borrows a pooled connection; close it to give it back. */
+    public static PooledConnection borrow() throws SQLException {
+        return pool().borrow();
+    }
+
+    /** Borrow counts, wait times, active connections and statement cache hits. */
+    public static ConnectionPool.Stats poolStats() {
+        return pool().stats();
+    }
+
+    /** Closes the pool's idle connections; the next borrow starts a new pool. */
+    public static synchronized void shutdown() {
+        if (pool != null) {
+            pool.close();
+            pool = null;
+        }
+    }
+
+    private static synchronized ConnectionPool pool() {
+        if (pool == null) {
+            ConnectionPool p = new ConnectionPool(DatabaseManager::open, POOL_SIZE, BORROW_TIMEOUT_MS,
+                    STATEMENT_CACHE_SIZE);
+            try (PooledConnection c = p.borrow(); Statement stmt = c.raw().createStatement()) {
+                stmt.execute("PRAGMA journal_mode=WAL");
+            } catch (SQLException e) {
+                System.err.println("[db] could not enable WAL: " + e.getMessage());
+            }
+            pool = p;
+            registerShutdownHook();
+        }
+        return pool;
+    }
+
+    /**
+     * Drains {@code recorder} (if any) and only then runs {@code closePool},
+     * so the recorder's last batches can still borrow a connection.
+     */
+    public static void closeInOrder(LeaderboardRecorder recorder, Runnable closePool) {
+        if (recorder != null)
+            recorder.close();
+        closePool.run();
+    }
+
+    /**
+     * Installs the one exit hook that closes the database side in order.
+     * JVM shutdown hooks run concurrently, so the recorder must not have its
+     * own: the pool could close under its final drain.
+     */
+    static synchronized void registerShutdownHook() {
+        if (hookRegistered)
+            return;
+        hookRegistered = true;
+        Runtime.getRuntime().addShutdownHook(new Thread(
+                () -> closeInOrder(LeaderboardRecorder.sharedIfStarted(), DatabaseManager::shutdown),
+                "MindWars-DbShutdown"));
+    }
+
+    /** Opens one connection with the pragmas that only last for its lifetime. */
+    private static Connection open() throws SQLException {
+        Connection conn = DriverManager.getConnection(DB_URL);
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("PRAGMA busy_timeout=" + BUSY_TIMEOUT_MS);
+            // Safe with WAL: a crash can lose the last commits but never corrupts the file.
+            stmt.execute("PRAGMA synchronous=NORMAL");
+            stmt.execute("PRAGMA temp_store=MEMORY");
+            stmt.execute("PRAGMA cache_size=-8000");
+        } catch (SQLException e) {
+            conn.close();
+            throw e;
+        }
+        return conn;
     }
 }
@@ -0,0 +1,311 @@
+package persistence;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Write-behind recorder for {@code leaderboard_entries}. {@link #submit}
+ * only queues a result; one background thread drains the queue and writes
+ * whatever has piled up as a single batched transaction, so finishing a
+ * game never waits on the database.
+ *
+ * <p>
+ * The queue is bounded. When it is full, {@link #submit} waits up to
+ * {@link #OFFER_TIMEOUT_MS} for the writer to make room and then drops the
+ * result (counted in {@link #getDropped()}) rather than stall the caller.
+ * {@link #close()} stops taking results and writes everything still
+ * queued; the shared instance does that at JVM exit, from the database
+ * shutdown hook, before the connection pool closes.
+ * </p>
+ *
+ * <p>
+ * Rows are keyed by account: a result carries the {@link Result#userId}
+ * of the signed-in user who played it, never a typed name, so nobody can
+ * add games to an account by entering its username. Guests and bots have
+ * no id and are not submitted; an id with no {@code users} row is skipped.
+ * </p>
+ */
+public class LeaderboardRecorder implements AutoCloseable {
+
+    /** Longest a caller waits for room in a full queue. */
+    public static final long OFFER_TIMEOUT_MS = 50;
+    /** How many results one transaction writes at most. */
+    static final int MAX_BATCH = 256;
+    private static final int DEFAULT_CAPACITY = 4096;
+
+    static final String INSERT_SQL = """
+            INSERT INTO leaderboard_entries (user_id, score, territories_owned, correct_answers, wrong_answers,
+                average_response_time_ms, fastest_response_time_ms, won, game_mode, map_size)
+            SELECT id, ?, ?, ?, ?, ?, ?, ?, ?, ? FROM users WHERE id = ?
+            """;
+
+    /** Adds one game to a player's running totals for one (mode, map size) key. */
+    static final String TOTALS_SQL = """
+            INSERT INTO leaderboard_totals (user_id, game_mode, map_size, games, wins, total_score,
+                total_response_time_ms)
+            SELECT id, ?, ?, 1, ?, ?, ? FROM users WHERE id = ?
+            ON CONFLICT (user_id, game_mode, map_size) DO UPDATE SET
+                games = games + 1,
+                wins = wins + excluded.wins,
+                total_score = total_score + excluded.total_score,
+                total_response_time_ms = total_response_time_ms + excluded.total_response_time_ms
+            """;
+
+    /** One signed-in player's outcome of one finished game. */
+    public static final class Result {
+        /** {@code users.id} of the account that played. */
+        public final int userId;
+        public final int score;
+        public final int territories;
+        public final int correctAnswers;
+        public final int wrongAnswers;
+        public final double averageResponseMs;
+        public final double fastestResponseMs;
+        public final boolean won;
+        public final String gameMode;
+        public final int mapSize;
+
+        public Result(int userId, int score, int territories, int correctAnswers, int wrongAnswers,
+                double averageResponseMs, double fastestResponseMs, boolean won, String gameMode, int mapSize) {
+            this.userId = userId;
+            this.score = score;
+            this.territories = territories;
+            this.correctAnswers = correctAnswers;
+            this.wrongAnswers = wrongAnswers;
+            this.averageResponseMs = averageResponseMs;
+            this.fastestResponseMs = fastestResponseMs;
+            this.won = won;
+            this.gameMode = gameMode;
+            this.mapSize = mapSize;
+        }
+    }
+
+    /** Writes one batch; the SQL writer does it in a single transaction. */
+    @FunctionalInterface
+    public interface BatchWriter {
+        void write(List<Result> batch) throws SQLException;
+    }
+
+    private static LeaderboardRecorder shared;
+
+    private final BlockingQueue<Result> queue;
+    private final BatchWriter writer;
+    private final Thread thread;
+    private volatile boolean closing;
+    /**
+     * Submitters share the read side for their closing check and offer;
+     * {@link #close()} takes the write side, so once the writer sees
+     * {@code closing} no result can still be on its way into the queue.
+     */
+    private final ReadWriteLock closeLock = new ReentrantReadWriteLock();
+
+    private long submitted;
+    private long processed;
+    private final LongAdder written = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+
+    /** Recorder over the shared database pool; started on first use and closed at JVM exit. */
+    public static synchronized LeaderboardRecorder shared() {
+        if (shared == null) {
+            shared = new LeaderboardRecorder(DEFAULT_CAPACITY, LeaderboardRecorder::writeToDatabase);
+            DatabaseManager.registerShutdownHook();
+        }
+        return shared;
+    }
+
+    /** The shared recorder, or {@code null} if nothing has used it yet. */
+    static synchronized LeaderboardRecorder sharedIfStarted() {
+        return shared;
+    }
+
+    /** Recorder with its own queue of {@code capacity} results, writing through {@code writer}. */
+    public LeaderboardRecorder(int capacity, BatchWriter writer) {
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.writer = writer;
+        this.thread = new Thread(this::run, "MindWars-LeaderboardWriter");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Queues {@code result} for writing. Returns {@code false} if it was
+     * dropped because the recorder is closed or stayed full.
+     */
+    public boolean submit(Result result) {
+        boolean queued;
+        closeLock.readLock().lock();
+        try {
+            if (closing) {
+                dropped.increment();
+                return false;
+            }
+            synchronized (this) {
+                submitted++;
+            }
+            try {
+                queued = queue.offer(result) || queue.offer(result, OFFER_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                queued = false;
+            }
+        } finally {
+            closeLock.readLock().unlock();
+        }
+        if (!queued) {
+            dropped.increment();
+            markProcessed(1);
+        }
+        return queued;
+    }
+
+    /**
+     * Waits until everything submitted before this call has been written
+     * (or has failed). Returns {@code false} on timeout.
+     */
+    public boolean flush(long timeoutMs) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        synchronized (this) {
+            long target = submitted;
+            while (processed < target) {
+                long left = deadline - System.currentTimeMillis();
+                if (left <= 0)
+                    return false;
+                wait(left);
+            }
+        }
+        return true;
+    }
+
+    /** Stops accepting results and writes what is still queued (waits up to 5 s). */
+    @Override
+    public void close() {
+        closeLock.writeLock().lock();
+        try {
+            if (closing)
+                return;
+            closing = true;
+        } finally {
+            closeLock.writeLock().unlock();
+        }
+        try {
+            thread.join(5_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public long getWritten() {
+        return written.sum();
+    }
+
+    public long getFailed() {
+        return failed.sum();
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    public long getBatches() {
+        return batches.sum();
+    }
+
+    public int getQueued() {
+        return queue.size();
+    }
+
+    // ── Writer thread ──
+
+    private void run() {
+        List<Result> batch = new ArrayList<>(MAX_BATCH);
+        // Once closing, keep going until the queue is empty, then stop.
+        while (!closing || !queue.isEmpty()) {
+            Result first;
+            try {
+                first = queue.poll(200, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                continue;
+            }
+            if (first == null)
+                continue;
+            batch.add(first);
+            queue.drainTo(batch, MAX_BATCH - 1);
+            writeBatch(batch);
+        }
+    }
+
+    private void writeBatch(List<Result> batch) {
+        try {
+            writer.write(batch);
+            written.add(batch.size());
+            batches.increment();
+        } catch (SQLException | RuntimeException e) {
+            failed.add(batch.size());
+            System.err.println("[leaderboard] could not write " + batch.size() + " results: " + e.getMessage());
+        }
+        markProcessed(batch.size());
+        batch.clear();
+    }
+
+    private synchronized void markProcessed(int n) {
+        processed += n;
+        notifyAll();
+    }
+
+    /**
+     * Queues the totals updates for {@code r}: its exact (mode, map size)
+     * key and the rollups over any mode ({@code '*'}) and any size (0).
+     */
+    private static void addTotals(PreparedStatement totals, Result r) throws SQLException {
+        String mode = r.gameMode == null ? "*" : r.gameMode;
+        String[] modes = mode.equals("*") ? new String[] { "*" } : new String[] { mode, "*" };
+        int[] sizes = r.mapSize == 0 ? new int[] { 0 } : new int[] { r.mapSize, 0 };
+        for (String m : modes) {
+            for (int size : sizes) {
+                totals.setString(1, m);
+                totals.setInt(2, size);
+                totals.setInt(3, r.won ? 1 : 0);
+                totals.setInt(4, r.score);
+                totals.setDouble(5, r.averageResponseMs);
+                totals.setInt(6, r.userId);
+                totals.addBatch();
+            }
+        }
+    }
+
+    private static void writeToDatabase(List<Result> batch) throws SQLException {
+        DatabaseInitializer.ensureInitialized();
+        try (PooledConnection conn = DatabaseManager.borrow()) {
+            conn.raw().setAutoCommit(false);
+            PreparedStatement stmt = conn.prepare(INSERT_SQL);
+            PreparedStatement totals = conn.prepare(TOTALS_SQL);
+            for (Result r : batch) {
+                stmt.setInt(1, r.score);
+                stmt.setInt(2, r.territories);
+                stmt.setInt(3, r.correctAnswers);
+                stmt.setInt(4, r.wrongAnswers);
+                stmt.setDouble(5, r.averageResponseMs);
+                stmt.setDouble(6, r.fastestResponseMs);
+                stmt.setInt(7, r.won ? 1 : 0);
+                stmt.setString(8, r.gameMode);
+                stmt.setInt(9, r.mapSize);
+                stmt.setInt(10, r.userId);
+                stmt.addBatch();
+                addTotals(totals, r);
+            }
+            stmt.executeBatch();
+            totals.executeBatch();
+            conn.raw().commit();
+        }
+    }
+}
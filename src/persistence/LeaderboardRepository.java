@@ -0,0 +1,71 @@
+package persistence;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Leaderboard reads from the {@code leaderboard_totals} table that
+ * {@link LeaderboardRecorder} keeps up to date. Rankings walk the
+ * {@code idx_leaderboard_totals_rank} index in order and stop after
+ * {@code limit} rows, so the cost follows the rows shown, not the number
+ * of players or games stored.
+ */
+public class LeaderboardRepository {
+
+    /** {@code game_mode} of the rows that cover every mode. */
+    public static final String ANY_MODE = "*";
+    /** {@code map_size} of the rows that cover every size. */
+    public static final int ANY_SIZE = 0;
+
+    private static final String TOP_SQL = """
+            SELECT u.username, t.games, t.wins, t.total_score, t.total_response_time_ms / t.games
+            FROM leaderboard_totals t JOIN users u ON u.id = t.user_id
+            WHERE t.game_mode = ? AND t.map_size = ?
+            ORDER BY t.wins DESC, t.total_score DESC, t.games
+            LIMIT ?
+            """;
+
+    /** One player's totals for the requested mode and map size. */
+    public static final class Row {
+        public final String username;
+        public final int games;
+        public final int wins;
+        public final int totalScore;
+        public final double averageResponseMs;
+
+        Row(String username, int games, int wins, int totalScore, double averageResponseMs) {
+            this.username = username;
+            this.games = games;
+            this.wins = wins;
+            this.totalScore = totalScore;
+            this.averageResponseMs = averageResponseMs;
+        }
+    }
+
+    /**
+     * The best {@code limit} players, by wins, then total score, then fewer
+     * games. {@code gameMode} {@code null} means any mode; {@code mapSize}
+     * {@code null} means any size.
+     */
+    public List<Row> top(int limit, String gameMode, Integer mapSize) {
+        DatabaseInitializer.ensureInitialized();
+        try (PooledConnection conn = DatabaseManager.borrow()) {
+            PreparedStatement stmt = conn.prepare(TOP_SQL);
+            stmt.setString(1, gameMode == null ? ANY_MODE : gameMode);
+            stmt.setInt(2, mapSize == null ? ANY_SIZE : mapSize);
+            stmt.setInt(3, limit);
+            List<Row> rows = new ArrayList<>(limit);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    rows.add(new Row(rs.getString(1), rs.getInt(2), rs.getInt(3), rs.getInt(4), rs.getDouble(5)));
+                }
+            }
+            return rows;
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to read the leaderboard", e);
+        }
+    }
+}
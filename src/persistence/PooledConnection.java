@@ -0,0 +1,115 @@
+package persistence;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A connection lent out by a {@link ConnectionPool}. Closing it hands the
+ * connection back instead of closing it, after rolling back any
+ * transaction the borrower left open.
+ *
+ * <p>
+ * {@link #prepare(String)} keeps each connection's prepared statements in a
+ * small LRU cache, so a query is parsed once per connection rather than
+ * once per call. Cached statements belong to the connection: use them,
+ * close their result sets, but do not close the statements themselves.
+ * </p>
+ */
+public class PooledConnection implements AutoCloseable {
+
+    private final ConnectionPool pool;
+    private final Connection conn;
+    private final Map<String, PreparedStatement> statements;
+    private boolean lent;
+    private boolean broken;
+
+    PooledConnection(ConnectionPool pool, Connection conn, int cacheSize) {
+        this.pool = pool;
+        this.conn = conn;
+        this.statements = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                if (size() <= cacheSize)
+                    return false;
+                closeQuietly(eldest.getValue());
+                return true;
+            }
+        };
+    }
+
+    /** The underlying connection, for DDL and transaction control. Do not close it. */
+    public Connection raw() {
+        return conn;
+    }
+
+    /** A cached statement for {@code sql}, with its parameters cleared. */
+    public PreparedStatement prepare(String sql) throws SQLException {
+        return prepare(sql, Statement.NO_GENERATED_KEYS);
+    }
+
+    /** Same as {@link #prepare(String)}, for statements that return generated keys. */
+    public PreparedStatement prepare(String sql, int autoGeneratedKeys) throws SQLException {
+        String key = autoGeneratedKeys == Statement.RETURN_GENERATED_KEYS ? "K:" + sql : sql;
+        PreparedStatement stmt = statements.get(key);
+        if (stmt != null && !stmt.isClosed()) {
+            pool.statementHits.increment();
+            stmt.clearParameters();
+            return stmt;
+        }
+        pool.statementMisses.increment();
+        stmt = conn.prepareStatement(sql, autoGeneratedKeys);
+        statements.put(key, stmt);
+        return stmt;
+    }
+
+    /** Tells the pool to close this connection instead of reusing it. */
+    public void markBroken() {
+        broken = true;
+    }
+
+    void lend() {
+        lent = true;
+        broken = false;
+    }
+
+    /** Returns the connection to its pool. */
+    @Override
+    public void close() {
+        if (!lent)
+            return;
+        lent = false;
+        try {
+            if (!conn.getAutoCommit()) {
+                conn.rollback();
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            broken = true;
+        }
+        pool.release(this, broken);
+    }
+
+    /** Closes the cached statements and the connection itself. */
+    void discard() {
+        for (Iterator<PreparedStatement> it = statements.values().iterator(); it.hasNext();) {
+            closeQuietly(it.next());
+            it.remove();
+        }
+        try {
+            conn.close();
+        } catch (SQLException ignored) {
+        }
+    }
+
+    private static void closeQuietly(Statement stmt) {
+        try {
+            stmt.close();
+        } catch (SQLException ignored) {
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package persistence;
+
+import model.GameMementoStore;
+import model.GameMementoStore.SlotInfo;
+
+import java.io.IOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Save slots in the {@code saved_games} table. Listing selects only the
+ * header columns, which {@code idx_saved_games_list} covers in list order,
+ * so hundreds of saves list without reading a single game state. States
+ * are read and written as opaque blobs.
+ */
+public class SavedGameRepository implements GameMementoStore.SlotStorage {
+
+    private static final String LIST_SQL = """
+            SELECT save_name, saved_at, players, round, map_size, game_mode
+            FROM saved_games
+            ORDER BY updated_at DESC, save_name
+            """;
+
+    private static final String PUT_SQL = """
+            INSERT INTO saved_games (save_name, map_size, game_mode, phase, players, round, saved_at, game_state)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+            ON CONFLICT (save_name) DO UPDATE SET
+                map_size = excluded.map_size,
+                game_mode = excluded.game_mode,
+                phase = excluded.phase,
+                players = excluded.players,
+                round = excluded.round,
+                saved_at = excluded.saved_at,
+                game_state = excluded.game_state,
+                updated_at = CURRENT_TIMESTAMP
+            """;
+
+    private static final String GET_SQL = "SELECT game_state FROM saved_games WHERE save_name = ?";
+    private static final String DELETE_SQL = "DELETE FROM saved_games WHERE save_name = ?";
+
+    /** Restoring always resumes at the hot-seat hand-over (see GameMemento). */
+    private static final String RESUME_PHASE = "HOT_SEAT_PASS";
+
+    /** Creates the schema on first use; an unavailable database surfaces as an IOException. */
+    private static void ready() throws IOException {
+        try {
+            DatabaseInitializer.ensureInitialized();
+        } catch (RuntimeException e) {
+            throw new IOException("The save database is unavailable.", e);
+        }
+    }
+
+    @Override
+    public List<SlotInfo> list() throws IOException {
+        ready();
+        try (PooledConnection conn = DatabaseManager.borrow()) {
+            List<SlotInfo> slots = new ArrayList<>();
+            try (ResultSet rs = conn.prepare(LIST_SQL).executeQuery()) {
+                while (rs.next()) {
+                    slots.add(new SlotInfo(rs.getString(1), rs.getString(2), rs.getString(3), rs.getInt(4),
+                            rs.getInt(5), rs.getString(6)));
+                }
+            }
+            return slots;
+        } catch (SQLException e) {
+            throw new IOException("Could not list saved games: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void put(SlotInfo header, byte[] state) throws IOException {
+        ready();
+        try (PooledConnection conn = DatabaseManager.borrow()) {
+            PreparedStatement stmt = conn.prepare(PUT_SQL);
+            stmt.setString(1, header.name);
+            stmt.setInt(2, header.mapSize);
+            stmt.setString(3, header.gameMode);
+            stmt.setString(4, RESUME_PHASE);
+            stmt.setString(5, header.players);
+            stmt.setInt(6, header.round);
+            stmt.setString(7, header.savedAt);
+            stmt.setBytes(8, state);
+            stmt.executeUpdate();
+        } catch (SQLException e) {
+            throw new IOException("Could not save the game: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public byte[] get(String name) throws IOException {
+        ready();
+        try (PooledConnection conn = DatabaseManager.borrow()) {
+            PreparedStatement stmt = conn.prepare(GET_SQL);
+            stmt.setString(1, name);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getBytes(1) : null;
+            }
+        } catch (SQLException e) {
+            throw new IOException("Could not read the saved game: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public boolean delete(String name) throws IOException {
+        ready();
+        try (PooledConnection conn = DatabaseManager.borrow()) {
+            PreparedStatement stmt = conn.prepare(DELETE_SQL);
+            stmt.setString(1, name);
+            return stmt.executeUpdate() > 0;
+        } catch (SQLException e) {
+            throw new IOException("Could not delete the saved game: " + e.getMessage(), e);
+        }
+    }
+}
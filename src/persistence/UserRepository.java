@@ -2,15 +2,23 @@ package persistence;
 
 import model.User;
 
-import java.sql.*;
-
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * User accounts in the {@code users} table. Every call borrows a pooled
+ * connection and reuses its cached statement for the query, so a login or
+ * registration storm neither reopens the database file nor re-parses SQL.
+ */
 public class UserRepository {
 
     public boolean usernameExists(String username) {
         String query = "SELECT 1 FROM users WHERE username = ? LIMIT 1";
 
-        try (Connection conn = DatabaseManager.getConnection()) {
-            PreparedStatement stmt = conn.prepareStatement(query);
+        try (PooledConnection conn = DatabaseManager.borrow()) {
+            PreparedStatement stmt = conn.prepare(query);
             stmt.setString(1, username);
             try (ResultSet rs = stmt.executeQuery()) {
                 return (rs.next());
@@ -24,8 +32,8 @@ public class UserRepository {
     public boolean emailExists(String username) {
         String query = "SELECT 1 FROM users WHERE email = ? LIMIT 1";
 
-        try (Connection conn = DatabaseManager.getConnection()) {
-            PreparedStatement stmt = conn.prepareStatement(query);
+        try (PooledConnection conn = DatabaseManager.borrow()) {
+            PreparedStatement stmt = conn.prepare(query);
             stmt.setString(1, username);
             try (ResultSet rs = stmt.executeQuery()) {
                 return (rs.next());
@@ -38,8 +46,8 @@ public class UserRepository {
 
     public User registerUser(String username, String email, String passwordHash) {
         String query = "INSERT INTO users (username, email, password_hash) VALUES (?, ?, ?)";
-        try (Connection conn = DatabaseManager.getConnection();
-                PreparedStatement stmt = conn.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
+        try (PooledConnection conn = DatabaseManager.borrow()) {
+            PreparedStatement stmt = conn.prepare(query, Statement.RETURN_GENERATED_KEYS);
             stmt.setString(1, username);
             stmt.setString(2, email);
             stmt.setString(3, passwordHash);
@@ -60,8 +68,8 @@ public class UserRepository {
     public User findByEmail(String email) {
         String query = "SELECT * FROM users WHERE email = ?";
 
-        try (Connection conn = DatabaseManager.getConnection();
-                PreparedStatement stmt = conn.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
+        try (PooledConnection conn = DatabaseManager.borrow()) {
+            PreparedStatement stmt = conn.prepare(query);
             stmt.setString(1, email);
 
             try (ResultSet rs = stmt.executeQuery()) {
@@ -0,0 +1,351 @@
+package trivia;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The checks {@link AnswerValidator} runs for one question, worked out once.
+ * The expected answer is pre-normalised, the valid choice letters are a
+ * bitmap and an ordering answer becomes a per-position mask of acceptable
+ * choice numbers, so checking an input is one pass over it with no regex
+ * and at most one upper-cased copy. Built lazily by {@link Question} and
+ * dropped whenever a setter changes the question.
+ *
+ * <p>
+ * Accepts and rejects exactly what the old regex-based checks did, except
+ * that a multiple-choice question with no choices now simply rejects every
+ * input instead of throwing, and ordering questions are limited to 64
+ * choices.
+ * </p>
+ *
+ * <p>
+ * Open-ended answers also accept the question's aliases and small typos:
+ * the answer and each alias are normalised once into {@link #acceptedForms},
+ * and an input that matches none of them exactly is compared with a banded
+ * edit distance that gives up as soon as a whole row exceeds the allowance
+ * (see {@link AnswerValidator#setTypoTolerance}). Forms containing digits
+ * are only matched exactly, so "1945" never accepts "1946".
+ * </p>
+ */
+final class AnswerMatcher {
+
+    private final QuestionType type;
+
+    /** MULTIPLE_CHOICE: number of choices, capped at 26 letters. */
+    private final int choiceCount;
+    /** MULTIPLE_CHOICE / TRUE_FALSE: expected letter, or 0 if none can match. */
+    private final char expectedLetter;
+
+    /** NUMERIC */
+    private final double numericAnswer;
+    private final double tolerance;
+
+    /**
+     * OPEN_ENDED: answer first, then each alias, upper-cased, stripped to
+     * [A-Z0-9 ], spaces collapsed; {@code null} without an answer.
+     */
+    private final char[][] acceptedForms;
+    /** Per accepted form: whether it contains a digit and so must match exactly. */
+    private final boolean[] exactOnly;
+    /** Other types: answer trimmed and upper-cased, or {@code null}. */
+    private final String expectedRaw;
+
+    /**
+     * ORDERING: bit {@code i} of {@code orderMasks[pos]} is set when choice
+     * {@code i + 1} is correct at position {@code pos}; {@code null} when no
+     * input can be correct.
+     */
+    private final long[] orderMasks;
+    private final int orderCount;
+
+    private AnswerMatcher(Question q) {
+        this.type = q.getType();
+        List<String> choices = q.getChoices();
+        int n = choices == null ? 0 : choices.size();
+        this.orderCount = n;
+        this.choiceCount = Math.min(n, 26);
+        this.numericAnswer = q.getNumericAnswer();
+        this.tolerance = q.getTolerance();
+
+        String answer = q.getAnswer() == null ? null : q.getAnswer().trim().toUpperCase();
+        this.expectedRaw = answer;
+        this.acceptedForms = answer == null ? null : acceptedForms(answer, q.getAliases());
+        this.exactOnly = acceptedForms == null ? null : new boolean[acceptedForms.length];
+        for (int f = 0; exactOnly != null && f < exactOnly.length; f++) {
+            for (char c : acceptedForms[f])
+                exactOnly[f] |= isDigit(c);
+        }
+
+        char letter = 0;
+        if (answer != null) {
+            if (type == QuestionType.TRUE_FALSE) {
+                if (answer.equals("T") || answer.equals("TRUE"))
+                    letter = 'T';
+                else if (answer.equals("F") || answer.equals("FALSE"))
+                    letter = 'F';
+            } else if (answer.length() == 1) {
+                letter = answer.charAt(0);
+            }
+        }
+        this.expectedLetter = letter;
+
+        this.orderMasks = type == QuestionType.ORDERING ? orderMasks(choices, q.getOrderingAnswer()) : null;
+    }
+
+    static AnswerMatcher of(Question q) {
+        return new AnswerMatcher(q);
+    }
+
+    /** The answer's normal form followed by those of its distinct, non-blank aliases. */
+    private static char[][] acceptedForms(String answer, List<String> aliases) {
+        List<char[]> forms = new ArrayList<>();
+        forms.add(normalise(answer));
+        if (aliases != null) {
+            for (String alias : aliases) {
+                if (alias == null)
+                    continue;
+                char[] form = normalise(alias.trim().toUpperCase());
+                boolean seen = form.length == 0;
+                for (int f = 0; f < forms.size() && !seen; f++)
+                    seen = Arrays.equals(forms.get(f), form);
+                if (!seen)
+                    forms.add(form);
+            }
+        }
+        return forms.toArray(new char[0][]);
+    }
+
+    private static long[] orderMasks(List<String> choices, List<String> order) {
+        if (choices == null || order == null || order.size() != choices.size() || choices.size() > 64)
+            return null;
+        long[] masks = new long[order.size()];
+        for (int pos = 0; pos < masks.length; pos++) {
+            for (int i = 0; i < choices.size(); i++) {
+                if (choices.get(i) == null ? order.get(pos) == null : choices.get(i).equals(order.get(pos)))
+                    masks[pos] |= 1L << i;
+            }
+        }
+        return masks;
+    }
+
+    // ── Validation ──
+
+    boolean isValid(String rawAnswer) {
+        if (rawAnswer == null)
+            return false;
+        String input = rawAnswer.trim();
+        if (input.isEmpty())
+            return false;
+        if (type == null)
+            return true;
+        return switch (type) {
+            case NUMERIC -> parseNumber(upper(input)) != null;
+            case TRUE_FALSE -> trueFalse(input) != 0;
+            case MULTIPLE_CHOICE -> choiceLetter(input) != 0;
+            case OPEN_ENDED -> true;
+            case ORDERING -> scanOrder(input, false);
+        };
+    }
+
+    // ── Checking ──
+
+    boolean isCorrect(String rawAnswer) {
+        if (rawAnswer == null)
+            return false;
+        String input = rawAnswer.trim();
+        if (input.isEmpty())
+            return false;
+        if (type == null)
+            return expectedRaw != null && input.toUpperCase().equals(expectedRaw);
+        switch (type) {
+            case NUMERIC: {
+                Double v = parseNumber(upper(input));
+                return v != null && Math.abs(v - numericAnswer) <= tolerance;
+            }
+            case TRUE_FALSE: {
+                char c = trueFalse(input);
+                return c != 0 && c == expectedLetter;
+            }
+            case MULTIPLE_CHOICE: {
+                char c = choiceLetter(input);
+                return c != 0 && c == expectedLetter;
+            }
+            case OPEN_ENDED:
+                return acceptedForms != null && matchesText(input.toUpperCase());
+            case ORDERING:
+                return scanOrder(input, true);
+            default:
+                return false;
+        }
+    }
+
+    /** Upper-cases only when needed; numbers rarely contain letters. */
+    private static String upper(String input) {
+        for (int i = 0; i < input.length(); i++)
+            if (Character.isLowerCase(input.charAt(i)))
+                return input.toUpperCase();
+        return input;
+    }
+
+    /** Parses with '.' or ',' as the decimal separator; {@code null} if not a number. */
+    private static Double parseNumber(String input) {
+        try {
+            return Double.parseDouble(input.indexOf(',') >= 0 ? input.replace(',', '.') : input);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /** 'T' or 'F' for T/F/TRUE/FALSE in any case, otherwise 0. */
+    private static char trueFalse(String input) {
+        if (input.equalsIgnoreCase("T") || input.equalsIgnoreCase("TRUE"))
+            return 'T';
+        if (input.equalsIgnoreCase("F") || input.equalsIgnoreCase("FALSE"))
+            return 'F';
+        return 0;
+    }
+
+    /** The choice letter for "B", "b" or "2", or 0 if out of range. */
+    private char choiceLetter(String input) {
+        if (input.length() != 1)
+            return 0;
+        char c = Character.toUpperCase(input.charAt(0));
+        if (c >= 'A' && c < 'A' + choiceCount)
+            return c;
+        if (c >= '1' && c <= '9' && c - '1' < choiceCount)
+            return (char) ('A' + (c - '1'));
+        return 0;
+    }
+
+    /**
+     * Normalises {@code upper} once, then tries every accepted form: an
+     * exact match first, and only if none matches, the bounded edit
+     * distance against the forms long enough to allow a typo.
+     */
+    private boolean matchesText(String upper) {
+        char[] in = new char[upper.length()];
+        int n = normalise(upper, in);
+        for (char[] form : acceptedForms) {
+            if (Arrays.equals(in, 0, n, form, 0, form.length))
+                return true;
+        }
+        for (int f = 0; f < acceptedForms.length; f++) {
+            int k = exactOnly[f] ? 0 : AnswerValidator.allowedTypos(acceptedForms[f].length);
+            if (k > 0 && withinEdits(in, n, acceptedForms[f], k))
+                return true;
+        }
+        return false;
+    }
+
+    private static char[] normalise(String upper) {
+        char[] out = new char[upper.length()];
+        return Arrays.copyOf(out, normalise(upper, out));
+    }
+
+    /**
+     * Writes {@code upper} into {@code out} keeping only [A-Z0-9 ], with runs
+     * of spaces folded into one and no leading or trailing space; returns
+     * the length written.
+     */
+    private static int normalise(String upper, char[] out) {
+        int j = 0;
+        boolean space = false;
+        for (int i = 0; i < upper.length(); i++) {
+            char c = upper.charAt(i);
+            if (c == ' ') {
+                space = j > 0;
+                continue;
+            }
+            if (!((c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')))
+                continue;
+            if (space) {
+                out[j++] = ' ';
+                space = false;
+            }
+            out[j++] = c;
+        }
+        return j;
+    }
+
+    /**
+     * Whether the first {@code n} chars of {@code a} are at most {@code k}
+     * insertions, deletions or substitutions away from {@code b}. Only the
+     * diagonal band of width {@code 2k + 1} is filled in, and it stops as
+     * soon as every cell of a row is over {@code k}, so a wrong answer
+     * usually costs a few rows.
+     */
+    static boolean withinEdits(char[] a, int n, char[] b, int k) {
+        int m = b.length;
+        if (Math.abs(n - m) > k)
+            return false;
+        int over = k + 1;
+        int[] prev = new int[m + 1];
+        int[] cur = new int[m + 1];
+        for (int j = 0; j <= m; j++)
+            prev[j] = j <= k ? j : over;
+        for (int i = 1; i <= n; i++) {
+            int lo = Math.max(1, i - k);
+            int hi = Math.min(m, i + k);
+            cur[lo - 1] = lo == 1 && i <= k ? i : over;
+            int rowMin = cur[lo - 1];
+            char c = a[i - 1];
+            for (int j = lo; j <= hi; j++) {
+                int d = prev[j - 1] + (c == b[j - 1] ? 0 : 1);
+                d = Math.min(d, Math.min(prev[j], cur[j - 1]) + 1);
+                cur[j] = d;
+                if (d < rowMin)
+                    rowMin = d;
+            }
+            if (hi < m)
+                cur[hi + 1] = over;
+            if (rowMin > k)
+                return false;
+            int[] t = prev;
+            prev = cur;
+            cur = t;
+        }
+        return prev[m] <= k;
+    }
+
+    /**
+     * Reads the digit groups of an ordering answer ("2,1,3", "2 1 3", ...)
+     * in one pass. Valid means exactly one number per choice, each in
+     * range, none repeated, and no separator before the first one. With
+     * {@code checkOrder} it also requires the choices to be in the correct
+     * order.
+     */
+    private boolean scanOrder(String input, boolean checkOrder) {
+        int n = orderCount;
+        if (n == 0 || n > 64 || !isDigit(input.charAt(0)))
+            return false;
+        if (checkOrder && orderMasks == null)
+            return false;
+        long used = 0;
+        int pos = 0;
+        int i = 0;
+        while (i < input.length()) {
+            int value = 0;
+            while (i < input.length() && isDigit(input.charAt(i))) {
+                value = Math.min(value * 10 + (input.charAt(i) - '0'), n + 1);
+                i++;
+            }
+            if (pos >= n || value < 1 || value > n)
+                return false;
+            long bit = 1L << (value - 1);
+            if ((used & bit) != 0)
+                return false;
+            if (checkOrder && (orderMasks[pos] & bit) == 0)
+                return false;
+            used |= bit;
+            pos++;
+            while (i < input.length() && !isDigit(input.charAt(i)))
+                i++;
+        }
+        return pos == n;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
@@ -1,14 +1,42 @@
 package trivia;
 
-import java.util.*;
-
 /**
  * AnswerValidator provides utility methods to validate the format of user input
  * and check if the provided answer matches the correct one based on the
  * QuestionType.
+ *
+ * The rules for each question are compiled once into an
+ * {@link AnswerMatcher} cached on the question, so repeated checks (the
+ * server checks every player's answer) do not rebuild regexes.
  */
 public class AnswerValidator {
 
+    /**
+     * Most typos (edits) ever forgiven in an open-ended answer; 0 turns
+     * fuzzy matching off. Overridable with {@code -Dmindwars.typos=N}.
+     */
+    private static volatile int maxTypos = Math.max(0, Integer.getInteger("mindwars.typos", 2));
+    /** One typo is allowed per this many characters of the accepted answer. */
+    private static volatile int charsPerTypo = 5;
+
+    /**
+     * Sets how forgiving open-ended answers are: an accepted answer of
+     * {@code n} characters allows {@code min(maxTypos, n / charsPerTypo)}
+     * edits, so with the defaults (2, 5) "PARIS" allows one and "TOKYO
+     * TOWER" two, while anything under five characters must be exact.
+     */
+    public static void setTypoTolerance(int maxTypos, int charsPerTypo) {
+        if (maxTypos < 0 || charsPerTypo < 1)
+            throw new IllegalArgumentException("maxTypos must be >= 0 and charsPerTypo >= 1");
+        AnswerValidator.charsPerTypo = charsPerTypo;
+        AnswerValidator.maxTypos = maxTypos;
+    }
+
+    /** Edits allowed against an accepted answer of {@code length} normalised characters. */
+    static int allowedTypos(int length) {
+        return Math.min(maxTypos, length / charsPerTypo);
+    }
+
     /**
      * validates if the user's input is syntactically correct for the given question
      * type
@@ -23,70 +51,8 @@ public class AnswerValidator {
         if (q == null || rawAnswer == null || rawAnswer.trim().isEmpty()) {
             return false;
         }
-
-        String input = rawAnswer.trim().toUpperCase();
-
-        // validation for NUMERIC type: must be a parsable number
-        if (q.getType() == QuestionType.NUMERIC) {
-            try {
-                // normalize decimal separator to support both '.' and ','
-                Double.parseDouble(input.replace(",", "."));
-                return true;
-            } catch (NumberFormatException e) {
-                return false; // input is not a valid number
-            }
-        }
-
-        // validation for TRUE_FALSE type: must be T, F, TRUE, or FALSE
-        if (q.getType() == QuestionType.TRUE_FALSE) {
-            return (input.equals("T") ||
-                    input.equals("F") ||
-                    input.equals("TRUE") ||
-                    input.equals("FALSE"));
-        }
-
-        // validation for MULTIPLE_CHOICE: must match available options (A-D or 1-4)
-        if (q.getType() == QuestionType.MULTIPLE_CHOICE) {
-            int numChoices = q.getChoices().size();
-            // regex to match a single letter within range or a single digit within range
-
-            return (input.matches("^[A-" + (char) ('A' + numChoices - 1) + "]$") ||
-                    input.matches("^[1-" + numChoices + "]$"));
-        }
-
-        // Validation for OPEN_ENDED: any non-empty string is considered valid
-        if (q.getType() == QuestionType.OPEN_ENDED) {
-            return !input.isEmpty();
-        }
-        // Validation for ORDERING: must match the correct order of choices
-        if (q.getType() == QuestionType.ORDERING) {
-            String[] parts = rawAnswer.trim().split("[^0-9]+");
-
-            if (parts.length != q.getChoices().size()) {
-                return false;
-            }
-
-            Set<Integer> used = new HashSet<>();
-
-            for (String p : parts) {
-                try {
-                    int index = Integer.parseInt(p);
-
-                    if (index < 1 || index > parts.length) {
-                        return false;
-                    }
-
-                    if (!used.add(index)) {
-                        return false; // doublon
-                    }
-                } catch (NumberFormatException e) {
-                    return false;
-                }
-            }
-
-            return true;
-        }
-        return true;
+        // per-type format rules live in the question's precompiled matcher
+        return q.matcher().isValid(rawAnswer);
     }
 
     /**
@@ -100,85 +66,10 @@ public class AnswerValidator {
      */
 
     public static boolean isCorrect(Question q, String rawAnswer) {
-        // ensure the input is valid for the specific question type
-        if (!isValidAnswer(q, rawAnswer)) {
+        if (q == null) {
             return false;
         }
-
-        // ordering question logic is suppose to do it first due to ansewer
-        if (q.getType() == QuestionType.ORDERING) {
-            String[] parts = rawAnswer.trim().split("[^0-9]+");
-            List<String> filtered = new ArrayList<>();
-
-            for (String part : parts) {
-                if (!part.isEmpty()) {
-                    filtered.add(part);
-                }
-            }
-
-            parts = filtered.toArray(new String[0]);
-
-            List<String> userOrder = new ArrayList<>();
-
-            for (String p : parts) {
-                int index = Integer.parseInt(p) - 1;
-                userOrder.add(q.getChoices().get(index));
-            }
-
-            return userOrder.equals(q.getOrderingAnswer());
-        }
-
-        String playerAnswer = rawAnswer.trim().toUpperCase();
-
-        // CASE 1: Numeric Logic (value comparison with tolerance)
-        if (q.getType() == QuestionType.NUMERIC) {
-            // tray-catch: if the player writes "i don't know" instead of a number it won't
-            // crash
-            try {
-                double userVal = Double.parseDouble(
-                        playerAnswer.replace(",", ".")); // transforms 3,14 to 3.14
-                double correctVal = q.getNumericAnswer();
-                // success if the absolute difference is within the allowed tolerance range
-                return Math.abs(userVal - correctVal) <= q.getTolerance();
-            } catch (NumberFormatException e) {
-                return false;
-            }
-        }
-
-        // CASE 2: Text-based Logic (MCQ, T/F, OPEN_ENDED)
-        // normalize the correct answer from the data source for a fair comparison
-        String correctAnswer = q.getAnswer().trim().toUpperCase();
-
-        // normalize TRUE_FALSE input/answer to short format (T/F)
-        if (q.getType() == QuestionType.TRUE_FALSE) {
-            if (playerAnswer.equals("TRUE"))
-                playerAnswer = "T";
-            if (playerAnswer.equals("FALSE"))
-                playerAnswer = "F";
-            if (correctAnswer.equals("TRUE"))
-                correctAnswer = "T";
-            if (correctAnswer.equals("FALSE"))
-                correctAnswer = "F";
-        }
-
-        // normalize MULTIPLE_CHOICE numeric input (e.g., "1" becomes "A")
-        if (q.getType() == QuestionType.MULTIPLE_CHOICE &&
-                playerAnswer.matches("^[1-9]$")) {
-            int index = Integer.parseInt(playerAnswer) - 1;
-            playerAnswer = String.valueOf((char) ('A' + index));
-        }
-
-        // Validation for OPEN_ENDED: any non-empty string is considered valid
-        if (q.getType() == QuestionType.OPEN_ENDED) {
-            // Removal of punctuation
-            playerAnswer = playerAnswer.replaceAll("[^A-Z0-9 ]", "");
-            correctAnswer = correctAnswer.replaceAll("[^A-Z0-9 ]", "");
-            // Ignore double spaces
-            playerAnswer = playerAnswer.replaceAll("\\s+", " ").trim();
-            correctAnswer = correctAnswer.replaceAll("\\s+", " ").trim();
-        }
-
-        // final string comparison for text-based questions
-        return playerAnswer.equals(correctAnswer);
+        // one pass over the input: format check and comparison together
+        return q.matcher().isCorrect(rawAnswer);
     }
 }
@@ -0,0 +1,371 @@
+package trivia;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compiled question pack ({@code .mwqp}) read straight from a
+ * {@link FileChannel#map memory-mapped} file. Opening one only checks the
+ * header, so startup cost does not grow with the pack; every lookup reads
+ * fixed offsets in the mapping. Write one with {@link #write} or the
+ * {@code CompileQuestions} tool.
+ *
+ * <p>
+ * Layout, all big-endian:
+ * </p>
+ *
+ * <pre>
+ * header   magic "MWQP", version, questionCount, groupCount, listCount,
+ *          stringCount, then the byte offsets of the five sections below
+ * groups   per category/difficulty: category id, difficulty id, first
+ *          record, record count (records of a group are contiguous)
+ * records  52 bytes per question, see REC_* offsets (48 in version 1,
+ *          which had no aliases)
+ * lists    string ids for choices, ordering answers and aliases
+ * strings  per string: byte offset of its UTF-8 data, then the data as
+ *          a 4-byte length plus bytes; id -1 means null
+ * </pre>
+ */
+public final class BinaryQuestionPack implements QuestionPack {
+
+    public static final int MAGIC = 0x4D575150; // "MWQP"
+    public static final int VERSION = 2;
+
+    private static final int HEADER_BYTES = 48;
+    private static final int GROUP_BYTES = 16;
+
+    private static final int REC_CATEGORY = 0;
+    private static final int REC_DIFFICULTY = 4;
+    private static final int REC_TYPE = 8;
+    private static final int REC_CHOICE_COUNT = 9;
+    private static final int REC_ORDERING_COUNT = 10;
+    private static final int REC_ALIAS_COUNT = 11;
+    private static final int REC_PROMPT = 12;
+    private static final int REC_ANSWER = 16;
+    private static final int REC_CLUE = 20;
+    private static final int REC_NUMERIC = 24;
+    private static final int REC_TOLERANCE = 32;
+    private static final int REC_CHOICES = 40;
+    private static final int REC_ORDERING = 44;
+    private static final int REC_ALIASES = 48;
+    private static final int RECORD_BYTES = 52;
+    private static final int V1_RECORD_BYTES = 48;
+
+    private static final QuestionType[] TYPES = QuestionType.values();
+
+    private final FileChannel channel;
+    private final ByteBuffer map;
+    private final int version;
+    private final int recordBytes;
+    private final int questionCount;
+    private final int groupCount;
+    private final int groupsAt;
+    private final int recordsAt;
+    private final int listsAt;
+    private final int stringIndexAt;
+    private final int stringCount;
+
+    /** Category/difficulty names, decoded once; there are only a few. */
+    private final Map<Integer, String> keyNames = new HashMap<>();
+
+    private BinaryQuestionPack(FileChannel channel, MappedByteBuffer map) throws IOException {
+        this.channel = channel;
+        this.map = map;
+        if (map.capacity() < HEADER_BYTES || map.getInt(0) != MAGIC)
+            throw new IOException("not a MindWars question pack");
+        this.version = map.getInt(4);
+        if (version != 1 && version != VERSION)
+            throw new IOException("unsupported question pack version " + version);
+        this.recordBytes = version == 1 ? V1_RECORD_BYTES : RECORD_BYTES;
+        this.questionCount = map.getInt(8);
+        this.groupCount = map.getInt(12);
+        this.stringCount = map.getInt(20);
+        this.groupsAt = map.getInt(24);
+        this.recordsAt = map.getInt(28);
+        this.listsAt = map.getInt(32);
+        this.stringIndexAt = map.getInt(36);
+        if (recordsAt + (long) questionCount * recordBytes > map.capacity()
+                || groupsAt + (long) groupCount * GROUP_BYTES > map.capacity()
+                || stringIndexAt + (long) stringCount * 4 > map.capacity())
+            throw new IOException("question pack is truncated");
+    }
+
+    /** Maps {@code path} read-only. */
+    public static BinaryQuestionPack open(Path path) throws IOException {
+        FileChannel ch = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            return new BinaryQuestionPack(ch, ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size()));
+        } catch (IOException | RuntimeException e) {
+            ch.close();
+            throw e;
+        }
+    }
+
+    /** Whether {@code path} starts with the pack magic. */
+    public static boolean isPack(Path path) {
+        try (InputStream in = Files.newInputStream(path)) {
+            byte[] head = in.readNBytes(4);
+            return head.length == 4 && ByteBuffer.wrap(head).getInt() == MAGIC;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public int size() {
+        return questionCount;
+    }
+
+    /** One category/difficulty and the contiguous run of records holding it. */
+    public static final class Group {
+        public final String category;
+        public final String difficulty;
+        /** Ordinal of the group's first question. */
+        public final int first;
+        public final int count;
+
+        Group(String category, String difficulty, int first, int count) {
+            this.category = category;
+            this.difficulty = difficulty;
+            this.first = first;
+            this.count = count;
+        }
+    }
+
+    /** The group table in file order, read without touching any record. */
+    public List<Group> groups() {
+        List<Group> out = new ArrayList<>(groupCount);
+        for (int g = 0; g < groupCount; g++) {
+            int at = groupsAt + g * GROUP_BYTES;
+            out.add(new Group(keyName(map.getInt(at)), keyName(map.getInt(at + 4)), map.getInt(at + 8),
+                    map.getInt(at + 12)));
+        }
+        return out;
+    }
+
+    /** Question counts per category and difficulty, from {@link #groups()}. */
+    public Map<String, Map<String, Integer>> distribution() {
+        Map<String, Map<String, Integer>> out = new LinkedHashMap<>();
+        for (Group g : groups())
+            out.computeIfAbsent(g.category, k -> new LinkedHashMap<>()).put(g.difficulty, g.count);
+        return out;
+    }
+
+    @Override
+    public String category(int ordinal) {
+        return keyName(map.getInt(record(ordinal) + REC_CATEGORY));
+    }
+
+    @Override
+    public String difficulty(int ordinal) {
+        return keyName(map.getInt(record(ordinal) + REC_DIFFICULTY));
+    }
+
+    @Override
+    public QuestionType type(int ordinal) {
+        int t = map.get(record(ordinal) + REC_TYPE);
+        return t <= 0 || t > TYPES.length ? null : TYPES[t - 1];
+    }
+
+    @Override
+    public Question load(int ordinal) {
+        int rec = record(ordinal);
+        Question q = new Question();
+        q.setCategory(category(ordinal));
+        q.setDifficulty(difficulty(ordinal));
+        q.setType(type(ordinal));
+        q.setPrompt(string(map.getInt(rec + REC_PROMPT)));
+        q.setAnswer(string(map.getInt(rec + REC_ANSWER)));
+        q.setClue(string(map.getInt(rec + REC_CLUE)));
+        q.setNumericAnswer(map.getDouble(rec + REC_NUMERIC));
+        q.setTolerance(map.getDouble(rec + REC_TOLERANCE));
+        q.setChoices(list(map.getInt(rec + REC_CHOICES), map.get(rec + REC_CHOICE_COUNT) & 0xFF));
+        q.setOrderingAnswer(list(map.getInt(rec + REC_ORDERING), map.get(rec + REC_ORDERING_COUNT) & 0xFF));
+        if (version >= 2)
+            q.setAliases(list(map.getInt(rec + REC_ALIASES), map.get(rec + REC_ALIAS_COUNT) & 0xFF));
+        return q;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private int record(int ordinal) {
+        if (ordinal < 0 || ordinal >= questionCount)
+            throw new IndexOutOfBoundsException("question " + ordinal);
+        return recordsAt + ordinal * recordBytes;
+    }
+
+    private synchronized String keyName(int id) {
+        if (id < 0)
+            return null;
+        return keyNames.computeIfAbsent(id, this::string);
+    }
+
+    private String string(int id) {
+        if (id < 0 || id >= stringCount)
+            return null;
+        int at = map.getInt(stringIndexAt + id * 4);
+        int len = map.getInt(at);
+        byte[] utf8 = new byte[len];
+        map.get(at + 4, utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    private List<String> list(int start, int count) {
+        if (start < 0)
+            return null;
+        List<String> out = new ArrayList<>(count);
+        for (int i = 0; i < count; i++)
+            out.add(string(map.getInt(listsAt + (start + i) * 4)));
+        return out;
+    }
+
+    // ── Writing ──
+
+    /**
+     * Compiles {@code questions} into a pack at {@code target}. Questions
+     * are grouped by category and difficulty in first-seen order, and
+     * repeated strings are stored once.
+     */
+    public static void write(Collection<Question> questions, Path target) throws IOException {
+        Map<String, Map<String, List<Question>>> grouped = new LinkedHashMap<>();
+        for (Question q : questions) {
+            grouped
+                    .computeIfAbsent(q.getCategory(), k -> new LinkedHashMap<>())
+                    .computeIfAbsent(q.getDifficulty(), k -> new ArrayList<>())
+                    .add(q);
+        }
+
+        StringTable strings = new StringTable();
+        ByteArrayOutputStream groupBytes = new ByteArrayOutputStream();
+        ByteArrayOutputStream recordBytes = new ByteArrayOutputStream();
+        List<Integer> lists = new ArrayList<>();
+        DataOutputStream groupsOut = new DataOutputStream(groupBytes);
+        DataOutputStream recordsOut = new DataOutputStream(recordBytes);
+
+        int groupCount = 0;
+        int first = 0;
+        for (Map.Entry<String, Map<String, List<Question>>> cat : grouped.entrySet()) {
+            for (Map.Entry<String, List<Question>> diff : cat.getValue().entrySet()) {
+                List<Question> group = diff.getValue();
+                groupsOut.writeInt(strings.id(cat.getKey()));
+                groupsOut.writeInt(strings.id(diff.getKey()));
+                groupsOut.writeInt(first);
+                groupsOut.writeInt(group.size());
+                groupCount++;
+                first += group.size();
+                for (Question q : group)
+                    writeRecord(recordsOut, q, strings, lists);
+            }
+        }
+
+        int groupsAt = HEADER_BYTES;
+        int recordsAt = groupsAt + groupBytes.size();
+        int listsAt = recordsAt + recordBytes.size();
+        int stringIndexAt = listsAt + lists.size() * 4;
+        int stringDataAt = stringIndexAt + strings.size() * 4;
+
+        Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(first);
+            out.writeInt(groupCount);
+            out.writeInt(lists.size());
+            out.writeInt(strings.size());
+            out.writeInt(groupsAt);
+            out.writeInt(recordsAt);
+            out.writeInt(listsAt);
+            out.writeInt(stringIndexAt);
+            out.writeInt(stringDataAt);
+            out.writeInt(0); // reserved
+            groupBytes.writeTo(out);
+            recordBytes.writeTo(out);
+            for (int id : lists)
+                out.writeInt(id);
+            int at = stringDataAt;
+            for (byte[] s : strings.values) {
+                out.writeInt(at);
+                at += 4 + s.length;
+            }
+            for (byte[] s : strings.values) {
+                out.writeInt(s.length);
+                out.write(s);
+            }
+        }
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static void writeRecord(DataOutputStream out, Question q, StringTable strings, List<Integer> lists)
+            throws IOException {
+        List<String> choices = q.getChoices();
+        List<String> ordering = q.getOrderingAnswer();
+        List<String> aliases = q.getAliases();
+        if ((choices != null && choices.size() > 255) || (ordering != null && ordering.size() > 255))
+            throw new IOException("question has more than 255 choices: " + q.getPrompt());
+        if (aliases != null && aliases.size() > 255)
+            throw new IOException("question has more than 255 aliases: " + q.getPrompt());
+
+        out.writeInt(strings.id(q.getCategory()));
+        out.writeInt(strings.id(q.getDifficulty()));
+        out.writeByte(q.getType() == null ? 0 : q.getType().ordinal() + 1);
+        out.writeByte(choices == null ? 0 : choices.size());
+        out.writeByte(ordering == null ? 0 : ordering.size());
+        out.writeByte(aliases == null ? 0 : aliases.size());
+        out.writeInt(strings.id(q.getPrompt()));
+        out.writeInt(strings.id(q.getAnswer()));
+        out.writeInt(strings.id(q.getClue()));
+        out.writeDouble(q.getNumericAnswer());
+        out.writeDouble(q.getTolerance());
+        out.writeInt(appendList(choices, strings, lists));
+        out.writeInt(appendList(ordering, strings, lists));
+        out.writeInt(appendList(aliases, strings, lists));
+    }
+
+    private static int appendList(List<String> items, StringTable strings, List<Integer> lists) {
+        if (items == null)
+            return -1;
+        int start = lists.size();
+        for (String s : items)
+            lists.add(strings.id(s));
+        return start;
+    }
+
+    /** Deduplicated UTF-8 strings in id order. */
+    private static final class StringTable {
+        final List<byte[]> values = new ArrayList<>();
+        private final Map<String, Integer> ids = new HashMap<>();
+
+        int id(String s) {
+            if (s == null)
+                return -1;
+            return ids.computeIfAbsent(s, k -> {
+                values.add(k.getBytes(StandardCharsets.UTF_8));
+                return values.size() - 1;
+            });
+        }
+
+        int size() {
+            return values.size();
+        }
+    }
+}
@@ -0,0 +1,363 @@
+package trivia;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A {@code questions.json}-style pack (one JSON array of question objects)
+ * that is never parsed as a whole. Opening it streams the file once,
+ * noting each object's byte offset and length plus its category,
+ * difficulty and type; {@link #load(int)} later reads and parses just that
+ * slice. That costs about 17 bytes per question instead of a full
+ * {@link Question}.
+ *
+ * <p>
+ * The scan result is saved next to the pack as {@code <pack>.idx} and
+ * reused while the pack's size and modification time stay the same, so
+ * only the first start after an edit pays for the scan. If the index
+ * cannot be written the pack still works; it is just rescanned next time.
+ * </p>
+ */
+public final class JsonQuestionPack implements QuestionPack {
+
+    private static final int INDEX_MAGIC = 0x4D575149; // "MWQI"
+    private static final int INDEX_VERSION = 1;
+    private static final Gson GSON = new Gson();
+    private static final QuestionType[] TYPES = QuestionType.values();
+
+    private final FileChannel channel;
+    private final long[] offsets;
+    private final int[] lengths;
+    private final short[] categoryIds;
+    private final short[] difficultyIds;
+    /** {@code 0} = no type, otherwise the {@link QuestionType} ordinal + 1. */
+    private final byte[] types;
+    private final String[] categories;
+    private final String[] difficulties;
+
+    private JsonQuestionPack(FileChannel channel, Index index) {
+        this.channel = channel;
+        this.offsets = index.offsets;
+        this.lengths = index.lengths;
+        this.categoryIds = index.categoryIds;
+        this.difficultyIds = index.difficultyIds;
+        this.types = index.types;
+        this.categories = index.categories;
+        this.difficulties = index.difficulties;
+    }
+
+    /** Opens {@code json}, reusing or rebuilding its {@code .idx} file. */
+    public static JsonQuestionPack open(Path json) throws IOException {
+        Path idxPath = indexPath(json);
+        long length = Files.size(json);
+        long modified = Files.getLastModifiedTime(json).toMillis();
+
+        Index index = readIndex(idxPath, length, modified);
+        if (index == null) {
+            index = scan(json);
+            try {
+                writeIndex(idxPath, index, length, modified);
+            } catch (IOException e) {
+                System.err.println("Could not write question index " + idxPath + ": " + e.getMessage());
+            }
+        }
+        return new JsonQuestionPack(FileChannel.open(json, StandardOpenOption.READ), index);
+    }
+
+    static Path indexPath(Path json) {
+        return json.resolveSibling(json.getFileName() + ".idx");
+    }
+
+    @Override
+    public int size() {
+        return offsets.length;
+    }
+
+    @Override
+    public String category(int ordinal) {
+        return categories[categoryIds[ordinal]];
+    }
+
+    @Override
+    public String difficulty(int ordinal) {
+        return difficulties[difficultyIds[ordinal]];
+    }
+
+    @Override
+    public QuestionType type(int ordinal) {
+        int t = types[ordinal];
+        return t == 0 ? null : TYPES[t - 1];
+    }
+
+    @Override
+    public Question load(int ordinal) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(lengths[ordinal]);
+        long pos = offsets[ordinal];
+        while (buf.hasRemaining()) {
+            int n = channel.read(buf, pos + buf.position());
+            if (n < 0)
+                throw new IOException("question pack truncated at question " + ordinal);
+        }
+        return GSON.fromJson(new String(buf.array(), StandardCharsets.UTF_8), Question.class);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // ── Scanning ──
+
+    /**
+     * Walks the array byte by byte, tracking string and nesting state to
+     * find where each top-level object starts and ends. Only the keys are
+     * parsed, with a {@link JsonReader} over that one object.
+     */
+    private static Index scan(Path json) throws IOException {
+        Index.Builder b = new Index.Builder();
+        ByteArrayOutputStream obj = new ByteArrayOutputStream(1024);
+        try (InputStream in = Files.newInputStream(json)) {
+            byte[] chunk = new byte[64 * 1024];
+            long base = 0;
+            long start = -1;
+            int depth = 0;
+            boolean inString = false;
+            boolean escape = false;
+            int n;
+            while ((n = in.read(chunk)) > 0) {
+                // Start of the part of this chunk that belongs to the open object.
+                int from = start >= 0 ? 0 : -1;
+                for (int i = 0; i < n; i++) {
+                    byte c = chunk[i];
+                    if (inString) {
+                        if (escape)
+                            escape = false;
+                        else if (c == '\\')
+                            escape = true;
+                        else if (c == '"')
+                            inString = false;
+                        continue;
+                    }
+                    switch (c) {
+                        case '"' -> inString = true;
+                        case '{', '[' -> {
+                            if (depth == 1 && c == '{') {
+                                start = base + i;
+                                obj.reset();
+                                from = i;
+                            }
+                            depth++;
+                        }
+                        case '}', ']' -> {
+                            depth--;
+                            if (depth == 1 && c == '}' && start >= 0) {
+                                obj.write(chunk, from, i + 1 - from);
+                                b.add(start, (int) (base + i - start + 1), obj.toByteArray());
+                                start = -1;
+                                from = -1;
+                            }
+                        }
+                        default -> {
+                        }
+                    }
+                }
+                if (from >= 0)
+                    obj.write(chunk, from, n - from);
+                base += n;
+            }
+        }
+        return b.build();
+    }
+
+    // ── Index file ──
+
+    private static Index readIndex(Path idxPath, long length, long modified) {
+        if (!Files.isRegularFile(idxPath))
+            return null;
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(idxPath), 64 * 1024))) {
+            if (in.readInt() != INDEX_MAGIC || in.readInt() != INDEX_VERSION
+                    || in.readLong() != length || in.readLong() != modified)
+                return null;
+            String[] categories = readNames(in);
+            String[] difficulties = readNames(in);
+            int n = in.readInt();
+            Index idx = new Index(n, categories, difficulties);
+            for (int i = 0; i < n; i++) {
+                idx.offsets[i] = in.readLong();
+                idx.lengths[i] = in.readInt();
+                idx.categoryIds[i] = in.readShort();
+                idx.difficultyIds[i] = in.readShort();
+                idx.types[i] = in.readByte();
+            }
+            return idx;
+        } catch (IOException | RuntimeException e) {
+            return null; // stale or damaged; rescan
+        }
+    }
+
+    private static void writeIndex(Path idxPath, Index idx, long length, long modified) throws IOException {
+        Path tmp = idxPath.resolveSibling(idxPath.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(tmp), 64 * 1024))) {
+            out.writeInt(INDEX_MAGIC);
+            out.writeInt(INDEX_VERSION);
+            out.writeLong(length);
+            out.writeLong(modified);
+            writeNames(out, idx.categories);
+            writeNames(out, idx.difficulties);
+            out.writeInt(idx.offsets.length);
+            for (int i = 0; i < idx.offsets.length; i++) {
+                out.writeLong(idx.offsets[i]);
+                out.writeInt(idx.lengths[i]);
+                out.writeShort(idx.categoryIds[i]);
+                out.writeShort(idx.difficultyIds[i]);
+                out.writeByte(idx.types[i]);
+            }
+        }
+        Files.move(tmp, idxPath, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static String[] readNames(DataInputStream in) throws IOException {
+        String[] names = new String[in.readInt()];
+        for (int i = 0; i < names.length; i++)
+            names[i] = in.readBoolean() ? in.readUTF() : null;
+        return names;
+    }
+
+    private static void writeNames(DataOutputStream out, String[] names) throws IOException {
+        out.writeInt(names.length);
+        for (String name : names) {
+            out.writeBoolean(name != null);
+            if (name != null)
+                out.writeUTF(name);
+        }
+    }
+
+    /** Column arrays for every question in the pack. */
+    private static final class Index {
+        final long[] offsets;
+        final int[] lengths;
+        final short[] categoryIds;
+        final short[] difficultyIds;
+        final byte[] types;
+        final String[] categories;
+        final String[] difficulties;
+
+        Index(int n, String[] categories, String[] difficulties) {
+            this.offsets = new long[n];
+            this.lengths = new int[n];
+            this.categoryIds = new short[n];
+            this.difficultyIds = new short[n];
+            this.types = new byte[n];
+            this.categories = categories;
+            this.difficulties = difficulties;
+        }
+
+        /** Grows the columns while scanning; names get ids in first-seen order. */
+        static final class Builder {
+            private int n;
+            private long[] offsets = new long[1024];
+            private int[] lengths = new int[1024];
+            private short[] categoryIds = new short[1024];
+            private short[] difficultyIds = new short[1024];
+            private byte[] types = new byte[1024];
+            private final Map<String, Short> categoryIndex = new HashMap<>();
+            private final Map<String, Short> difficultyIndex = new HashMap<>();
+            private final List<String> categories = new ArrayList<>();
+            private final List<String> difficulties = new ArrayList<>();
+
+            void add(long offset, int length, byte[] object) throws IOException {
+                String category = null;
+                String difficulty = null;
+                String type = null;
+                try (JsonReader r = new JsonReader(new StringReader(new String(object, StandardCharsets.UTF_8)))) {
+                    r.beginObject();
+                    while (r.hasNext()) {
+                        switch (r.nextName()) {
+                            case "category" -> category = stringOrNull(r);
+                            case "difficulty" -> difficulty = stringOrNull(r);
+                            case "type" -> type = stringOrNull(r);
+                            default -> r.skipValue();
+                        }
+                    }
+                }
+                if (n == offsets.length) {
+                    int cap = n * 2;
+                    offsets = Arrays.copyOf(offsets, cap);
+                    lengths = Arrays.copyOf(lengths, cap);
+                    categoryIds = Arrays.copyOf(categoryIds, cap);
+                    difficultyIds = Arrays.copyOf(difficultyIds, cap);
+                    types = Arrays.copyOf(types, cap);
+                }
+                offsets[n] = offset;
+                lengths[n] = length;
+                categoryIds[n] = id(categoryIndex, categories, category);
+                difficultyIds[n] = id(difficultyIndex, difficulties, difficulty);
+                types[n] = typeCode(type);
+                n++;
+            }
+
+            Index build() {
+                Index idx = new Index(n, categories.toArray(new String[0]), difficulties.toArray(new String[0]));
+                System.arraycopy(offsets, 0, idx.offsets, 0, n);
+                System.arraycopy(lengths, 0, idx.lengths, 0, n);
+                System.arraycopy(categoryIds, 0, idx.categoryIds, 0, n);
+                System.arraycopy(difficultyIds, 0, idx.difficultyIds, 0, n);
+                System.arraycopy(types, 0, idx.types, 0, n);
+                return idx;
+            }
+
+            private static short id(Map<String, Short> index, List<String> names, String name) throws IOException {
+                Short id = index.get(name);
+                if (id == null) {
+                    if (names.size() > Short.MAX_VALUE)
+                        throw new IOException("too many distinct categories or difficulties");
+                    id = (short) names.size();
+                    index.put(name, id);
+                    names.add(name);
+                }
+                return id;
+            }
+
+            private static byte typeCode(String type) {
+                if (type == null)
+                    return 0;
+                for (QuestionType t : TYPES)
+                    if (t.name().equals(type))
+                        return (byte) (t.ordinal() + 1);
+                return 0; // Gson would read an unknown enum name as null too
+            }
+
+            private static String stringOrNull(JsonReader r) throws IOException {
+                if (r.peek() == JsonToken.NULL) {
+                    r.nextNull();
+                    return null;
+                }
+                return r.nextString();
+            }
+        }
+    }
+}
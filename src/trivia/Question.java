@@ -16,8 +16,12 @@ public class Question {
     private double tolerance; // margin of error for NUMERIC -> is going to be used for estimation-based
                               // challenges
     private List<String> orderingAnswer; // used for ORDERING
+    private List<String> aliases; // other accepted spellings for OPEN_ENDED
     private String clue;
 
+    /** Precompiled answer checks; rebuilt after any setter changes the question. */
+    private transient AnswerMatcher matcher;
+
     public Question() {
     } // empty constructor for GSON
 
@@ -73,6 +77,7 @@ public class Question {
         q.setType(this.getType());
         q.setAnswer(this.getAnswer());
         q.setNumericAnswer(this.getNumericAnswer());
+        q.tolerance = this.tolerance;
         q.setCategory(this.getCategory());
         q.setDifficulty(this.getDifficulty());
 
@@ -86,13 +91,17 @@ public class Question {
                         ? new ArrayList<>(this.getOrderingAnswer())
                         : new ArrayList<>());
 
+        q.setAliases(this.getAliases() != null ? new ArrayList<>(this.getAliases()) : null);
+
         q.setClue(this.getClue());
+        q.matcher = this.matcher;
         return q;
     }
 
     public void copyFrom(Question other) {
         if (other == null)
             return;
+        this.matcher = other.matcher;
 
         this.prompt = other.prompt;
         this.type = other.type;
@@ -100,6 +109,7 @@ public class Question {
         this.difficulty = other.difficulty;
         this.answer = other.answer;
         this.numericAnswer = other.numericAnswer;
+        this.tolerance = other.tolerance;
 
         if (other.choices != null) {
             this.choices = new ArrayList<>(other.choices);
@@ -113,6 +123,7 @@ public class Question {
             this.orderingAnswer = null;
         }
 
+        this.aliases = other.aliases != null ? new ArrayList<>(other.aliases) : null;
         this.clue = other.clue;
     }
 
@@ -141,10 +152,25 @@ public class Question {
         return numericAnswer;
     }
 
+    /** Builds the matcher on first use; later calls reuse it. */
+    AnswerMatcher matcher() {
+        AnswerMatcher m = matcher;
+        if (m == null) {
+            m = AnswerMatcher.of(this);
+            matcher = m;
+        }
+        return m;
+    }
+
     public double getTolerance() {
         return tolerance;
     }
 
+    public void setTolerance(double tolerance) {
+        this.tolerance = tolerance;
+        matcher = null;
+    }
+
     public String getPrompt() {
         return prompt;
     }
@@ -157,20 +183,34 @@ public class Question {
         return clue;
     }
 
+    /** Alternative answers accepted for OPEN_ENDED questions; may be {@code null}. */
+    public List<String> getAliases() {
+        return aliases;
+    }
+
     public void setChoices(List<String> choices) {
         this.choices = choices;
+        matcher = null;
     }
 
     public void setAnswer(String answer) {
         this.answer = answer;
+        matcher = null;
     }
 
     public void setNumericAnswer(double numericAnswer) {
         this.numericAnswer = numericAnswer;
+        matcher = null;
     }
 
     public void setOrderingAnswer(List<String> orderingAnswer) {
         this.orderingAnswer = orderingAnswer;
+        matcher = null;
+    }
+
+    public void setAliases(List<String> aliases) {
+        this.aliases = aliases;
+        matcher = null;
     }
 
     public void setPrompt(String prompt) {
@@ -179,6 +219,7 @@ public class Question {
 
     public void setType(QuestionType Type) {
         this.type = Type;
+        matcher = null;
     }
 
     public void setClue(String new_clue) {
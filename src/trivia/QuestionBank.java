@@ -3,35 +3,167 @@ package trivia;
 import com.google.gson.Gson;
 import com.google.gson.reflect.TypeToken;
 import java.io.FileReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.lang.reflect.Type;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.function.Supplier;
 
+/**
+ * Read-only store of every loaded question, indexed by category, difficulty
+ * and type when it is built. Nothing is removed once loaded, so any number
+ * of games can share one bank; each game draws through its own
+ * {@link QuestionDeck} (see {@link #newDeck()}).
+ *
+ * <p>
+ * Small files are parsed into memory. Large packs are opened as a
+ * {@link QuestionPack}: only their keys are indexed, and question bodies
+ * are read from disk when drawn, through a small LRU cache (see
+ * {@link #load(String)}). A compiled {@link BinaryQuestionPack} already
+ * stores each category/difficulty as one run of records, so its shelves
+ * are just those ranges and opening it reads no record at all.
+ * </p>
+ */
 public class QuestionBank {
-    // structure: category -> (dificulty -> questions)
-    private Map<String, Map<String, List<Question>>> organizedQuestions = new HashMap<>();
+    // structure: category -> (dificulty -> questions), frozen after loading
+    private final Map<String, Map<String, Shelf>> organizedQuestions;
+    private final List<Question> allQuestions;
+
+    /** Files at least this big are opened lazily by {@link #load(String)}. */
+    public static final long LAZY_PACK_BYTES = 4L * 1024 * 1024;
+
+    /** Questions kept parsed per lazily loaded bank. */
+    public static final int DEFAULT_CACHE_SIZE = 1024;
+
+    /** Deck behind the legacy {@link #getQuestion} calls (console game). */
+    private QuestionDeck sharedDeck;
 
     public QuestionBank(String jsonPath) {
-        loadFromJson(jsonPath);
-        System.out.println("DEBUG: QuestionBank loaded " + getAllQuestionsAsList().size() + " total questions.");
+        this(loadFromJson(jsonPath));
+        System.out.println("DEBUG: QuestionBank loaded " + size() + " total questions.");
+    }
+
+    /** Builds a bank over an already-parsed list of questions. */
+    public QuestionBank(Collection<Question> questions) {
+        Map<String, Map<String, List<Question>>> grouped = new LinkedHashMap<>();
+        for (Question q : questions) {
+            q.matcher(); // compiled once here; deck copies share it
+            grouped
+                    .computeIfAbsent(q.getCategory(), k -> new LinkedHashMap<>())
+                    .computeIfAbsent(q.getDifficulty(), k -> new ArrayList<>())
+                    .add(q);
+        }
+        Map<String, Map<String, Shelf>> index = new LinkedHashMap<>();
+        grouped.forEach((cat, diffs) -> {
+            Map<String, Shelf> shelves = new LinkedHashMap<>();
+            diffs.forEach((diff, list) -> shelves.put(diff, Shelf.of(list)));
+            index.put(cat, Collections.unmodifiableMap(shelves));
+        });
+        this.organizedQuestions = Collections.unmodifiableMap(index);
+        this.allQuestions = List.copyOf(questions);
     }
 
-    private void loadFromJson(String jsonPath) {
+    /**
+     * Builds a bank over a pack without reading any question bodies.
+     * Drawn questions are parsed on demand, and up to {@code cacheSize} of
+     * them stay cached.
+     */
+    public QuestionBank(QuestionPack pack, int cacheSize) {
+        int n = pack.size();
+        Map<String, Map<String, IntList>> grouped = new LinkedHashMap<>();
+        for (int i = 0; i < n; i++) {
+            grouped
+                    .computeIfAbsent(pack.category(i), k -> new LinkedHashMap<>())
+                    .computeIfAbsent(pack.difficulty(i), k -> new IntList())
+                    .add(i);
+        }
+        PackCache cache = new PackCache(pack, cacheSize);
+        Map<String, Map<String, Shelf>> index = new LinkedHashMap<>();
+        grouped.forEach((cat, diffs) -> {
+            Map<String, Shelf> shelves = new LinkedHashMap<>();
+            diffs.forEach((diff, ordinals) -> {
+                Map<QuestionType, IntList> split = new EnumMap<>(QuestionType.class);
+                for (int k = 0; k < ordinals.size; k++) {
+                    QuestionType t = pack.type(ordinals.values[k]);
+                    if (t != null)
+                        split.computeIfAbsent(t, x -> new IntList()).add(ordinals.values[k]);
+                }
+                Map<QuestionType, List<Question>> byType = new EnumMap<>(QuestionType.class);
+                split.forEach((t, list) -> byType.put(t, new PackList(cache, list.toArray())));
+                shelves.put(diff, new Shelf(new PackList(cache, ordinals.toArray()),
+                        Collections.unmodifiableMap(byType)));
+            });
+            index.put(cat, Collections.unmodifiableMap(shelves));
+        });
+        this.organizedQuestions = Collections.unmodifiableMap(index);
+        this.allQuestions = new RangeList(cache, 0, n);
+    }
+
+    /**
+     * Builds a bank over a compiled pack from its group table alone. Each
+     * shelf is a range of ordinals; its per-type split is worked out the
+     * first time a game asks for a type on that shelf.
+     */
+    public QuestionBank(BinaryQuestionPack pack, int cacheSize) {
+        PackCache cache = new PackCache(pack, cacheSize);
+        Map<String, Map<String, Shelf>> index = new LinkedHashMap<>();
+        for (BinaryQuestionPack.Group g : pack.groups()) {
+            RangeList range = new RangeList(cache, g.first, g.count);
+            index.computeIfAbsent(g.category, k -> new LinkedHashMap<>())
+                    .put(g.difficulty, new Shelf(range, () -> splitByType(pack, cache, g.first, g.count)));
+        }
+        index.replaceAll((cat, shelves) -> Collections.unmodifiableMap(shelves));
+        this.organizedQuestions = Collections.unmodifiableMap(index);
+        this.allQuestions = new RangeList(cache, 0, pack.size());
+    }
+
+    /** Splits the ordinals {@code first .. first + count - 1} by question type. */
+    private static Map<QuestionType, List<Question>> splitByType(QuestionPack pack, PackCache cache, int first,
+            int count) {
+        Map<QuestionType, IntList> split = new EnumMap<>(QuestionType.class);
+        for (int i = first; i < first + count; i++) {
+            QuestionType t = pack.type(i);
+            if (t != null)
+                split.computeIfAbsent(t, x -> new IntList()).add(i);
+        }
+        Map<QuestionType, List<Question>> byType = new EnumMap<>(QuestionType.class);
+        split.forEach((t, list) -> byType.put(t, new PackList(cache, list.toArray())));
+        return Collections.unmodifiableMap(byType);
+    }
+
+    /**
+     * Opens {@code path} the cheapest way for its format and size: a
+     * compiled {@link BinaryQuestionPack} is memory-mapped, small JSON
+     * files are parsed up front, and large ones (see
+     * {@link #LAZY_PACK_BYTES}) are streamed into a lazily loaded bank.
+     */
+    public static QuestionBank load(String path) {
+        try {
+            Path p = Path.of(path);
+            if (Files.isRegularFile(p) && BinaryQuestionPack.isPack(p)) {
+                return new QuestionBank(BinaryQuestionPack.open(p), DEFAULT_CACHE_SIZE);
+            }
+            if (Files.isRegularFile(p) && Files.size(p) >= LAZY_PACK_BYTES) {
+                return new QuestionBank(JsonQuestionPack.open(p), DEFAULT_CACHE_SIZE);
+            }
+        } catch (IOException e) {
+            System.err.println("Error indexing question pack: " + e.getMessage());
+        }
+        return new QuestionBank(path);
+    }
+
+    private static List<Question> loadFromJson(String jsonPath) {
         try (FileReader reader = new FileReader(jsonPath)) {
             Gson gson = new Gson();
             Type listType = new TypeToken<List<Question>>() {
             }.getType();
             List<Question> allQuestions = gson.fromJson(reader, listType);
-
-            for (Question q : allQuestions) {
-                organizedQuestions
-                        .computeIfAbsent(q.getCategory(), k -> new HashMap<>())
-                        .computeIfAbsent(q.getDifficulty(), k -> new ArrayList<>())
-                        .add(q);
-            }
-            // shuffling the questions
-            organizedQuestions.values().forEach(diffMap -> diffMap.values().forEach(Collections::shuffle));
+            return allQuestions == null ? List.of() : allQuestions;
         } catch (Exception e) {
             System.err.println("Error loading JSON: " + e.getMessage());
+            return List.of();
         }
     }
 
@@ -40,29 +172,195 @@ public class QuestionBank {
     }
 
     public Set<String> getDifficulties(String category) {
-        if (organizedQuestions.containsKey(category)) {
-            return organizedQuestions.get(category).keySet();
-        }
-        return new HashSet<>();
+        Map<String, Shelf> diffs = organizedQuestions.get(category);
+        return diffs == null ? Set.of() : diffs.keySet();
+    }
+
+    /** Every question for this category and difficulty; never {@code null}. */
+    public List<Question> getQuestions(String cat, String diff) {
+        Shelf shelf = shelf(cat, diff);
+        return shelf == null ? List.of() : shelf.all;
+    }
+
+    /** Same as {@link #getQuestions(String, String)} narrowed to one type. */
+    public List<Question> getQuestions(String cat, String diff, QuestionType type) {
+        Shelf shelf = shelf(cat, diff);
+        if (shelf == null || type == null)
+            return List.of();
+        return shelf.byType().getOrDefault(type, List.of());
+    }
+
+    /** Every loaded question, in load order. */
+    public List<Question> getAllQuestions() {
+        return allQuestions;
+    }
+
+    public int size() {
+        return allQuestions.size();
     }
 
+    /** Starts a fresh draw order over this bank for one game. */
+    public QuestionDeck newDeck() {
+        return new QuestionDeck(this);
+    }
+
+    /**
+     * Draws the next unseen question for this category and difficulty from
+     * a deck shared by every caller of this method, or {@code null} once it
+     * has run dry. Games should prefer their own {@link #newDeck()}.
+     */
     public Question getQuestion(String cat, String diff) {
-        if (organizedQuestions.containsKey(cat) && organizedQuestions.get(cat).containsKey(diff)) {
-            List<Question> list = organizedQuestions.get(cat).get(diff);
-            return list.isEmpty() ? null : list.remove(0);
-        }
-        return null;
+        return sharedDeck().draw(cat, diff);
     }
 
+    /** A shuffled copy of every question; prefer {@link QuestionDeck#drawAny()}. */
     public List<Question> getAllQuestionsAsList() {
-        List<Question> all = new ArrayList<>();
-        // iterate through the map and collect all elements into a single list
-        for (Map<String, List<Question>> diffMap : organizedQuestions.values()) {
-            for (List<Question> list : diffMap.values()) {
-                all.addAll(list);
-            }
-        }
+        List<Question> all = new ArrayList<>(allQuestions);
         Collections.shuffle(all);
         return all;
     }
-}
\ No newline at end of file
+
+    private synchronized QuestionDeck sharedDeck() {
+        if (sharedDeck == null)
+            sharedDeck = newDeck();
+        return sharedDeck;
+    }
+
+    private Shelf shelf(String cat, String diff) {
+        Map<String, Shelf> diffs = organizedQuestions.get(cat);
+        return diffs == null ? null : diffs.get(diff);
+    }
+
+    /** Questions of one category and difficulty, plus a per-type split. */
+    private static final class Shelf {
+        final List<Question> all;
+        private Map<QuestionType, List<Question>> byType;
+        private Supplier<Map<QuestionType, List<Question>>> splitter;
+
+        Shelf(List<Question> all, Map<QuestionType, List<Question>> byType) {
+            this.all = all;
+            this.byType = byType;
+        }
+
+        /** Shelf whose split is built by {@code splitter} on first use. */
+        Shelf(List<Question> all, Supplier<Map<QuestionType, List<Question>>> splitter) {
+            this.all = all;
+            this.splitter = splitter;
+        }
+
+        synchronized Map<QuestionType, List<Question>> byType() {
+            if (byType == null) {
+                byType = splitter.get();
+                splitter = null;
+            }
+            return byType;
+        }
+
+        static Shelf of(List<Question> questions) {
+            Map<QuestionType, List<Question>> split = new EnumMap<>(QuestionType.class);
+            for (Question q : questions) {
+                if (q.getType() != null)
+                    split.computeIfAbsent(q.getType(), k -> new ArrayList<>()).add(q);
+            }
+            split.replaceAll((k, v) -> List.copyOf(v));
+            return new Shelf(List.copyOf(questions), Collections.unmodifiableMap(split));
+        }
+    }
+
+    // ── Lazily loaded packs ──
+
+    /** Read-only view of some pack ordinals, parsed on {@link #get}. */
+    private static final class PackList extends AbstractList<Question> implements RandomAccess {
+        private final PackCache cache;
+        private final int[] ordinals;
+
+        PackList(PackCache cache, int[] ordinals) {
+            this.cache = cache;
+            this.ordinals = ordinals;
+        }
+
+        @Override
+        public Question get(int index) {
+            return cache.get(ordinals[index]);
+        }
+
+        @Override
+        public int size() {
+            return ordinals.length;
+        }
+    }
+
+    /** Read-only view of the consecutive ordinals {@code first .. first + size - 1}. */
+    private static final class RangeList extends AbstractList<Question> implements RandomAccess {
+        private final PackCache cache;
+        private final int first;
+        private final int size;
+
+        RangeList(PackCache cache, int first, int size) {
+            this.cache = cache;
+            this.first = first;
+            this.size = size;
+        }
+
+        @Override
+        public Question get(int index) {
+            Objects.checkIndex(index, size);
+            return cache.get(first + index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    /**
+     * Least-recently-used cache of parsed pack questions. Callers must not
+     * modify what it returns; {@link QuestionDeck} hands out copies.
+     */
+    private static final class PackCache {
+        private final QuestionPack pack;
+        private final Map<Integer, Question> parsed;
+
+        PackCache(QuestionPack pack, int capacity) {
+            this.pack = pack;
+            int cap = Math.max(1, capacity);
+            this.parsed = new LinkedHashMap<>(Math.min(cap, 1024), 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Integer, Question> eldest) {
+                    return size() > cap;
+                }
+            };
+        }
+
+        synchronized Question get(int ordinal) {
+            Question q = parsed.get(ordinal);
+            if (q == null) {
+                try {
+                    q = pack.load(ordinal);
+                    q.matcher();
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Could not read question " + ordinal, e);
+                }
+                parsed.put(ordinal, q);
+            }
+            return q;
+        }
+    }
+
+    /** Growable {@code int} list so indexing does not box every ordinal. */
+    private static final class IntList {
+        int[] values = new int[8];
+        int size;
+
+        void add(int v) {
+            if (size == values.length)
+                values = Arrays.copyOf(values, size * 2);
+            values[size++] = v;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package trivia;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * One game's draw order over a shared {@link QuestionBank}. Each
+ * category/difficulty pile keeps a cursor into a lazily shuffled index
+ * array, so a draw is a single swap and never touches the bank. Draws hand
+ * out copies, so a game may tweak its question (bonuses, weapons) without
+ * affecting anyone else.
+ */
+public class QuestionDeck {
+
+    private final QuestionBank bank;
+    private final Random random;
+    private final Map<String, Map<String, Cursor>> cursors = new HashMap<>();
+    private Cursor anyCursor;
+
+    public QuestionDeck(QuestionBank bank) {
+        this(bank, new Random());
+    }
+
+    public QuestionDeck(QuestionBank bank, Random random) {
+        this.bank = bank;
+        this.random = random;
+    }
+
+    /**
+     * Next question of this category and difficulty that this deck has not
+     * dealt yet, or {@code null} once the pile is used up.
+     */
+    public synchronized Question draw(String cat, String diff) {
+        List<Question> pile = bank.getQuestions(cat, diff);
+        if (pile.isEmpty())
+            return null;
+        Cursor c = cursors
+                .computeIfAbsent(cat, k -> new HashMap<>())
+                .computeIfAbsent(diff, k -> new Cursor(pile.size(), false));
+        int i = c.next(random);
+        return i < 0 ? null : pile.get(i).cloneQuestion();
+    }
+
+    /**
+     * A question from anywhere in the bank. Runs through the whole bank in
+     * random order and then starts over, so it only returns {@code null}
+     * when the bank is empty.
+     */
+    public synchronized Question drawAny() {
+        List<Question> all = bank.getAllQuestions();
+        if (all.isEmpty())
+            return null;
+        if (anyCursor == null)
+            anyCursor = new Cursor(all.size(), true);
+        return all.get(anyCursor.next(random)).cloneQuestion();
+    }
+
+    /** Fisher-Yates shuffle done one step per draw. */
+    private static final class Cursor {
+        private final int[] order;
+        private final boolean cycle;
+        private int pos;
+
+        Cursor(int size, boolean cycle) {
+            this.order = new int[size];
+            for (int i = 0; i < size; i++)
+                order[i] = i;
+            this.cycle = cycle;
+        }
+
+        int next(Random random) {
+            if (pos >= order.length) {
+                if (!cycle)
+                    return -1;
+                pos = 0;
+            }
+            int j = pos + random.nextInt(order.length - pos);
+            int picked = order[j];
+            order[j] = order[pos];
+            order[pos++] = picked;
+            return picked;
+        }
+    }
+}
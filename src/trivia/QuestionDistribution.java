@@ -0,0 +1,98 @@
+package trivia;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * How many questions a set holds per category and difficulty, checked
+ * against the minimum a game needs. Shared by the {@code CheckQuestions}
+ * and {@code CompileQuestions} tools so both report and judge a question
+ * file the same way.
+ */
+public final class QuestionDistribution {
+
+    /** Questions every category needs at each difficulty. */
+    public static final int MIN_PER_COMBINATION = 3;
+    private static final String[] DIFFICULTIES = { "EASY", "MEDIUM", "HARD" };
+
+    private final Map<String, Map<String, Integer>> counts;
+
+    /** Wraps counts keyed by category, then difficulty. */
+    public QuestionDistribution(Map<String, Map<String, Integer>> counts) {
+        this.counts = counts;
+    }
+
+    public static QuestionDistribution of(Collection<Question> questions) {
+        Map<String, Map<String, Integer>> counts = new HashMap<>();
+        for (Question q : questions)
+            counts.computeIfAbsent(q.getCategory(), k -> new HashMap<>()).merge(q.getDifficulty(), 1, Integer::sum);
+        return new QuestionDistribution(counts);
+    }
+
+    /** Categories in alphabetical order. */
+    public List<String> categories() {
+        List<String> sorted = new ArrayList<>(counts.keySet());
+        sorted.sort(Comparator.nullsFirst(Comparator.naturalOrder()));
+        return sorted;
+    }
+
+    public int count(String category, String difficulty) {
+        Map<String, Integer> diffs = counts.get(category);
+        return diffs == null ? 0 : diffs.getOrDefault(difficulty, 0);
+    }
+
+    /** Every combination below {@link #MIN_PER_COMBINATION}, as "Category DIFF (n/3)". */
+    public List<String> insufficient() {
+        List<String> out = new ArrayList<>();
+        for (String cat : categories()) {
+            for (String diff : DIFFICULTIES) {
+                int n = count(cat, diff);
+                if (n < MIN_PER_COMBINATION)
+                    out.add(cat + " " + diff + " (" + n + "/" + MIN_PER_COMBINATION + ")");
+            }
+        }
+        return out;
+    }
+
+    public boolean isSufficient() {
+        return insufficient().isEmpty();
+    }
+
+    /** Same counts for every category and difficulty. */
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof QuestionDistribution other && counts.equals(other.counts);
+    }
+
+    @Override
+    public int hashCode() {
+        return counts.hashCode();
+    }
+
+    /** Prints one row per category with its EASY, MEDIUM and HARD counts. */
+    public void printTable(PrintStream out) {
+        out.printf("%-20s %-8s %-8s %-8s%n", "Category", "EASY", "MEDIUM", "HARD");
+        out.println("-".repeat(50));
+        for (String cat : categories())
+            out.printf("%-20s %-8d %-8d %-8d%n", cat, count(cat, "EASY"), count(cat, "MEDIUM"), count(cat, "HARD"));
+    }
+
+    /** Prints the insufficient combinations, or that there are none. */
+    public void printVerdict(PrintStream out) {
+        List<String> insufficient = insufficient();
+        if (!insufficient.isEmpty()) {
+            out.println("\n❌ Insufficient combinations (<" + MIN_PER_COMBINATION + " questions):");
+            for (String combo : insufficient)
+                out.println("  - " + combo);
+            out.println("\nTotal insufficient combinations: " + insufficient.size());
+        } else {
+            out.println("\n✓ All combinations have at least " + MIN_PER_COMBINATION
+                    + " questions for each difficulty!");
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package trivia;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * A question file that is indexed up front but read one question at a
+ * time. {@link QuestionBank#QuestionBank(QuestionPack, int)} builds its
+ * index from the cheap per-question keys here and only calls
+ * {@link #load(int)} when a question is actually drawn.
+ */
+public interface QuestionPack extends Closeable {
+
+    /** Number of questions; ordinals run from 0 to {@code size() - 1}. */
+    int size();
+
+    String category(int ordinal);
+
+    String difficulty(int ordinal);
+
+    /** The question's type, or {@code null} if the pack does not say. */
+    QuestionType type(int ordinal);
+
+    /** Reads and parses one full question. */
+    Question load(int ordinal) throws IOException;
+}
@@ -44,7 +44,7 @@ public class SoundManager {
             return;
         }
 
-        new Thread(() -> {
+        Tasks.run("MindWars-Sound", () -> {
             try {
                 AudioInputStream stream = AudioSystem.getAudioInputStream(file);
                 Clip clip = AudioSystem.getClip();
@@ -58,7 +58,7 @@ public class SoundManager {
             } catch (Exception e) {
                 // silently ignore
             }
-        }).start();
+        });
     }
 
     public void startBackground() {
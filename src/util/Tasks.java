@@ -0,0 +1,125 @@
+package util;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs MindWars' background work: client socket readers, sound effects and
+ * delayed server steps.
+ *
+ * <p>
+ * By default every task gets its own virtual thread, so a blocking socket
+ * read or a sleep costs a few hundred bytes instead of a platform stack and
+ * a load-test host can keep thousands of clients open.
+ * {@code -Dmindwars.threads=platform} falls back to a bounded pool of daemon
+ * platform threads ({@code -Dmindwars.threads.max}, default
+ * {@value #DEFAULT_POOL_SIZE}) for short tasks; tasks beyond that wait in
+ * the queue.
+ * </p>
+ *
+ * <p>
+ * Work that never finishes on its own (a socket reader) goes through
+ * {@link #runDedicated}, and delays are timed by one scheduler thread
+ * before the task is handed to {@link #run}. Neither ever holds a pool
+ * thread, so a room's delayed step cannot queue behind readers.
+ * </p>
+ */
+public final class Tasks {
+
+    /** How {@link #run} executes tasks. */
+    public enum Mode {
+        VIRTUAL,
+        PLATFORM
+    }
+
+    public static final int DEFAULT_POOL_SIZE = 64;
+
+    private static final Mode MODE = parseMode(System.getProperty("mindwars.threads", "virtual"));
+
+    private static ExecutorService platformPool;
+    private static ScheduledExecutorService timer;
+
+    private Tasks() {
+    }
+
+    public static Mode mode() {
+        return MODE;
+    }
+
+    /** Unknown names mean {@link Mode#VIRTUAL}. */
+    public static Mode parseMode(String name) {
+        return "platform".equalsIgnoreCase(name) ? Mode.PLATFORM : Mode.VIRTUAL;
+    }
+
+    /**
+     * Starts {@code task} in the background and returns at once. Neither
+     * mode keeps the JVM alive. {@code name} labels the virtual thread in
+     * thread dumps; pooled threads keep their pool names.
+     */
+    public static void run(String name, Runnable task) {
+        if (MODE == Mode.VIRTUAL) {
+            Thread.ofVirtual().name(name).start(task);
+        } else {
+            pool().execute(task);
+        }
+    }
+
+    /**
+     * Like {@link #run} but waits {@code delayMs} first. The wait happens on
+     * a shared timer thread, not on a task thread.
+     */
+    public static void runAfter(String name, long delayMs, Runnable task) {
+        timer().schedule(() -> run(name, task), delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Starts {@code task}, which may block for as long as it likes, on a
+     * thread of its own: a virtual thread, or in platform mode a new daemon
+     * thread named {@code name} rather than a pool slot.
+     */
+    public static void runDedicated(String name, Runnable task) {
+        if (MODE == Mode.VIRTUAL) {
+            Thread.ofVirtual().name(name).start(task);
+        } else {
+            Thread t = new Thread(task, name);
+            t.setDaemon(true);
+            t.start();
+        }
+    }
+
+    private static synchronized ScheduledExecutorService timer() {
+        if (timer == null) {
+            timer = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "MindWars-Timer");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        return timer;
+    }
+
+    private static synchronized ExecutorService pool() {
+        if (platformPool == null) {
+            int size = Integer.getInteger("mindwars.threads.max", DEFAULT_POOL_SIZE);
+            if (size < 1)
+                size = DEFAULT_POOL_SIZE;
+            AtomicInteger seq = new AtomicInteger();
+            ThreadFactory factory = r -> {
+                Thread t = new Thread(r, "MindWars-Worker-" + seq.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            };
+            ThreadPoolExecutor exec = new ThreadPoolExecutor(size, size, 30, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(), factory);
+            exec.allowCoreThreadTimeOut(true);
+            platformPool = exec;
+        }
+        return platformPool;
+    }
+}
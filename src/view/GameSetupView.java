@@ -137,12 +137,12 @@ public class GameSetupView extends JPanel {
         botDifficultyPanel.add(sectionLabel("Bot Difficulty"));
         botDifficultyPanel.add(Box.createVerticalStrut(6));
 
-        JPanel botBtnRow = new JPanel(new GridLayout(1, 3, 10, 0));
+        JPanel botBtnRow = new JPanel(new GridLayout(1, 4, 10, 0));
         botBtnRow.setOpaque(false);
         botBtnRow.setMaximumSize(new Dimension(Integer.MAX_VALUE, 44));
         botBtnRow.setAlignmentX(Component.LEFT_ALIGNMENT);
 
-        for (String diff : new String[] { "Easy", "Medium", "Hard" }) {
+        for (String diff : new String[] { "Easy", "Medium", "Hard", "Expert" }) {
             boolean sel = diff.equals(selectedBotDifficulty);
             JToggleButton tb = botDiffToggle(diff, sel);
             tb.addActionListener(e -> selectBotDifficulty(diff));
@@ -279,6 +279,7 @@ public class GameSetupView extends JPanel {
         Color accentColor = switch (diff) {
             case "Medium" -> new Color(230, 140, 0);
             case "Hard" -> new Color(210, 40, 40);
+            case "Expert" -> new Color(120, 40, 180);
             default -> new Color(30, 160, 80); // easy
         };
         Color bgColor = selected
@@ -314,7 +315,7 @@ public class GameSetupView extends JPanel {
 
     private void selectBotDifficulty(String diff) {
         selectedBotDifficulty = diff;
-        String[] diffs = { "Easy", "Medium", "Hard" };
+        String[] diffs = { "Easy", "Medium", "Hard", "Expert" };
         for (int i = 0; i < botDiffButtons.size(); i++) {
             botDiffButtons.get(i).setSelected(diffs[i].equals(diff));
         }
@@ -2,9 +2,16 @@ package view;
 
 import controller.GameController;
 import java.awt.*;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import javax.swing.*;
+import model.GameMemento;
+import model.GameMementoStore;
+import model.GameMementoStore.SlotInfo;
 import model.GameModel;
 import player.Player;
+import util.Tasks;
 
 /**
  * "Pass the device" screen. Used both between questions and before each
@@ -86,7 +93,7 @@ public class HotSeatView extends JPanel {
     }
 
     private void showBotDifficultyDialog() {
-        String[] options = { "Easy", "Medium", "Hard" };
+        String[] options = { "Easy", "Medium", "Hard", "Expert" };
         int choice = JOptionPane.showOptionDialog(
                 this,
                 "Select Bot Difficulty:",
@@ -103,20 +110,86 @@ public class HotSeatView extends JPanel {
     }
 
     private void onSave() {
+        // Snapshot now, on the EDT; everything that touches the database runs off it.
+        GameMemento memento;
         try {
-            controller.saveGame();
-            JOptionPane.showMessageDialog(
-                    this,
-                    "Game saved.",
-                    "Save Game",
-                    JOptionPane.INFORMATION_MESSAGE);
-        } catch (java.io.IOException ex) {
-            JOptionPane.showMessageDialog(
-                    this,
-                    "Could not save: " + ex.getMessage(),
-                    "Save Game",
-                    JOptionPane.ERROR_MESSAGE);
+            memento = controller.captureForSave();
+        } catch (IOException ex) {
+            showSaveError(ex.getMessage());
+            return;
         }
+        String suggested = "Game " + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm"));
+        String name = (String) JOptionPane.showInputDialog(
+                this,
+                "Save as:",
+                "Save Game",
+                JOptionPane.PLAIN_MESSAGE,
+                null,
+                null,
+                suggested);
+        if (name == null || name.isBlank())
+            return;
+        String slotName = name.strip();
+        GameMementoStore store = controller.getMementoStore();
+        Tasks.run("MindWars-SaveGameList", () -> {
+            boolean exists = false;
+            String error = null;
+            try {
+                for (SlotInfo slot : store.list()) {
+                    if (slot.name.equals(slotName))
+                        exists = true;
+                }
+            } catch (IOException ex) {
+                error = ex.getMessage();
+            }
+            boolean replace = exists;
+            String failure = error;
+            SwingUtilities.invokeLater(() -> confirmSave(store, slotName, memento, replace, failure));
+        });
+    }
+
+    /** Back on the EDT: confirms replacing an existing slot, then writes it in the background. */
+    private void confirmSave(GameMementoStore store, String name, GameMemento memento, boolean exists,
+            String listError) {
+        if (listError != null) {
+            showSaveError(listError);
+            return;
+        }
+        if (exists && JOptionPane.showConfirmDialog(
+                this,
+                "Replace the save \"" + name + "\"?",
+                "Save Game",
+                JOptionPane.YES_NO_OPTION) != JOptionPane.YES_OPTION) {
+            return;
+        }
+        Tasks.run("MindWars-SaveGame", () -> {
+            String error = null;
+            try {
+                store.save(name, memento);
+            } catch (IOException ex) {
+                error = ex.getMessage();
+            }
+            String failure = error;
+            SwingUtilities.invokeLater(() -> {
+                if (failure != null) {
+                    showSaveError(failure);
+                } else {
+                    JOptionPane.showMessageDialog(
+                            this,
+                            "Game saved.",
+                            "Save Game",
+                            JOptionPane.INFORMATION_MESSAGE);
+                }
+            });
+        });
+    }
+
+    private void showSaveError(String message) {
+        JOptionPane.showMessageDialog(
+                this,
+                "Could not save: " + message,
+                "Save Game",
+                JOptionPane.ERROR_MESSAGE);
     }
 
     private void onReturnToMenu() {
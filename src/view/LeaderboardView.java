@@ -3,6 +3,8 @@ package view;
 import controller.NavigationController;
 import model.LeaderboardEntry;
 import model.LeaderboardStore;
+import persistence.LeaderboardRepository;
+import util.Tasks;
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
@@ -12,17 +14,35 @@ import java.awt.*;
 import java.util.List;
 
 /**
- * Persistent leaderboard screen (#89). Shows a sorted table of all
- * players who have ever played, with their wins, total score, and
- * games played. Data is backed by {@link LeaderboardStore}.
+ * Persistent leaderboard screen (#89). Shows a sorted table of the best
+ * players, with their wins, total score, and games played. "All players"
+ * is backed by {@link LeaderboardStore}; the account views read the
+ * database through {@link LeaderboardRepository}, off the EDT, and can be
+ * narrowed to one map size.
  */
 public class LeaderboardView extends JPanel {
 
     private static final String[] COLUMNS = { "#", "Player", "Wins", "Total Score", "Games" };
+    /** Rows shown; the store and the database only produce this many. */
+    private static final int DISPLAY_LIMIT = 100;
+
+    private static final String[] FILTERS = { "All players", "Accounts: all modes", "Accounts: hot seat",
+            "Accounts: vs bot", "Accounts: network" };
+    /** {@code game_mode} per filter; index 0 is the local store. */
+    private static final String[] FILTER_MODES = { null, null, "hot-seat", "vs-bot", "network" };
+
+    private static final String[] SIZES = { "Any map size", "3 × 3", "5 × 5", "7 × 7" };
+    /** {@code map_size} per size choice; {@code null} is every size. */
+    private static final Integer[] SIZE_VALUES = { null, 3, 5, 7 };
 
     private final LeaderboardStore store;
+    private final LeaderboardRepository repository = new LeaderboardRepository();
     private final DefaultTableModel tableModel;
     private final JTable table;
+    private final JComboBox<String> filter = new JComboBox<>(FILTERS);
+    private final JComboBox<String> sizeFilter = new JComboBox<>(SIZES);
+    /** Bumped on every reload so a slow query cannot overwrite a newer one. */
+    private int generation;
 
     public LeaderboardView(NavigationController nav) {
         this(nav, new LeaderboardStore());
@@ -42,7 +62,21 @@ public class LeaderboardView extends JPanel {
 
         JLabel title = MindWarsTheme.centeredLabel("Leaderboard",
                 MindWarsTheme.HEADING_FONT, MindWarsTheme.PINK);
-        card.add(title, BorderLayout.NORTH);
+        filter.setFont(MindWarsTheme.BODY_FONT);
+        filter.setFocusable(false);
+        filter.addActionListener(e -> reload());
+        sizeFilter.setFont(MindWarsTheme.BODY_FONT);
+        sizeFilter.setFocusable(false);
+        sizeFilter.addActionListener(e -> reload());
+        JPanel filters = new JPanel(new GridLayout(1, 2, 8, 0));
+        filters.setOpaque(false);
+        filters.add(filter);
+        filters.add(sizeFilter);
+        JPanel north = new JPanel(new BorderLayout(0, 8));
+        north.setOpaque(false);
+        north.add(title, BorderLayout.NORTH);
+        north.add(filters, BorderLayout.SOUTH);
+        card.add(north, BorderLayout.NORTH);
 
         tableModel = new DefaultTableModel(COLUMNS, 0) {
             @Override
@@ -93,22 +127,64 @@ public class LeaderboardView extends JPanel {
         add(bg, BorderLayout.CENTER);
     }
 
-    /** Reloads the table from disk. Called by MainFrame before the card shows. */
+    /**
+     * Refills the table for the selected filter. Called by MainFrame before
+     * the card shows; the store is already current, so nothing is re-read
+     * from disk.
+     */
     public void reload() {
-        store.reload();
+        int gen = ++generation;
+        int selected = filter.getSelectedIndex();
+        // The local store keeps one total per player, not per map size.
+        sizeFilter.setEnabled(selected > 0);
+        if (selected <= 0) {
+            List<LeaderboardEntry> entries = store.getTop(DISPLAY_LIMIT);
+            tableModel.setRowCount(0);
+            int rank = 1;
+            for (LeaderboardEntry e : entries) {
+                tableModel.addRow(new Object[] {
+                        rank++,
+                        e.getName(),
+                        e.getWins(),
+                        e.getTotalScore(),
+                        e.getGamesPlayed()
+                });
+            }
+            if (entries.isEmpty()) {
+                tableModel.addRow(new Object[] { "—", "(no games played yet)", "", "", "" });
+            }
+            return;
+        }
+
         tableModel.setRowCount(0);
-        List<LeaderboardEntry> entries = store.getEntries();
+        tableModel.addRow(new Object[] { "", "Loading…", "", "", "" });
+        String mode = FILTER_MODES[selected];
+        Integer size = SIZE_VALUES[Math.max(sizeFilter.getSelectedIndex(), 0)];
+        Tasks.run("MindWars-Leaderboard", () -> {
+            List<LeaderboardRepository.Row> rows;
+            try {
+                rows = repository.top(DISPLAY_LIMIT, mode, size);
+            } catch (RuntimeException ex) {
+                rows = null;
+            }
+            List<LeaderboardRepository.Row> result = rows;
+            SwingUtilities.invokeLater(() -> showRows(gen, result));
+        });
+    }
+
+    private void showRows(int gen, List<LeaderboardRepository.Row> rows) {
+        if (gen != generation)
+            return;
+        tableModel.setRowCount(0);
+        if (rows == null) {
+            tableModel.addRow(new Object[] { "—", "(leaderboard database unavailable)", "", "", "" });
+            return;
+        }
         int rank = 1;
-        for (LeaderboardEntry e : entries) {
-            tableModel.addRow(new Object[] {
-                    rank++,
-                    e.getName(),
-                    e.getWins(),
-                    e.getTotalScore(),
-                    e.getGamesPlayed()
-            });
+        for (LeaderboardRepository.Row r : rows) {
+            tableModel.addRow(new Object[] { rank++, r.username, r.wins, r.totalScore, r.games });
         }
-        if (entries.isEmpty()) {
+        if (rows.isEmpty()) {
             tableModel.addRow(new Object[] { "—", "(no games played yet)", "", "", "" });
         }
     }
@@ -4,21 +4,36 @@ import controller.GameController;
 import controller.NavigationController;
 import model.GameMemento;
 import model.GameMementoStore;
+import model.GameMementoStore.SlotInfo;
+import util.Tasks;
 
 import javax.swing.*;
 import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
 import java.io.IOException;
+import java.util.List;
 
 /**
- * Load-game screen. Shows the metadata of the single save slot (timestamp,
- * players, round) and lets the user load it, delete it, or cancel.
+ * Load-game screen. Lists every save slot, most recent first, with its
+ * timestamp, players and round, and lets the user load or delete the
+ * selected one, or cancel.
+ *
+ * <p>
+ * Only slot headers are read to list the saves; listing, loading and
+ * deleting all run off the EDT. The list uses a fixed cell height so
+ * Swing lays out just the visible rows, however many saves there are.
  */
 public class LoadGameView extends JPanel {
 
     private final GameController controller;
+    private final DefaultListModel<SlotInfo> slots = new DefaultListModel<>();
+    private final JList<SlotInfo> slotList = new JList<>(slots);
     private final JLabel infoLabel;
     private final JButton loadButton;
     private final JButton deleteButton;
+    /** Bumped on every refresh so a slow listing cannot overwrite a newer one. */
+    private int generation;
 
     public LoadGameView(GameController controller, NavigationController nav) {
         this.controller = controller;
@@ -30,16 +45,33 @@ public class LoadGameView extends JPanel {
 
         JPanel card = MindWarsTheme.createCard();
         card.setLayout(new BoxLayout(card, BoxLayout.Y_AXIS));
-        card.setPreferredSize(new Dimension(420, 360));
+        card.setPreferredSize(new Dimension(420, 560));
 
         card.add(MindWarsTheme.centeredLabel("Load Game",
                 MindWarsTheme.HEADING_FONT, MindWarsTheme.PINK));
-        card.add(Box.createVerticalStrut(18));
+        card.add(Box.createVerticalStrut(12));
 
         infoLabel = MindWarsTheme.centeredLabel(" ",
                 MindWarsTheme.BODY_FONT, MindWarsTheme.GRAY_TEXT);
         card.add(infoLabel);
-        card.add(Box.createVerticalStrut(24));
+        card.add(Box.createVerticalStrut(8));
+
+        slotList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        slotList.setFixedCellHeight(46);
+        slotList.setCellRenderer(new SlotRenderer());
+        slotList.addListSelectionListener(e -> updateButtons());
+        slotList.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                if (e.getClickCount() == 2 && slotList.getSelectedValue() != null)
+                    onLoad();
+            }
+        });
+        JScrollPane scroll = new JScrollPane(slotList);
+        scroll.setAlignmentX(Component.CENTER_ALIGNMENT);
+        scroll.setPreferredSize(new Dimension(360, 260));
+        card.add(scroll);
+        card.add(Box.createVerticalStrut(16));
 
         loadButton = MindWarsTheme.createGradientButton("Load");
         loadButton.setAlignmentX(Component.CENTER_ALIGNMENT);
@@ -62,62 +94,129 @@ public class LoadGameView extends JPanel {
         add(bg, BorderLayout.CENTER);
     }
 
-    /** Re-reads slot metadata from disk. Call before showing the screen. */
+    /** Re-reads the slot headers. Call before showing the screen. */
     public void refresh() {
+        int gen = ++generation;
+        infoLabel.setText("Loading saves…");
+        loadButton.setEnabled(false);
+        deleteButton.setEnabled(false);
         GameMementoStore store = controller.getMementoStore();
-        if (!store.hasSave()) {
-            infoLabel.setText("<html><center>No saved game found.</center></html>");
-            loadButton.setEnabled(false);
-            deleteButton.setEnabled(false);
-            return;
-        }
-        try {
-            GameMemento m = store.load();
-            StringBuilder names = new StringBuilder();
-            for (int i = 0; i < m.players.size(); i++) {
-                if (i > 0) names.append(" vs ");
-                names.append(m.players.get(i).name);
+        Tasks.run("MindWars-LoadGameList", () -> {
+            List<SlotInfo> list;
+            String error = null;
+            try {
+                list = store.list();
+            } catch (IOException ex) {
+                list = List.of();
+                error = ex.getMessage();
             }
-            infoLabel.setText("<html><center>"
-                    + "Saved: " + escape(m.savedAt) + "<br>"
-                    + escape(names.toString()) + "<br>"
-                    + "Round " + (m.roundIndex + 1)
-                    + "</center></html>");
-            loadButton.setEnabled(true);
-            deleteButton.setEnabled(true);
-        } catch (IOException ex) {
-            infoLabel.setText("<html><center>Save file is unreadable:<br>"
-                    + escape(ex.getMessage()) + "</center></html>");
-            loadButton.setEnabled(false);
-            deleteButton.setEnabled(true);
+            List<SlotInfo> result = list;
+            String failure = error;
+            SwingUtilities.invokeLater(() -> showSlots(gen, result, failure));
+        });
+    }
+
+    private void showSlots(int gen, List<SlotInfo> list, String error) {
+        if (gen != generation)
+            return;
+        slots.clear();
+        slots.addAll(list);
+        if (error != null) {
+            infoLabel.setText("<html><center>Saves are unreadable:<br>"
+                    + escape(error) + "</center></html>");
+        } else if (list.isEmpty()) {
+            infoLabel.setText("<html><center>No saved game found.</center></html>");
+        } else {
+            infoLabel.setText(list.size() == 1 ? "1 saved game" : list.size() + " saved games");
+            slotList.setSelectedIndex(0);
         }
+        updateButtons();
+    }
+
+    private void updateButtons() {
+        boolean selected = slotList.getSelectedValue() != null;
+        loadButton.setEnabled(selected);
+        deleteButton.setEnabled(selected);
     }
 
     private void onLoad() {
-        try {
-            controller.loadGame();
-        } catch (IOException ex) {
-            JOptionPane.showMessageDialog(this,
-                    "Could not load: " + ex.getMessage(),
-                    "Load Game",
-                    JOptionPane.ERROR_MESSAGE);
-        }
+        SlotInfo slot = slotList.getSelectedValue();
+        // A double-click can arrive while another load is still running.
+        if (slot == null || !loadButton.isEnabled()) return;
+        setBusy("Loading \"" + slot.name + "\"…");
+        GameMementoStore store = controller.getMementoStore();
+        Tasks.run("MindWars-LoadGame", () -> {
+            GameMemento m = null;
+            String error = null;
+            try {
+                m = store.load(slot.name);
+                if (m == null)
+                    error = "No saved game named \"" + slot.name + "\".";
+            } catch (IOException ex) {
+                error = ex.getMessage();
+            }
+            GameMemento loaded = m;
+            String failure = error;
+            SwingUtilities.invokeLater(() -> {
+                if (failure != null) {
+                    showFailure("Could not load: " + failure, "Load Game");
+                    refresh();
+                } else {
+                    controller.resumeGame(loaded);
+                }
+            });
+        });
     }
 
     private void onDelete() {
+        SlotInfo slot = slotList.getSelectedValue();
+        if (slot == null) return;
         int choice = JOptionPane.showConfirmDialog(this,
-                "Delete the saved game?",
+                "Delete the saved game \"" + slot.name + "\"?",
                 "Delete Save",
                 JOptionPane.YES_NO_OPTION);
         if (choice != JOptionPane.YES_OPTION) return;
-        try {
-            controller.getMementoStore().delete();
-            refresh();
-        } catch (IOException ex) {
-            JOptionPane.showMessageDialog(this,
-                    "Could not delete: " + ex.getMessage(),
-                    "Delete Save",
-                    JOptionPane.ERROR_MESSAGE);
+        setBusy("Deleting \"" + slot.name + "\"…");
+        GameMementoStore store = controller.getMementoStore();
+        Tasks.run("MindWars-DeleteGame", () -> {
+            String error = null;
+            try {
+                store.delete(slot.name);
+            } catch (IOException ex) {
+                error = ex.getMessage();
+            }
+            String failure = error;
+            SwingUtilities.invokeLater(() -> {
+                if (failure != null)
+                    showFailure("Could not delete: " + failure, "Delete Save");
+                refresh();
+            });
+        });
+    }
+
+    /** Disables the slot buttons while a load or delete runs in the background. */
+    private void setBusy(String message) {
+        infoLabel.setText(message);
+        loadButton.setEnabled(false);
+        deleteButton.setEnabled(false);
+    }
+
+    private void showFailure(String message, String title) {
+        JOptionPane.showMessageDialog(this, message, title, JOptionPane.ERROR_MESSAGE);
+    }
+
+    /** Two lines per slot: its name, then when it was saved, who plays and the round. */
+    private static final class SlotRenderer extends DefaultListCellRenderer {
+        @Override
+        public Component getListCellRendererComponent(JList<?> list, Object value, int index,
+                boolean isSelected, boolean cellHasFocus) {
+            super.getListCellRendererComponent(list, value, index, isSelected, cellHasFocus);
+            SlotInfo s = (SlotInfo) value;
+            setText("<html><b>" + escape(s.name) + "</b><br>"
+                    + escape(s.savedAt) + " · " + escape(s.players) + " · Round " + s.round
+                    + "</html>");
+            setFont(MindWarsTheme.BODY_FONT);
+            return this;
         }
     }
 
@@ -5,6 +5,7 @@ import controller.NavigationController;
 import model.GameModel;
 import model.GamePhase;
 import network.NetworkSession;
+import player.Player;
 import util.SoundManager;
 
 import javax.swing.*;
@@ -64,10 +65,19 @@ public class MainFrame extends JFrame implements NavigationController {
     private BettingView bettingView;
 
     public MainFrame(GameModel model, SoundManager soundManager) {
+        this(model, soundManager, null);
+    }
+
+    /** {@code account} is the signed-in user, or {@code null} for a guest session. */
+    public MainFrame(GameModel model, SoundManager soundManager, Player account) {
         super("MindWars");
         this.model = model;
         this.soundManager = soundManager;
         this.controller = new GameController(model, this);
+        controller.setAccountUserId(account == null ? null : account.getUserID());
+        // Fold the leaderboard journal into its snapshot on the way out.
+        Runtime.getRuntime().addShutdownHook(
+                new Thread(controller.getLeaderboard()::flush, "MindWars-LeaderboardCompact"));
         this.bettingView = new BettingView(controller);
         setDefaultCloseOperation(EXIT_ON_CLOSE);
         setSize(MindWarsTheme.FRAME_WIDTH, MindWarsTheme.FRAME_HEIGHT);
@@ -78,7 +88,7 @@ public class MainFrame extends JFrame implements NavigationController {
         setupView = new GameSetupView(controller);
         loadView = new LoadGameView(controller, this);
         settingsView = new SettingsView(this, soundManager);
-        leaderboardView = new LeaderboardView(this);
+        leaderboardView = new LeaderboardView(this, controller.getLeaderboard());
         rulesView = new RulesView(this);
         hotSeatView = new HotSeatView(controller, false);
         gameBoardView = new GameBoardView(controller, false, soundManager);
@@ -50,7 +50,7 @@ public class MainWindow extends JFrame {
 
     public void startGameSession() {
         try {
-            MainFrame gameFrame = new MainFrame(model, soundManager);
+            MainFrame gameFrame = new MainFrame(model, soundManager, sessionPlayer);
             gameFrame.setBounds(this.getBounds());
             gameFrame.setVisible(true);
             gameFrame.toFront();
@@ -174,7 +174,10 @@ public class MenuPanel extends JPanel {
         skipBtn.setBorderPainted(false);
         skipBtn.setFocusPainted(false);
         skipBtn.setCursor(new Cursor(Cursor.HAND_CURSOR));
-        skipBtn.addActionListener(e -> SwingUtilities.invokeLater(parent::startGameSession));
+        skipBtn.addActionListener(e -> {
+            parent.setSessionPlayer(null); // a guest, even right after registering
+            SwingUtilities.invokeLater(parent::startGameSession);
+        });
         content.add(skipBtn, gbc);
 
         cardScroll = new JScrollPane(
@@ -50,9 +50,18 @@ public class NetworkGameView extends JPanel {
     private final JPanel claimPanel;
     private final JLabel claimInstructionLabel;
     private final JPanel claimGridPanel;
-    /** Cached grid state for building buttons. */
-    private String cachedGridSnapshot = null;
+    /**
+     * Cached grid state for building buttons, row-major. MAP_UPDATE deltas
+     * are applied on top of it; {@link #cachedMapVersion} is the server
+     * version it matches (-1 = nothing usable cached).
+     */
+    private char[] cachedOwners = null;
     private int cachedMapSize = 0;
+    private int cachedMapVersion = -1;
+    /** A MAP_RESYNC is in flight; further deltas are ignored until it lands. */
+    private boolean mapResyncRequested = false;
+    /** GAME_OVER that arrived before the map it refers to. */
+    private NetworkMessage pendingGameOver = null;
     /** Index of the player who should be claiming right now (-1 = done). */
     private int claimingPlayer = -1;
 
@@ -240,7 +249,7 @@ public class NetworkGameView extends JPanel {
             case SCORES -> onScores(msg);
             case GAME_OVER -> onGameOver(msg);
             case MAP_UPDATE -> onMapUpdate(msg); // NEW
-            case ANSWER, CLAIM_CELL, JOIN, LOBBY, PLAYER_LEFT, READY, START_GAME, TURN, WELCOME -> {
+            case ANSWER, CLAIM_CELL, JOIN, LOBBY, MAP_RESYNC, PLAYER_LEFT, READY, START_GAME, TURN, WELCOME -> {
                 // No UI action needed for these message types on the client screen.
             }
             case ERROR -> {
@@ -355,11 +364,15 @@ public class NetworkGameView extends JPanel {
      * claim grid. Enables cell buttons only for the player whose turn it is.
      */
     private void onMapUpdate(NetworkMessage msg) {
-        if (msg.gridSnapshot == null || msg.mapSize == null)
+        if (!applyMapUpdate(msg))
+            return;
+        if (pendingGameOver != null) {
+            NetworkMessage over = pendingGameOver;
+            pendingGameOver = null;
+            onGameOver(over);
             return;
+        }
 
-        cachedGridSnapshot = msg.gridSnapshot;
-        cachedMapSize = msg.mapSize;
         claimingPlayer = msg.claimingPlayer != null ? msg.claimingPlayer : -1;
 
         // Update instruction label
@@ -393,9 +406,59 @@ public class NetworkGameView extends JPanel {
         repaint();
     }
 
+    /**
+     * Folds a full or delta MAP_UPDATE into {@link #cachedOwners}. Returns
+     * {@code false} when the update could not be applied because a delta
+     * was missed; a MAP_RESYNC is sent in that case.
+     */
+    private boolean applyMapUpdate(NetworkMessage msg) {
+        if (msg.mapSize == null)
+            return false;
+        int size = msg.mapSize;
+        int version = msg.mapVersion != null ? msg.mapVersion : -1;
+
+        if (msg.gridSnapshot != null) {
+            if (msg.gridSnapshot.length() != size * size)
+                return false;
+            cachedOwners = msg.gridSnapshot.toCharArray();
+            cachedMapSize = size;
+            cachedMapVersion = version;
+            mapResyncRequested = false;
+            return true;
+        }
+        if (msg.changedCells == null)
+            return false;
+
+        boolean inStep = cachedOwners != null && cachedMapSize == size && version >= 0
+                && (msg.changedCells.isEmpty() ? version == cachedMapVersion
+                        : version == cachedMapVersion + 1);
+        if (!inStep || mapResyncRequested) {
+            requestMapResync();
+            return false;
+        }
+        List<Integer> cells = msg.changedCells;
+        for (int i = 0; i + 1 < cells.size(); i += 2) {
+            int idx = cells.get(i);
+            if (idx >= 0 && idx < cachedOwners.length)
+                cachedOwners[idx] = (char) cells.get(i + 1).intValue();
+        }
+        cachedMapVersion = version;
+        return true;
+    }
+
+    /** Asks the server for the whole board and locks claiming until it arrives. */
+    private void requestMapResync() {
+        if (mapResyncRequested || !session.isConnected())
+            return;
+        mapResyncRequested = true;
+        cachedMapVersion = -1;
+        session.getClient().send(NetworkMessage.mapResync());
+        rebuildClaimGrid(false);
+    }
+
     private void rebuildClaimGrid(boolean enableEmpty) {
         claimGridPanel.removeAll();
-        if (cachedGridSnapshot == null || cachedMapSize <= 0)
+        if (cachedOwners == null || cachedMapSize <= 0)
             return;
 
         int size = cachedMapSize;
@@ -403,7 +466,7 @@ public class NetworkGameView extends JPanel {
 
         for (int r = 0; r < size; r++) {
             for (int c = 0; c < size; c++) {
-                char owner = cachedGridSnapshot.charAt(r * size + c);
+                char owner = cachedOwners[r * size + c];
                 JButton btn = buildClaimButton(owner, r, c, enableEmpty);
                 claimGridPanel.add(btn);
             }
@@ -639,6 +702,22 @@ public class NetworkGameView extends JPanel {
     }
 
     private void onGameOver(NetworkMessage msg) {
+        // The final board is not resent; rebuild it from the cached map,
+        // fetching it first if this client fell behind.
+        if (msg.gridSnapshot == null && msg.mapVersion != null) {
+            if (cachedOwners != null && cachedMapVersion == msg.mapVersion) {
+                msg.gridSnapshot = new String(cachedOwners);
+            } else if (session.isConnected()) {
+                pendingGameOver = msg;
+                stopTimer();
+                submitButton.setEnabled(false);
+                mapResyncRequested = false;
+                requestMapResync();
+                return;
+            } else {
+                msg.mapSize = null; // nothing to draw
+            }
+        }
         stopTimer();
         submitButton.setEnabled(false);
         session.disconnect();
@@ -74,7 +74,8 @@ public class RulesView extends JPanel {
                 createSection(
                         "Bot Difficulty",
                         " Easy Bot: answers randomly after a short delay\n" +
-                                " Hard Bot: usually answers correctly but can still make mistakes"));
+                                " Hard Bot: usually answers correctly but can still make mistakes\n" +
+                                " Expert Bot: answers like Hard, and plans its territory and invasions ahead"));
         content.add(Box.createVerticalStrut(12));
 
         content.add(
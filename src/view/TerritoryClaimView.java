@@ -301,31 +301,48 @@ public class TerritoryClaimView extends JPanel {
         if (pickOrder == null || pickIndex >= pickOrder.length)
             return;
         GameModel model = controller.getModel();
-        Player cur = model.getPlayers().get(pickOrder[pickIndex]);
+        int[] order = pickOrder;
+        int index = pickIndex;
+        int seat = order[index];
+        Player cur = model.getPlayers().get(seat);
         if (!cur.isBot())
             return;
         javax.swing.Timer t = new javax.swing.Timer(700, e -> {
-            if (pickIndex >= pickOrder.length)
+            if (!isBotTurn(order, index, seat))
                 return;
-            int[] target = pickRandomEmptyCell(model.getMap());
-            if (target == null)
-                return;
-            onCellClicked(target[0], target[1]);
+            // A searching bot may think for a while; keep that off the EDT.
+            util.Tasks.run("bot-claim", () -> {
+                int[] target = pickBotCell(model, cur);
+                if (target == null)
+                    return;
+                SwingUtilities.invokeLater(() -> {
+                    // The round may have been rebuilt, or the turn moved on, while it searched.
+                    if (isBotTurn(order, index, seat))
+                        onCellClicked(target[0], target[1]);
+                });
+            });
         });
         t.setRepeats(false);
         t.start();
     }
 
-    private int[] pickRandomEmptyCell(MapGrid map) {
-        int size = map.getSize();
-        java.util.List<int[]> empties = new java.util.ArrayList<>();
-        for (int r = 0; r < size; r++)
-            for (int c = 0; c < size; c++)
-                if (map.getOwner(r, c) == '.')
-                    empties.add(new int[] { r, c });
-        if (empties.isEmpty())
+    /** Whether the pick the bot started on is still the current one. */
+    private boolean isBotTurn(int[] order, int index, int seat) {
+        return pickOrder == order && pickIndex == index && index < order.length && order[index] == seat;
+    }
+
+    private int[] pickBotCell(GameModel model, Player bot) {
+        MapGrid map = model.getMap();
+        List<Player> players = model.getPlayers();
+        char[] symbols = new char[players.size()];
+        for (int i = 0; i < symbols.length; i++)
+            symbols[i] = players.get(i).getSymbol();
+        int cell = bot.getStrategy() == null ? -1 : bot.getStrategy().chooseClaim(map, bot.getSymbol(), symbols);
+        if (cell < 0)
+            cell = map.randomFreeCell(java.util.concurrent.ThreadLocalRandom.current());
+        if (cell < 0)
             return null;
-        return empties.get(new java.util.Random().nextInt(empties.size()));
+        return new int[] { cell / map.getSize(), cell % map.getSize() };
     }
 
     // ── Helpers ──────────────────────────────────────────────────────────